@@ -54,6 +54,12 @@ public class StudentController {
         return ResponseEntity.ok(studentService.getActiveStudentsByDomain(domain));
     }
 
+    @PostMapping("/contacts")
+    public ResponseEntity<List<com.skilledup.student.dto.StudentContactDTO>> getStudentContacts(
+            @RequestBody List<Long> ids) {
+        return ResponseEntity.ok(studentService.getStudentContacts(ids));
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<Student> getProfile(@RequestParam Long userId) {
         return ResponseEntity.ok(studentService.getStudentProfile(userId));
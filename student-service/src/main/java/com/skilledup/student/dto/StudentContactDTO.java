@@ -0,0 +1,18 @@
+package com.skilledup.student.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Minimal student contact details returned by the bulk lookup used for
+ * notifications
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentContactDTO {
+    private Long id;
+    private String name;
+    private String email;
+}
@@ -29,6 +29,9 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
         long countByStatus(Student.StudentStatus status);
 
+        @Query("SELECT new com.skilledup.student.dto.StudentContactDTO(s.id, s.name, s.email) FROM Student s WHERE s.id IN :ids")
+        List<com.skilledup.student.dto.StudentContactDTO> findContactsByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
         @Query("SELECT s FROM Student s WHERE " +
                         "(:status IS NULL OR s.status = :status) AND " +
                         "(:city IS NULL OR s.city = :city) AND " +
@@ -219,6 +219,20 @@ public class StudentService {
                 .orElseThrow(() -> new RuntimeException("Student not found"));
     }
 
+    /**
+     * Bulk contact lookup (id, name, email) for task-service notifications.
+     * Unknown IDs are simply absent from the result.
+     */
+    public List<com.skilledup.student.dto.StudentContactDTO> getStudentContacts(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return java.util.Collections.emptyList();
+        }
+        if (ids.size() > 1000) {
+            throw new RuntimeException("At most 1000 student IDs can be looked up per request");
+        }
+        return studentRepository.findContactsByIdIn(new java.util.HashSet<>(ids));
+    }
+
     public List<InternshipCategory> getAllInternshipTypes() {
         return internshipCategoryRepository.findByActiveTrue();
     }
@@ -0,0 +1,198 @@
+package com.skilledup.task.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skilledup.task.TaskServiceApplication;
+import com.skilledup.task.scheduler.NotificationOutboxWorker;
+import com.skilledup.task.scheduler.TaskReminderScheduler;
+import com.skilledup.task.scheduler.TaskUnlockEngine;
+import com.skilledup.task.service.PerformanceService;
+import com.skilledup.task.service.StudentProgressService;
+import com.skilledup.task.service.TaskCatalog;
+import com.skilledup.task.service.TaskSchedulerService;
+import com.skilledup.task.service.UnlockFrontierService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Seeds a synthetic cohort and runs the unlock, deadline, reminder and outbox
+ * jobs once each against it, with the student and notification services
+ * replaced by {@link StandInClients}. Prints per-job wall time, statements
+ * and heap high-water mark and writes them to target/load-report.json.
+ * <p>
+ * Options are Spring properties, e.g. {@code --load.students=100000
+ * --load.weeks=52}; see {@link #DEFAULTS}. Without --spring.datasource.url an
+ * embedded MariaDB is started; pointing it at a real MySQL sizes the actual
+ * database, which must be otherwise idle and should be a scratch schema.
+ */
+public class CohortLoadGenerator {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("load.domain", "Load Test");
+        DEFAULTS.put("load.students", "100000");
+        DEFAULTS.put("load.weeks", "52");
+        DEFAULTS.put("load.tasks-per-week", "1");
+        DEFAULTS.put("load.current-week", "20");
+        DEFAULTS.put("load.submit-ratio", "0.8");
+        DEFAULTS.put("load.late-ratio", "0.1");
+        DEFAULTS.put("load.chunk-size", "2000");
+        DEFAULTS.put("load.notification-latency-ms", "0");
+        DEFAULTS.put("load.report", "target/load-report.json");
+
+        // Jobs only run when the generator calls them
+        DEFAULTS.put("task.deadline.cron", "-");
+        DEFAULTS.put("task.reminder.cron", "-");
+        DEFAULTS.put("task.archive.cron", "-");
+        DEFAULTS.put("task.unlock.tick-ms", "86400000");
+        DEFAULTS.put("task.outbox.poll-ms", "86400000");
+        DEFAULTS.put("task.similarity.poll-ms", "86400000");
+        DEFAULTS.put("task.similarity.check-on-submit", "false");
+        DEFAULTS.put("task.catalog.refresh-ms", "86400000");
+        DEFAULTS.put("spring.jpa.show-sql", "false");
+        DEFAULTS.put("spring.main.banner-mode", "off");
+        DEFAULTS.put("spring.cloud.discovery.enabled", "false");
+        DEFAULTS.put("eureka.client.enabled", "false");
+        DEFAULTS.put("cloud.aws.credentials.access-key", "AKIALOADTEST");
+        DEFAULTS.put("cloud.aws.credentials.secret-key", "load-test");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> properties = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        EmbeddedDatabase database = null;
+        if (!properties.containsKey("spring.datasource.url")) {
+            database = EmbeddedDatabase.start();
+            properties.put("spring.datasource.url", database.getJdbcUrl());
+            properties.put("spring.datasource.username", "root");
+            properties.put("spring.datasource.password", "");
+        }
+
+        List<String> springArgs = new ArrayList<>();
+        properties.forEach((name, value) -> springArgs.add("--" + name + "=" + value));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskServiceApplication.class,
+                StandInClients.class)
+                .web(WebApplicationType.NONE)
+                .run(springArgs.toArray(new String[0]))) {
+            new CohortLoadGenerator(context).run();
+        } finally {
+            if (database != null) {
+                database.close();
+            }
+        }
+    }
+
+    private final ConfigurableApplicationContext context;
+    private final Environment env;
+    private final JobProbe probe;
+
+    private CohortLoadGenerator(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.env = context.getEnvironment();
+        this.probe = new JobProbe(context.getBean(JdbcTemplate.class));
+    }
+
+    private void run() throws Exception {
+        CohortSeeder.Cohort cohort = CohortSeeder.Cohort.builder()
+                .domain(env.getRequiredProperty("load.domain"))
+                .students(env.getRequiredProperty("load.students", Long.class))
+                .weeks(env.getRequiredProperty("load.weeks", Integer.class))
+                .tasksPerWeek(env.getRequiredProperty("load.tasks-per-week", Integer.class))
+                .currentWeek(env.getRequiredProperty("load.current-week", Integer.class))
+                .submitRatio(env.getRequiredProperty("load.submit-ratio", Double.class))
+                .lateRatio(env.getRequiredProperty("load.late-ratio", Double.class))
+                .chunkSize(env.getRequiredProperty("load.chunk-size", Integer.class))
+                .build();
+        if (cohort.getCurrentWeek() < 2 || cohort.getCurrentWeek() > cohort.getWeeks()) {
+            throw new IllegalArgumentException("load.current-week must be between 2 and load.weeks");
+        }
+        log("Seeding %d students x %d tasks", cohort.getStudents(), cohort.getWeeks() * cohort.getTasksPerWeek());
+
+        List<JobProbe.JobReport> reports = new ArrayList<>();
+        CohortSeeder seeder = new CohortSeeder(context.getBean(JdbcTemplate.class), cohort);
+        reports.add(probe.measure("seed", () -> {
+            seeder.seedTasks();
+            context.getBean(TaskCatalog.class).refresh();
+            seeder.seedSchedules();
+            context.getBean(StudentProgressService.class).rebuild();
+            context.getBean(PerformanceService.class).rebuild();
+            context.getBean(UnlockFrontierService.class).rebuild();
+        }));
+        log("Seeded in %d ms", reports.get(0).getWallMillis());
+
+        // The unlock engine loaded an empty wheel at startup; reloading it
+        // fires everything due today, as after a restart on a Monday
+        reports.add(job("unlock", () -> context.getBean(TaskUnlockEngine.class).load()));
+        reports.add(job("deadline", () -> context.getBean(TaskSchedulerService.class).checkDeadlines()));
+        reports.add(job("reminder", () -> context.getBean(TaskReminderScheduler.class).sendTaskOverdueReminders()));
+        reports.add(job("outbox", () -> context.getBean(NotificationOutboxWorker.class).drain()));
+
+        StandInClients.RecordingNotificationClient notifications = context
+                .getBean(StandInClients.RecordingNotificationClient.class);
+        StandInClients.SyntheticStudentClient students = context
+                .getBean(StandInClients.SyntheticStudentClient.class);
+
+        System.out.printf("%n%-10s %10s %10s %10s %10s %10s %10s %10s  %s%n", "job", "wall ms", "queries",
+                "selects", "inserts", "updates", "deletes", "heap MB", "rows");
+        for (JobProbe.JobReport report : reports) {
+            System.out.printf("%-10s %10d %10d %10d %10d %10d %10d %10d  %s%n", report.getJob(),
+                    report.getWallMillis(), report.getQueries(), report.getSelects(), report.getInserts(),
+                    report.getUpdates(), report.getDeletes(), report.getHeapPeakMb(),
+                    report.getRows() != null ? report.getRows() : "");
+        }
+        System.out.printf("%nEmails delivered to the stand-in: %d, contact lookups: %d%n", notifications.sent.get(),
+                students.contactLookups.get());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cohort", cohort);
+        result.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        result.put("jobs", reports);
+        result.put("emailsSent", notifications.sent.get());
+        result.put("contactLookups", students.contactLookups.get());
+        File file = new File(env.getRequiredProperty("load.report"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        log("Report written to %s", file.getPath());
+    }
+
+    /**
+     * Measures a job and attaches what its scheduler metrics say it did
+     */
+    private JobProbe.JobReport job(String name, Runnable run) {
+        log("Running %s job", name);
+        JobProbe.JobReport report = probe.measure(name, run);
+        Map<String, Long> rows = new TreeMap<>();
+        for (Counter counter : context.getBean(MeterRegistry.class).find("task.scheduler.rows")
+                .tag("job", name).counters()) {
+            rows.put(counter.getId().getTag("result"), (long) counter.count());
+        }
+        return report.withRows(rows);
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.printf(format + "%n", args);
+    }
+}
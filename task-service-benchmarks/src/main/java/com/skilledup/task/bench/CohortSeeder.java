@@ -0,0 +1,115 @@
+package com.skilledup.task.bench;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a synthetic cohort straight into task_db with set-based SQL, as it
+ * would look on the Monday the cohort enters {@code currentWeek}:
+ * <ul>
+ * <li>weeks before the current one are unlocked; the current week's rows
+ * are locked and due today, for the unlock job</li>
+ * <li>a share of the past rows is submitted, some of it late</li>
+ * <li>unsubmitted rows of older weeks are already DELAYED and reminded at
+ * staggered times; last week's deadline passed last night and is left for
+ * the deadline job</li>
+ * </ul>
+ * Per-row outcomes come from CRC32(student, task) so a seed is repeatable.
+ */
+class CohortSeeder {
+
+    private static final String STUDENT_TABLE = "load_cohort_students";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cohort cohort;
+
+    CohortSeeder(JdbcTemplate jdbcTemplate, Cohort cohort) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cohort = cohort;
+    }
+
+    void seedTasks() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int week = 1; week <= cohort.getWeeks(); week++) {
+            for (int n = 1; n <= cohort.getTasksPerWeek(); n++) {
+                rows.add(new Object[] { cohort.getDomain(), week, "Week " + week + " task " + n });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (domain, week_no, title, description, is_manual, auto_review, "
+                + "active, custom_prerequisites, created_at) "
+                + "VALUES (?, ?, ?, 'Load test task', false, false, true, false, NOW())", rows);
+    }
+
+    /**
+     * Schedules and submissions for every student, one statement per chunk of
+     * students
+     */
+    void seedSchedules() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + STUDENT_TABLE);
+        jdbcTemplate.execute("CREATE TABLE " + STUDENT_TABLE + " (id BIGINT PRIMARY KEY)");
+        List<Object[]> ids = new ArrayList<>();
+        for (long id = 1; id <= cohort.getStudents(); id++) {
+            ids.add(new Object[] { id });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + STUDENT_TABLE + " (id) VALUES (?)", ids);
+
+        int submitted = (int) Math.round(cohort.getSubmitRatio() * 1000);
+        int late = (int) Math.round(cohort.getLateRatio() * 1000);
+        int week = cohort.getCurrentWeek();
+
+        // r is a stable 0..999 draw per row: below submitted-late is on time,
+        // the next late slice was submitted after the deadline
+        String insertSchedules = "INSERT INTO task_schedule (student_id, task_id, unlock_date, deadline, "
+                + "is_unlocked, is_submitted, is_delayed, last_reminder_sent_at, next_reminder_at) "
+                + "SELECT d.student_id, d.task_id, CURDATE() + INTERVAL (d.week_no - :week) * 7 DAY, "
+                + "TIMESTAMP(CURDATE() + INTERVAL ((d.week_no - :week) * 7 + 6) DAY, '23:59:59'), "
+                + "d.week_no < :week, "
+                + "d.week_no < :week AND d.r < :submitted, "
+                + "d.week_no < :week - 1 AND d.r >= :submitted - :late, "
+                + "CASE WHEN d.week_no < :week - 1 AND d.r >= :submitted "
+                + "THEN NOW() - INTERVAL MOD(d.r, 96) HOUR END, "
+                + "CASE WHEN d.week_no < :week AND d.r < :submitted THEN NULL "
+                + "WHEN d.week_no < :week - 1 THEN NOW() - INTERVAL MOD(d.r, 96) HOUR + INTERVAL 3 DAY "
+                + "WHEN d.week_no < :week "
+                + "THEN TIMESTAMP(CURDATE() + INTERVAL ((d.week_no - :week) * 7 + 6) DAY, '23:59:59') END "
+                + "FROM (SELECT s.id AS student_id, t.id AS task_id, t.week_no, "
+                + "MOD(CRC32(CONCAT(s.id, ':', t.id)), 1000) AS r "
+                + "FROM " + STUDENT_TABLE + " s CROSS JOIN tasks t "
+                + "WHERE s.id BETWEEN ? AND ? AND t.domain = ?) d";
+        insertSchedules = insertSchedules.replace(":week", String.valueOf(week))
+                .replace(":submitted", String.valueOf(submitted))
+                .replace(":late", String.valueOf(late));
+
+        String insertSubmissions = "INSERT INTO submissions (student_id, task_id, submission_file_url, status, score, "
+                + "submitted_at) "
+                + "SELECT ts.student_id, ts.task_id, CONCAT('https://load-bucket.s3.amazonaws.com/', ts.id, '.pdf'), "
+                + "CASE WHEN MOD(ts.id, 10) = 0 THEN 'PENDING' ELSE 'APPROVED' END, "
+                + "CASE WHEN MOD(ts.id, 10) = 0 THEN NULL ELSE 50 + MOD(ts.id, 51) END, "
+                + "CASE WHEN ts.is_delayed THEN ts.deadline + INTERVAL 1 DAY ELSE ts.deadline - INTERVAL 1 DAY END "
+                + "FROM task_schedule ts WHERE ts.student_id BETWEEN ? AND ? AND ts.is_submitted = true";
+
+        for (long from = 1; from <= cohort.getStudents(); from += cohort.getChunkSize()) {
+            long to = Math.min(from + cohort.getChunkSize() - 1, cohort.getStudents());
+            jdbcTemplate.update(insertSchedules, from, to, cohort.getDomain());
+            jdbcTemplate.update(insertSubmissions, from, to);
+        }
+        jdbcTemplate.execute("DROP TABLE " + STUDENT_TABLE);
+    }
+
+    @Value
+    @Builder
+    static class Cohort {
+        String domain;
+        long students;
+        int weeks;
+        int tasksPerWeek;
+        int currentWeek;
+        double submitRatio; // Share of past rows submitted
+        double lateRatio; // Share of past rows submitted after the deadline
+        int chunkSize; // Students per INSERT ... SELECT
+    }
+}
@@ -0,0 +1,45 @@
+package com.skilledup.task.bench;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * Throwaway MariaDB server for one benchmark trial. The binaries are unpacked
+ * from the classpath into a temporary directory that is removed on stop. The
+ * schema is created by the driver on first connect rather than through the
+ * mysql command line client, which needs libraries a bare host may lack.
+ */
+final class EmbeddedDatabase implements AutoCloseable {
+
+    static final String SCHEMA = "task_db";
+
+    private final DB db;
+    private final int port;
+
+    private EmbeddedDatabase(DB db, int port) {
+        this.db = db;
+        this.port = port;
+    }
+
+    static EmbeddedDatabase start() throws ManagedProcessException {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder()
+                .setPort(0) // Any free port
+                .addArg("--user=root")
+                .addArg("--innodb-buffer-pool-size=256M")
+                .addArg("--innodb-flush-log-at-trx-commit=2");
+        DB db = DB.newEmbeddedDB(config.build());
+        db.start();
+        return new EmbeddedDatabase(db, db.getConfiguration().getPort());
+    }
+
+    String getJdbcUrl() {
+        return "jdbc:mysql://localhost:" + port + "/" + SCHEMA
+                + "?createDatabaseIfNotExist=true&useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC&rewriteBatchedStatements=true";
+    }
+
+    @Override
+    public void close() throws ManagedProcessException {
+        db.stop();
+    }
+}
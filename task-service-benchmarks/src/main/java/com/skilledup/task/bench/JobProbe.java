@@ -0,0 +1,170 @@
+package com.skilledup.task.bench;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Measures one job run: wall time, statements the server executed and the
+ * heap high-water mark. Statement counts are the server's global status
+ * counters, so they include JdbcTemplate and lock queries as well as JPA, and
+ * count a rewritten JDBC batch once. Nothing else may use the database while
+ * a job is measured.
+ * <p>
+ * The heap high-water mark is the largest total heap use seen during the
+ * run: sampled every few milliseconds, and taken from every collection's
+ * before-GC usage, so garbage allocated between two samples still counts.
+ * Per-pool peaks are not summed, since the pools peak at different times.
+ */
+class JobProbe {
+
+    private static final List<String> COUNTERS = List.of("Questions", "Com_select", "Com_insert",
+            "Com_insert_select", "Com_update", "Com_update_multi", "Com_delete", "Com_delete_multi");
+
+    private static final long SAMPLE_MILLIS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+
+    JobProbe(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    JobReport measure(String job, Runnable run) {
+        System.gc();
+        Map<String, Long> before = counters();
+
+        long start = System.nanoTime();
+        long heapPeak;
+        try (HeapWatch watch = new HeapWatch()) {
+            run.run();
+            heapPeak = watch.peak();
+        }
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Map<String, Long> after = counters();
+        return JobReport.builder()
+                .job(job)
+                .wallMillis(wallMillis)
+                .queries(delta(before, after, "Questions") - 1) // Minus the status read itself
+                .selects(delta(before, after, "Com_select"))
+                .inserts(delta(before, after, "Com_insert") + delta(before, after, "Com_insert_select"))
+                .updates(delta(before, after, "Com_update") + delta(before, after, "Com_update_multi"))
+                .deletes(delta(before, after, "Com_delete") + delta(before, after, "Com_delete_multi"))
+                .heapPeakMb(heapPeak / (1024 * 1024))
+                .build();
+    }
+
+    private static long delta(Map<String, Long> before, Map<String, Long> after, String counter) {
+        return after.getOrDefault(counter, 0L) - before.getOrDefault(counter, 0L);
+    }
+
+    /**
+     * Tracks the largest total heap use until closed
+     */
+    private class HeapWatch implements AutoCloseable {
+
+        private final AtomicLong peak = new AtomicLong(memory.getHeapMemoryUsage().getUsed());
+        private final Thread sampler;
+        private final NotificationListener onGc = (notification, handback) -> {
+            if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                        .from((CompositeData) notification.getUserData());
+                // Pools of one collection are read at the same moment, so they add up
+                record(info.getGcInfo().getMemoryUsageBeforeGc().entrySet().stream()
+                        .filter(pool -> heapPools.contains(pool.getKey()))
+                        .mapToLong(pool -> pool.getValue().getUsed())
+                        .sum());
+            }
+        };
+
+        HeapWatch() {
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                ((NotificationEmitter) gc).addNotificationListener(onGc, null, null);
+            }
+            sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    record(memory.getHeapMemoryUsage().getUsed());
+                    try {
+                        Thread.sleep(SAMPLE_MILLIS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }, "heap-sampler");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+
+        long peak() {
+            record(memory.getHeapMemoryUsage().getUsed());
+            return peak.get();
+        }
+
+        private void record(long used) {
+            peak.accumulateAndGet(used, Math::max);
+        }
+
+        @Override
+        public void close() {
+            sampler.interrupt();
+            try {
+                sampler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                try {
+                    ((NotificationEmitter) gc).removeNotificationListener(onGc);
+                } catch (Exception e) {
+                    // Not registered
+                }
+            }
+        }
+    }
+
+    private Map<String, Long> counters() {
+        Map<String, Long> values = new HashMap<>();
+        jdbcTemplate.query("SHOW GLOBAL STATUS WHERE Variable_name IN ('" + String.join("','", COUNTERS) + "')",
+                rs -> {
+                    values.put(rs.getString(1), rs.getLong(2));
+                });
+        return values;
+    }
+
+    @Value
+    @Builder
+    static class JobReport {
+        String job;
+        long wallMillis;
+        long queries; // All statements
+        long selects;
+        long inserts;
+        long updates;
+        long deletes;
+        long heapPeakMb; // Largest total heap use during the run
+        @With
+        Map<String, Long> rows; // Scheduler row counters by result, for job runs
+    }
+}
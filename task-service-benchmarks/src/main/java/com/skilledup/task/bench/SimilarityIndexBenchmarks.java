@@ -0,0 +1,127 @@
+package com.skilledup.task.bench;
+
+import com.skilledup.task.dto.SimilarityMatch;
+import com.skilledup.task.service.LshIndex;
+import com.skilledup.task.service.MinHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-duplicate lookup in one task's similarity index, with the same band
+ * layout as the service defaults. Documents are random draws from a shared
+ * vocabulary, and one in fifty is a lightly edited copy of an earlier one. The
+ * exhaustive scan is the baseline that LSH replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SimilarityIndexBenchmarks {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+    private static final double THRESHOLD = 0.8;
+
+    @State(Scope.Benchmark)
+    public static class IndexState {
+
+        /** Submissions already in the task's index */
+        @Param({"50000"})
+        public int submissions;
+
+        /** Words per synthetic document */
+        @Param({"400"})
+        public int words;
+
+        MinHasher minHasher;
+        LshIndex index;
+        int[][] signatures;
+        String document;
+
+        @Setup(Level.Trial)
+        public void build() {
+            minHasher = new MinHasher(BANDS * ROWS, 5, 0x5EEDL);
+            index = new LshIndex(BANDS, ROWS);
+            signatures = new int[submissions][];
+            SplittableRandom random = new SplittableRandom(42);
+            String[][] texts = new String[submissions][];
+            for (int i = 0; i < submissions; i++) {
+                String[] text = i >= 50 && i % 50 == 0 ? edit(texts[random.nextInt(i)], random)
+                        : randomText(random);
+                texts[i] = text;
+                signatures[i] = minHasher.sign(String.join(" ", text));
+                index.add(i, i, signatures[i]);
+            }
+            document = String.join(" ", randomText(random));
+        }
+
+        private String[] randomText(SplittableRandom random) {
+            String[] text = new String[words];
+            for (int i = 0; i < words; i++) {
+                text[i] = "w" + random.nextInt(5000);
+            }
+            return text;
+        }
+
+        // Replaces 2% of the words
+        private String[] edit(String[] original, SplittableRandom random) {
+            String[] text = original.clone();
+            for (int i = 0; i < text.length / 50; i++) {
+                text[random.nextInt(text.length)] = "e" + random.nextInt(5000);
+            }
+            return text;
+        }
+
+        int[] randomSignature() {
+            return signatures[ThreadLocalRandom.current().nextInt(submissions)];
+        }
+    }
+
+    /**
+     * LSH lookup of a submission already in the index: one bucket per band
+     * plus the candidates' signatures
+     */
+    @Benchmark
+    public List<SimilarityMatch> lshQuery(IndexState state) {
+        return state.index.query(state.randomSignature(), THRESHOLD, -1L, 20);
+    }
+
+    /**
+     * Baseline: compare against every signature of the task
+     */
+    @Benchmark
+    public int exhaustiveScan(IndexState state) {
+        int[] signature = state.randomSignature();
+        int matches = 0;
+        for (int[] other : state.signatures) {
+            if (MinHasher.similarity(signature, other) >= THRESHOLD) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * MinHash signature of one extracted document
+     */
+    @Benchmark
+    public int[] sign(IndexState state) {
+        return state.minHasher.sign(state.document);
+    }
+}
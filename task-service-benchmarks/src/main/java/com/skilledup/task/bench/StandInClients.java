@@ -0,0 +1,113 @@
+package com.skilledup.task.bench;
+
+import com.skilledup.task.client.NotificationClient;
+import com.skilledup.task.client.StudentClient;
+import com.skilledup.task.dto.EmailRequest;
+import com.skilledup.task.dto.StudentResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * In-process replacements for the student and notification services. The
+ * Feign clients stay registered but these beans win injection, so the jobs run
+ * unchanged without the other services. Not annotated with
+ * {@code @Configuration}: it is added as an explicit source only where wanted,
+ * since the service's component scan covers this package.
+ */
+public class StandInClients {
+
+    /**
+     * Feign registers its clients as primary beans under the interface name
+     */
+    @Bean
+    static BeanFactoryPostProcessor demoteFeignClients() {
+        return beanFactory -> {
+            for (Class<?> client : List.of(StudentClient.class, NotificationClient.class)) {
+                if (beanFactory.containsBeanDefinition(client.getName())) {
+                    beanFactory.getBeanDefinition(client.getName()).setPrimary(false);
+                }
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    SyntheticStudentClient syntheticStudentClient(
+            @Value("${load.students:0}") long students) {
+        return new SyntheticStudentClient(students);
+    }
+
+    @Bean
+    @Primary
+    RecordingNotificationClient recordingNotificationClient(
+            @Value("${load.notification-latency-ms:0}") long latencyMs) {
+        return new RecordingNotificationClient(latencyMs);
+    }
+
+    /**
+     * Students 1..N, all active, with generated contact details
+     */
+    static class SyntheticStudentClient implements StudentClient {
+
+        private final long students;
+        final AtomicLong contactLookups = new AtomicLong();
+
+        SyntheticStudentClient(long students) {
+            this.students = students;
+        }
+
+        @Override
+        public List<Long> getActiveStudentsByDomain(String domain) {
+            return LongStream.rangeClosed(1, students).boxed().collect(Collectors.toList());
+        }
+
+        @Override
+        public List<StudentResponse> getStudentContacts(List<Long> ids) {
+            contactLookups.incrementAndGet();
+            return ids.stream().map(this::contact).collect(Collectors.toList());
+        }
+
+        @Override
+        public StudentResponse getStudentById(Long id) {
+            return contact(id);
+        }
+
+        private StudentResponse contact(Long id) {
+            StudentResponse student = new StudentResponse();
+            student.setId(id);
+            student.setName("Student " + id);
+            student.setEmail("student" + id + "@load.test");
+            return student;
+        }
+    }
+
+    /**
+     * Counts emails instead of sending them, optionally with a fixed delay per
+     * call to stand in for the notification service's response time
+     */
+    static class RecordingNotificationClient implements NotificationClient {
+
+        private final long latencyNanos;
+        final AtomicLong sent = new AtomicLong();
+
+        RecordingNotificationClient(long latencyMs) {
+            this.latencyNanos = latencyMs * 1_000_000L;
+        }
+
+        @Override
+        public void sendEmail(EmailRequest request) {
+            if (latencyNanos > 0) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            sent.incrementAndGet();
+        }
+    }
+}
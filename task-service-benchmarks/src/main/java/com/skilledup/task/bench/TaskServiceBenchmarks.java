@@ -0,0 +1,117 @@
+package com.skilledup.task.bench;
+
+import com.skilledup.task.dto.MyTaskItem;
+import com.skilledup.task.dto.ScheduleInitResult;
+import com.skilledup.task.dto.SubmissionRequest;
+import com.skilledup.task.model.Submission;
+import com.skilledup.task.model.TaskSchedule;
+import com.skilledup.task.service.MyTasksService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the task-service calls that run per student request or per
+ * scheduler page, measured end to end through the Spring proxies (transactions
+ * included) against {@link TaskServiceState}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TaskServiceBenchmarks {
+
+    private static final int REMINDER_PAGE_SIZE = 500;
+
+    /**
+     * Enrolment: one new student per operation, so every call inserts the
+     * whole domain's schedules.
+     */
+    @Benchmark
+    public ScheduleInitResult initializeTaskSchedules(TaskServiceState state) {
+        return state.taskService.initializeTaskSchedules(state.nextStudentId(), TaskServiceState.DOMAIN);
+    }
+
+    /**
+     * Dashboard with a changed or missing ETag: projection read plus presigning.
+     */
+    @Benchmark
+    public List<MyTaskItem> myTasks(TaskServiceState state) {
+        MyTasksService.Snapshot snapshot = state.myTasksService.load(state.randomStudentId());
+        return state.myTasksService.render(snapshot);
+    }
+
+    /**
+     * Dashboard revalidation answered with 304: projection read and ETag only.
+     */
+    @Benchmark
+    public String myTasksNotModified(TaskServiceState state) {
+        return state.myTasksService.load(state.randomStudentId()).getEtag();
+    }
+
+    @Benchmark
+    public Map<String, Object> taskCompletionStats(TaskServiceState state) {
+        return state.taskService.getTaskCompletionStats(state.randomStudentId(), TaskServiceState.DOMAIN);
+    }
+
+    /**
+     * First page of the reminder scan for one shard
+     */
+    @Benchmark
+    public List<TaskSchedule> reminderPage(TaskServiceState state) {
+        int shardCount = state.shardCoordinator.getShardCount();
+        int shard = ThreadLocalRandom.current().nextInt(shardCount);
+        return state.taskScheduleRepository.findDueRemindersAfterId(LocalDateTime.now(), 0L, shardCount, shard,
+                PageRequest.of(0, REMINDER_PAGE_SIZE));
+    }
+
+    /**
+     * Week 1 submission by a freshly enrolled student, which also opens week 2
+     */
+    @Benchmark
+    public Submission submitAndUnlock(TaskServiceState state, FreshStudent student) {
+        SubmissionRequest request = new SubmissionRequest();
+        request.setStudentId(student.studentId);
+        request.setTaskId(student.taskId);
+        request.setSubmissionFileUrl("https://" + TaskServiceState.BUCKET + ".s3.us-east-1.amazonaws.com/submissions/"
+                + student.studentId + ".pdf");
+        return state.taskService.submitTask(request);
+    }
+
+    /**
+     * A student with week 1 open and nothing submitted, prepared outside the
+     * measured time
+     */
+    @State(Scope.Thread)
+    public static class FreshStudent {
+
+        long studentId;
+        long taskId;
+
+        @Setup(Level.Invocation)
+        public void enrol(TaskServiceState state) {
+            studentId = state.nextStudentId();
+            taskId = state.week1Tasks.get(0).getId();
+            state.taskService.initializeTaskSchedules(studentId, TaskServiceState.DOMAIN);
+            // Week 1 only opens on enrolment when it starts today
+            state.jdbcTemplate.update("UPDATE task_schedule SET is_unlocked = true WHERE student_id = ? AND task_id = ?",
+                    studentId, taskId);
+        }
+    }
+}
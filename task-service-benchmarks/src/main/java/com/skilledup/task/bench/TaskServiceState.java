@@ -0,0 +1,185 @@
+package com.skilledup.task.bench;
+
+import com.skilledup.task.TaskServiceApplication;
+import com.skilledup.task.model.Task;
+import com.skilledup.task.repository.TaskRepository;
+import com.skilledup.task.repository.TaskScheduleRepository;
+import com.skilledup.task.scheduler.ShardCoordinator;
+import com.skilledup.task.service.MyTasksService;
+import com.skilledup.task.service.PerformanceService;
+import com.skilledup.task.service.StudentProgressService;
+import com.skilledup.task.service.TaskCatalog;
+import com.skilledup.task.service.TaskScheduleMaterializer;
+import com.skilledup.task.service.TaskService;
+import com.skilledup.task.service.UnlockFrontierService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One task-service context per trial, booted against an embedded MariaDB and
+ * seeded with a cohort part-way through its internship: the first weeks are
+ * unlocked and past their deadline, most students have submitted the early
+ * weeks and fewer the latest one, and the rest of the weeks are still locked.
+ * Scheduled jobs and background pollers are switched off so only the
+ * benchmarked call touches the database.
+ */
+@State(Scope.Benchmark)
+public class TaskServiceState {
+
+    static final String DOMAIN = "Web Development";
+    static final String BUCKET = "bench-bucket";
+
+    /** Students in the seeded cohort */
+    @Param({"5000"})
+    public int students;
+
+    @Param({"12"})
+    public int weeks;
+
+    @Param({"3"})
+    public int tasksPerWeek;
+
+    /** Week the cohort is currently in; earlier weeks are past their deadline */
+    @Param({"5"})
+    public int currentWeek;
+
+    EmbeddedDatabase database;
+    ConfigurableApplicationContext context;
+
+    TaskService taskService;
+    MyTasksService myTasksService;
+    TaskScheduleRepository taskScheduleRepository;
+    TaskScheduleMaterializer taskScheduleMaterializer;
+    TaskCatalog taskCatalog;
+    ShardCoordinator shardCoordinator;
+    JdbcTemplate jdbcTemplate;
+
+    List<Task> week1Tasks;
+
+    // Students created during the run start above the seeded cohort
+    private AtomicLong nextStudentId;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        database = EmbeddedDatabase.start();
+        context = new SpringApplicationBuilder(TaskServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + database.getJdbcUrl(),
+                        "--spring.datasource.username=root",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--spring.cloud.discovery.enabled=false",
+                        "--eureka.client.enabled=false",
+                        "--task.deadline.cron=-",
+                        "--task.reminder.cron=-",
+                        "--task.archive.cron=-",
+                        "--task.unlock.tick-ms=86400000",
+                        "--task.outbox.poll-ms=86400000",
+                        "--task.similarity.poll-ms=86400000",
+                        "--task.similarity.check-on-submit=false",
+                        "--task.catalog.refresh-ms=86400000",
+                        // Presigning is local; the keys only have to be non-empty
+                        "--cloud.aws.credentials.access-key=AKIABENCHMARK",
+                        "--cloud.aws.credentials.secret-key=benchmark",
+                        "--cloud.aws.s3.bucket=" + BUCKET);
+
+        taskService = context.getBean(TaskService.class);
+        myTasksService = context.getBean(MyTasksService.class);
+        taskScheduleRepository = context.getBean(TaskScheduleRepository.class);
+        taskScheduleMaterializer = context.getBean(TaskScheduleMaterializer.class);
+        taskCatalog = context.getBean(TaskCatalog.class);
+        shardCoordinator = context.getBean(ShardCoordinator.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        seed();
+        nextStudentId = new AtomicLong(students + 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        if (context != null) {
+            context.close();
+        }
+        if (database != null) {
+            database.close();
+        }
+    }
+
+    long randomStudentId() {
+        return ThreadLocalRandom.current().nextLong(1, students + 1L);
+    }
+
+    long nextStudentId() {
+        return nextStudentId.getAndIncrement();
+    }
+
+    private void seed() {
+        // Tasks go straight to the repository; createTask would start a fan-out
+        // to the student service
+        List<Task> tasks = new ArrayList<>();
+        for (int week = 1; week <= weeks; week++) {
+            for (int n = 1; n <= tasksPerWeek; n++) {
+                tasks.add(Task.builder()
+                        .domain(DOMAIN)
+                        .weekNo(week)
+                        .title("Week " + week + " task " + n)
+                        .description("Benchmark task")
+                        .taskFileUrl("https://" + BUCKET + ".s3.us-east-1.amazonaws.com/tasks/w" + week + "-" + n
+                                + ".pdf")
+                        .active(true)
+                        .build());
+            }
+        }
+        context.getBean(TaskRepository.class).saveAll(tasks);
+        taskCatalog.refresh();
+
+        List<Task> domainTasks = taskCatalog.getActiveTasks(DOMAIN);
+        week1Tasks = taskCatalog.getActiveTasks(DOMAIN, 1);
+        for (long studentId = 1; studentId <= students; studentId++) {
+            taskScheduleMaterializer.materialize(studentId, DOMAIN, domainTasks);
+        }
+
+        // Move the cohort to its current week: week N has its deadline
+        // (currentWeek - N) weeks ago, two days from now for the current week.
+        // 70% of students submitted the weeks before last, 40% last week.
+        jdbcTemplate.update("UPDATE task_schedule ts JOIN tasks t ON t.id = ts.task_id SET "
+                + "ts.deadline = NOW() + INTERVAL ((t.week_no - ?) * 7 + 2) DAY, "
+                + "ts.unlock_date = DATE(NOW() + INTERVAL ((t.week_no - ?) * 7 - 4) DAY), "
+                + "ts.is_unlocked = t.week_no <= ?, "
+                + "ts.is_submitted = (t.week_no < ? - 1 AND MOD(ts.student_id, 10) < 7) "
+                + "OR (t.week_no = ? - 1 AND MOD(ts.student_id, 10) < 4)",
+                currentWeek, currentWeek, currentWeek, currentWeek, currentWeek);
+        // Multi-table UPDATE does not order its assignments, so the derived
+        // columns go in a second pass
+        jdbcTemplate.update("UPDATE task_schedule SET "
+                + "is_delayed = is_unlocked AND NOT is_submitted AND deadline < NOW(), "
+                + "next_reminder_at = CASE WHEN is_submitted OR NOT is_unlocked THEN NULL ELSE deadline END");
+        jdbcTemplate.update("INSERT INTO submissions (student_id, task_id, submission_file_url, status, score, "
+                + "submitted_at) "
+                + "SELECT ts.student_id, ts.task_id, CONCAT('https://" + BUCKET
+                + ".s3.us-east-1.amazonaws.com/submissions/', ts.id, '.pdf'), "
+                + "CASE WHEN MOD(ts.id, 5) = 0 THEN 'PENDING' ELSE 'APPROVED' END, "
+                + "CASE WHEN MOD(ts.id, 5) = 0 THEN NULL ELSE 60 + MOD(ts.id, 41) END, "
+                + "ts.deadline - INTERVAL 1 DAY "
+                + "FROM task_schedule ts WHERE ts.is_submitted = true");
+
+        context.getBean(StudentProgressService.class).rebuild();
+        context.getBean(PerformanceService.class).rebuild();
+        context.getBean(UnlockFrontierService.class).rebuild();
+    }
+}
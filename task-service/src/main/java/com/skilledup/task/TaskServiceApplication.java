@@ -5,6 +5,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.context.annotation.Bean;
 import net.javacrumbs.shedlock.core.LockProvider;
@@ -15,6 +16,7 @@ import javax.sql.DataSource;
 @EnableDiscoveryClient
 @EnableFeignClients
 @EnableScheduling
+@EnableAsync
 // @EnableSchedulerLock(defaultLockAtMostFor = "PT10M")
 public class TaskServiceApplication {
 
@@ -12,6 +12,11 @@ public interface StudentClient {
     @GetMapping("/api/students/search/active-by-domain")
     List<Long> getActiveStudentsByDomain(@RequestParam("domain") String domain);
 
+    // Bulk contact lookup: only id, name and email are populated
+    @org.springframework.web.bind.annotation.PostMapping("/api/students/contacts")
+    List<com.skilledup.task.dto.StudentResponse> getStudentContacts(
+            @org.springframework.web.bind.annotation.RequestBody List<Long> ids);
+
     @GetMapping("/api/students/{id}")
     com.skilledup.task.dto.StudentResponse getStudentById(
             @org.springframework.web.bind.annotation.PathVariable("id") Long id);
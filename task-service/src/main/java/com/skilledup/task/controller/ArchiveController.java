@@ -0,0 +1,33 @@
+package com.skilledup.task.controller;
+
+import com.skilledup.task.dto.ArchiveRunResult;
+import com.skilledup.task.dto.StudentHistory;
+import com.skilledup.task.service.ArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    /**
+     * A student's tasks and submissions in a domain, including enrollments
+     * already moved to the archive
+     */
+    @GetMapping("/history")
+    public ResponseEntity<StudentHistory> getHistory(@RequestParam Long studentId, @RequestParam String domain) {
+        return ResponseEntity.ok(archiveService.getHistory(studentId, domain));
+    }
+
+    /**
+     * Runs the archival job now instead of waiting for its schedule
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<ArchiveRunResult> runArchive() {
+        return ResponseEntity.ok(archiveService.archiveFinishedEnrollments());
+    }
+}
@@ -1,5 +1,6 @@
 package com.skilledup.task.controller;
 
+import com.skilledup.task.dto.UrlIngestResult;
 import com.skilledup.task.service.S3Service;
 import com.skilledup.task.service.TaskService;
 import lombok.RequiredArgsConstructor;
@@ -27,14 +28,18 @@ public class FileController {
     }
 
     @PostMapping("/upload-from-url")
-    public ResponseEntity<Map<String, String>> uploadFromUrl(@RequestParam("url") String url) {
+    public ResponseEntity<Map<String, Object>> uploadFromUrl(@RequestParam("url") String url) {
         try {
-            String fileUrl = s3Service.uploadFromUrl(url);
-            Map<String, String> response = new HashMap<>();
-            response.put("url", fileUrl);
+            UrlIngestResult result = s3Service.ingestFromUrl(url);
+            Map<String, Object> response = new HashMap<>();
+            response.put("url", result.getUrl());
+            response.put("bytes", result.getBytes());
+            response.put("parts", result.getParts());
+            response.put("elapsedMillis", result.getElapsedMillis());
+            response.put("bytesPerSecond", result.getBytesPerSecond());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            Map<String, String> error = new HashMap<>();
+            Map<String, Object> error = new HashMap<>();
             error.put("error", "Failed to upload from URL: " + e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
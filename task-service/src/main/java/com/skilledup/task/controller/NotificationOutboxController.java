@@ -0,0 +1,26 @@
+package com.skilledup.task.controller;
+
+import com.skilledup.task.service.NotificationOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tasks/outbox")
+@RequiredArgsConstructor
+public class NotificationOutboxController {
+
+    private final NotificationOutboxService notificationOutboxService;
+
+    /**
+     * Pending / sent / failed counts and age of the oldest pending email
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(notificationOutboxService.getStats());
+    }
+}
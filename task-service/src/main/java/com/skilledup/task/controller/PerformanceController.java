@@ -0,0 +1,40 @@
+package com.skilledup.task.controller;
+
+import com.skilledup.task.dto.ApiMessage;
+import com.skilledup.task.dto.StudentPerformanceDTO;
+import com.skilledup.task.service.PerformanceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tasks/performance")
+@RequiredArgsConstructor
+public class PerformanceController {
+
+    private final PerformanceService performanceService;
+
+    @GetMapping
+    public ResponseEntity<StudentPerformanceDTO> getPerformance(@RequestParam Long studentId) {
+        return ResponseEntity.ok(performanceService.getBulkPerformance(List.of(studentId)).get(0));
+    }
+
+    /**
+     * Performance for many students in one call (admin and LOR screens)
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<StudentPerformanceDTO>> getBulkPerformance(@RequestBody List<Long> studentIds) {
+        if (studentIds.size() > 1000) {
+            throw new RuntimeException("At most 1000 student IDs can be requested per call");
+        }
+        return ResponseEntity.ok(performanceService.getBulkPerformance(studentIds));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<ApiMessage> rebuild() {
+        int rows = performanceService.rebuild();
+        return ResponseEntity.ok(new ApiMessage("Rebuilt score aggregates for " + rows + " student/domain pairs"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.skilledup.task.controller;
+
+import com.skilledup.task.dto.SimilarityReport;
+import com.skilledup.task.service.SimilarityIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tasks/submissions")
+@RequiredArgsConstructor
+public class SimilarityController {
+
+    private final SimilarityIndexService similarityIndexService;
+
+    /**
+     * Other students' submissions of the same task whose text is a near
+     * duplicate of this one
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<SimilarityReport> getSimilarSubmissions(@PathVariable Long id) {
+        return ResponseEntity.ok(similarityIndexService.findSimilar(id));
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Map;
 public class TaskCompletionController {
 
     private final TaskService taskService;
+    private final com.skilledup.task.service.StudentProgressService studentProgressService;
 
     /**
      * Get task completion statistics for a student in a specific domain
@@ -28,4 +29,13 @@ public class TaskCompletionController {
         Map<String, Object> stats = taskService.getTaskCompletionStats(studentId, domain);
         return ResponseEntity.ok(stats);
     }
+
+    /**
+     * Recompute all per-student progress counters from task schedules
+     */
+    @PostMapping("/completion-stats/rebuild")
+    public ResponseEntity<ApiMessage> rebuildCompletionStats() {
+        int rows = studentProgressService.rebuild();
+        return ResponseEntity.ok(new ApiMessage("Rebuilt progress for " + rows + " student/domain pairs"));
+    }
 }
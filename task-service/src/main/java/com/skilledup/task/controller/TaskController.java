@@ -3,10 +3,12 @@ package com.skilledup.task.controller;
 import com.skilledup.task.dto.ApiMessage;
 import com.skilledup.task.dto.SubmissionRequest;
 import com.skilledup.task.model.Submission;
-import com.skilledup.task.model.TaskSchedule;
 import com.skilledup.task.service.TaskService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,6 +20,10 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
+    private final com.skilledup.task.service.MyTasksService myTasksService;
+    private final com.skilledup.task.service.ReviewQueueService reviewQueueService;
+    private final com.skilledup.task.service.SubmissionReviewService submissionReviewService;
+    private final com.skilledup.task.service.SubmissionIntakeService submissionIntakeService;
     private final com.skilledup.task.scheduler.TaskReminderScheduler taskReminderScheduler;
 
     @PostMapping("/test-reminder")
@@ -38,16 +44,29 @@ public class TaskController {
     }
 
     @PostMapping("/initialize")
-    public ResponseEntity<Void> initializeTasks(
+    public ResponseEntity<com.skilledup.task.dto.ScheduleInitResult> initializeTasks(
             @RequestParam Long studentId,
             @RequestParam String domain) {
-        taskService.initializeTaskSchedules(studentId, domain);
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok(taskService.initializeTaskSchedules(studentId, domain));
     }
 
+    /**
+     * Student dashboard. Sends a weak ETag; a request whose If-None-Match still
+     * matches gets 304 without any URL signing or serialization.
+     */
     @GetMapping("/my-tasks")
-    public ResponseEntity<List<TaskSchedule>> getMyTasks(@RequestParam Long studentId) {
-        return ResponseEntity.ok(taskService.getMyTasks(studentId));
+    public ResponseEntity<List<com.skilledup.task.dto.MyTaskItem>> getMyTasks(@RequestParam Long studentId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        com.skilledup.task.service.MyTasksService.Snapshot snapshot = myTasksService.load(studentId);
+        if (ifNoneMatch != null && java.util.Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals(snapshot.getEtag()) || tag.equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(myTasksService.render(snapshot));
     }
 
     @GetMapping
@@ -67,6 +86,28 @@ public class TaskController {
         return ResponseEntity.ok(taskService.submitTask(request));
     }
 
+    /**
+     * Burst-tolerant submit: records the submission under the Idempotency-Key
+     * and returns 202 with the intake to poll. The submission is applied
+     * shortly after with the intake time as its submission time.
+     */
+    @PostMapping("/submissions/intake")
+    public ResponseEntity<com.skilledup.task.model.SubmissionIntake> submitTaskAsync(
+            @Valid @RequestBody SubmissionRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        com.skilledup.task.model.SubmissionIntake intake = submissionIntakeService.accept(request, idempotencyKey);
+        return ResponseEntity.accepted()
+                .location(java.net.URI.create("/api/tasks/submissions/intake/" + intake.getId()))
+                .body(intake);
+    }
+
+    @GetMapping("/submissions/intake/{id}")
+    public ResponseEntity<com.skilledup.task.model.SubmissionIntake> getSubmissionIntake(@PathVariable Long id) {
+        return submissionIntakeService.getIntake(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @GetMapping("/my-submissions")
     public ResponseEntity<List<Submission>> getMySubmissions(@RequestParam Long studentId) {
         return ResponseEntity.ok(taskService.getMySubmissions(studentId));
@@ -77,6 +118,29 @@ public class TaskController {
         return ResponseEntity.ok(taskService.getPendingSubmissions());
     }
 
+    /**
+     * Reviewer queue: pending submissions oldest first, one page at a time.
+     * Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping("/submissions/queue")
+    public ResponseEntity<com.skilledup.task.dto.ReviewQueuePage> getReviewQueue(
+            @RequestParam(required = false) String domain,
+            @RequestParam(required = false) Integer week,
+            @RequestParam(required = false) java.time.Instant submittedBefore,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(reviewQueueService.getPage(domain, week, submittedBefore, cursor, limit));
+    }
+
+    /**
+     * Reviews many submissions in one call; returns a result per item
+     */
+    @PostMapping("/submissions/review")
+    public ResponseEntity<com.skilledup.task.dto.BulkReviewResult> reviewSubmissions(
+            @RequestBody List<com.skilledup.task.dto.BulkReviewItem> items) {
+        return ResponseEntity.ok(submissionReviewService.reviewAll(items));
+    }
+
     @PostMapping("/submissions/{id}/review")
     public ResponseEntity<Submission> reviewSubmission(
             @PathVariable Long id,
@@ -97,6 +161,24 @@ public class TaskController {
         return ResponseEntity.ok(taskService.updateTask(id, request));
     }
 
+    /**
+     * Drops the task's declared prerequisites; it opens after the previous
+     * week again
+     */
+    @DeleteMapping("/{id}/prerequisites")
+    public ResponseEntity<com.skilledup.task.model.Task> resetPrerequisites(@PathVariable Long id) {
+        return ResponseEntity.ok(taskService.resetPrerequisites(id));
+    }
+
+    /**
+     * IDs of the domain's tasks whose prerequisites the student has met and
+     * that are not submitted yet
+     */
+    @GetMapping("/frontier")
+    public ResponseEntity<List<Long>> getUnlockFrontier(@RequestParam Long studentId, @RequestParam String domain) {
+        return ResponseEntity.ok(taskService.getUnlockFrontier(studentId, domain));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
         taskService.deleteTask(id);
@@ -0,0 +1,32 @@
+package com.skilledup.task.controller;
+
+import com.skilledup.task.model.TaskFanoutJob;
+import com.skilledup.task.service.TaskFanoutService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+public class TaskFanoutController {
+
+    private final TaskFanoutService taskFanoutService;
+
+    /**
+     * Progress of a cohort fan-out job started by task creation
+     */
+    @GetMapping("/fanout-jobs/{jobId}")
+    public ResponseEntity<TaskFanoutJob> getFanoutJob(@PathVariable Long jobId) {
+        return taskFanoutService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{taskId}/fanout-job")
+    public ResponseEntity<TaskFanoutJob> getLatestFanoutJob(@PathVariable Long taskId) {
+        return taskFanoutService.getLatestJobForTask(taskId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,39 @@
+package com.skilledup.task.controller;
+
+import com.skilledup.task.dto.UploadGrantRequest;
+import com.skilledup.task.dto.UploadGrantResponse;
+import com.skilledup.task.model.UploadGrant;
+import com.skilledup.task.service.UploadGrantService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tasks/upload-grants")
+@RequiredArgsConstructor
+public class UploadGrantController {
+
+    private final UploadGrantService uploadGrantService;
+
+    /**
+     * Presigned POST form (default) or PUT URL for uploading straight to S3
+     */
+    @PostMapping
+    public ResponseEntity<UploadGrantResponse> issue(@Valid @RequestBody UploadGrantRequest request) {
+        return ResponseEntity.ok(uploadGrantService.issue(request));
+    }
+
+    /**
+     * Completion callback after the browser upload; returns the file URL on
+     * success, 400 with the rejected grant if the stored object breaks its limits
+     */
+    @PostMapping("/{grantId}/complete")
+    public ResponseEntity<UploadGrant> complete(@PathVariable Long grantId) {
+        UploadGrant grant = uploadGrantService.complete(grantId);
+        if (grant.getStatus() == UploadGrant.GrantStatus.REJECTED) {
+            return ResponseEntity.badRequest().body(grant);
+        }
+        return ResponseEntity.ok(grant);
+    }
+}
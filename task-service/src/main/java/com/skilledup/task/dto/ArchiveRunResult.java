@@ -0,0 +1,21 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveRunResult {
+    private int shards; // Shards processed by this instance
+    private int batches;
+    private int enrollments; // Finished student/domain pairs moved
+    private int schedules;
+    private int submissions;
+    private int exported; // Batches written to object storage
+    private int exportFailures; // Retried on the next run
+    private long elapsedMillis;
+}
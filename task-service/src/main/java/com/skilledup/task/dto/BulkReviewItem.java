@@ -0,0 +1,15 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewItem {
+    private Long submissionId;
+    private String status; // APPROVED, REJECTED, DELAYED or PENDING
+    private Integer score; // 0-100, null leaves the submission ungraded
+    private String feedback; // Null keeps the existing feedback
+}
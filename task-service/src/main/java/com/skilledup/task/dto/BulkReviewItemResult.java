@@ -0,0 +1,16 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewItemResult {
+    private Long submissionId;
+    private boolean updated;
+    private String error; // Why the item was skipped, null when updated
+}
@@ -0,0 +1,20 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewResult {
+    private int requested;
+    private int updated;
+    private int failed;
+    private long elapsedMillis;
+    private List<BulkReviewItemResult> results; // One per request item, in request order
+}
@@ -21,4 +21,9 @@ public class CreateTaskRequest {
     private java.time.Instant deadline;
 
     private Boolean active;
+
+    // Tasks that must be submitted first, all in the same domain. Null keeps
+    // the current prerequisites (the previous week for a new task); an empty
+    // list means the task has none.
+    private java.util.List<Long> prerequisiteTaskIds;
 }
@@ -0,0 +1,36 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One scheduled task of a student with its latest submission, from the live
+ * or the archive tables
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryItem {
+    private Long taskId;
+    private Integer weekNo;
+    private String taskTitle;
+    private LocalDate unlockDate;
+    private LocalDateTime deadline;
+    private boolean unlocked;
+    private boolean submitted;
+    private boolean delayed;
+    private Long submissionId; // Null if never submitted
+    private String submissionStatus;
+    private Integer score;
+    private String feedback;
+    private String submissionFileUrl;
+    private Instant submittedAt;
+    private Instant reviewedAt;
+}
@@ -0,0 +1,15 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntakeApplyResult {
+    private int applied; // Submissions created
+    private int rejected; // Failed the submitTask checks, reason kept on the intake
+}
@@ -0,0 +1,53 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Dashboard entry for /my-tasks. Property names follow the TaskSchedule and
+ * Task JSON so existing clients keep working.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MyTaskItem {
+    private Long id; // Schedule ID
+    private Long studentId;
+    private TaskSummary task;
+    private LocalDate unlockDate;
+    private LocalDateTime deadline;
+    private boolean unlocked;
+    private boolean submitted;
+    private boolean delayed;
+    private LocalDateTime lastReminderSentAt;
+    private LocalDateTime nextReminderAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TaskSummary {
+        private Long id;
+        private String domain;
+        private Integer weekNo;
+        private String title;
+        private String description;
+        private String taskFileUrl; // Presigned when the file is in our bucket
+        private String videoUrl;
+        private String urlFileUrl;
+        private Instant startDate;
+        private Instant deadline;
+        private boolean manual;
+        private boolean autoReview;
+        private boolean active;
+        private boolean customPrerequisites;
+        private Instant createdAt;
+    }
+}
@@ -0,0 +1,59 @@
+package com.skilledup.task.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a student's dashboard: schedule state plus the task columns the
+ * dashboard shows, read with a single join
+ */
+public interface MyTaskView {
+    Long getScheduleId();
+
+    Long getStudentId();
+
+    LocalDate getUnlockDate();
+
+    LocalDateTime getDeadline();
+
+    Boolean getUnlocked();
+
+    Boolean getSubmitted();
+
+    Boolean getDelayed();
+
+    LocalDateTime getLastReminderSentAt();
+
+    LocalDateTime getNextReminderAt();
+
+    Long getTaskId();
+
+    String getDomain();
+
+    Integer getWeekNo();
+
+    String getTitle();
+
+    String getDescription();
+
+    String getTaskFileUrl();
+
+    String getVideoUrl();
+
+    String getUrlFileUrl();
+
+    Instant getTaskStartDate();
+
+    Instant getTaskDeadline();
+
+    Boolean getManual();
+
+    Boolean getActive();
+
+    Boolean getAutoReview();
+
+    Boolean getCustomPrerequisites();
+
+    Instant getTaskCreatedAt();
+}
@@ -0,0 +1,23 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewQueueItem {
+    private Long id;
+    private Long studentId;
+    private Long taskId;
+    private String taskTitle;
+    private String domain;
+    private Integer weekNo;
+    private String submissionFileUrl; // Presigned when the file is in our bucket
+    private Instant submittedAt;
+}
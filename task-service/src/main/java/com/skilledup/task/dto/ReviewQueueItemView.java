@@ -0,0 +1,24 @@
+package com.skilledup.task.dto;
+
+import java.time.Instant;
+
+/**
+ * Reviewer queue row, read straight from submissions joined to tasks
+ */
+public interface ReviewQueueItemView {
+    Long getId();
+
+    Long getStudentId();
+
+    Long getTaskId();
+
+    String getTaskTitle();
+
+    String getDomain();
+
+    Integer getWeekNo();
+
+    String getSubmissionFileUrl();
+
+    Instant getSubmittedAt();
+}
@@ -0,0 +1,18 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleInitResult {
+    private Long studentId;
+    private String domain;
+    private int createdCount; // New TaskSchedule rows written
+    private int existingCount; // Tasks the student already had a schedule for
+    private long elapsedMillis;
+}
@@ -0,0 +1,9 @@
+package com.skilledup.task.dto;
+
+/**
+ * Any TaskSchedule seen by the unlock engine's ID scan, with whether it
+ * still waits for its unlock (locked and unsubmitted)
+ */
+public interface ScheduleScanView extends ScheduleUnlockView {
+    Boolean getPending();
+}
@@ -0,0 +1,12 @@
+package com.skilledup.task.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of a locked TaskSchedule used to (re)build the unlock timing wheel
+ */
+public interface ScheduleUnlockView {
+    Long getId();
+
+    LocalDate getUnlockDate();
+}
@@ -0,0 +1,16 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarityMatch {
+    private Long submissionId;
+    private Long studentId;
+    private double similarity; // Estimated Jaccard similarity of the word shingles, 0..1
+}
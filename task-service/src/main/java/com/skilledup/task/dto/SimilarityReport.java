@@ -0,0 +1,20 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarityReport {
+    private Long submissionId;
+    private Long taskId;
+    private String status; // INDEXED, EMPTY (too little text) or FAILED (file unreadable)
+    private double threshold;
+    private List<SimilarityMatch> matches; // Other students' submissions of the task, most similar first
+}
@@ -0,0 +1,19 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentHistory {
+    private Long studentId;
+    private String domain;
+    private boolean archived; // Served from the archive tables
+    private List<HistoryItem> items;
+}
@@ -0,0 +1,17 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentPerformanceDTO {
+    private Long studentId;
+    private double averageScore; // 0-100 over graded submissions
+    private int gradedCount;
+    private boolean eligibleForRecommendation;
+}
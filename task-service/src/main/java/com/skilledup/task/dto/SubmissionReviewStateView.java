@@ -0,0 +1,14 @@
+package com.skilledup.task.dto;
+
+/**
+ * Current grading state of a submission, read before a bulk review
+ */
+public interface SubmissionReviewStateView {
+    Long getId();
+
+    Long getStudentId();
+
+    String getDomain();
+
+    Integer getScore();
+}
@@ -0,0 +1,14 @@
+package com.skilledup.task.dto;
+
+/**
+ * Due, still-locked schedule; its prerequisites are checked in memory
+ */
+public interface UnlockCandidateView {
+    Long getId();
+
+    Integer getShard();
+
+    Long getStudentId();
+
+    Long getTaskId();
+}
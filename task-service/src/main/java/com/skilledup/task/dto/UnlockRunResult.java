@@ -0,0 +1,22 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnlockRunResult {
+    private int due; // IDs handed over by the timing wheel
+    private int candidates; // Still locked and due when re-checked
+    private int unlocked;
+    private int blocked; // Previous week not submitted yet
+    private int deferred; // In shards held by another instance, retried next tick
+    private List<Long> deferredIds;
+    private long elapsedMillis;
+}
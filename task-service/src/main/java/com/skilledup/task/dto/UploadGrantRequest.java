@@ -0,0 +1,34 @@
+package com.skilledup.task.dto;
+
+import com.skilledup.task.model.UploadGrant;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class UploadGrantRequest {
+
+    // Fits object_key (512) after the UUID prefix
+    public static final int MAX_FILE_NAME_LENGTH = 255;
+
+    @NotNull(message = "Purpose is required")
+    private UploadGrant.Purpose purpose;
+
+    @NotBlank(message = "File name is required")
+    @Size(max = MAX_FILE_NAME_LENGTH, message = "File name must be at most " + MAX_FILE_NAME_LENGTH
+            + " characters")
+    private String fileName; // Part of the object key
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long size; // Declared size in bytes, checked against the purpose limit
+
+    private Long studentId;
+
+    private String method = "POST"; // POST (size enforced by S3) or PUT
+}
@@ -0,0 +1,24 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadGrantResponse {
+    private Long grantId;
+    private String method; // POST or PUT
+    private String url; // Form action (POST) or presigned object URL (PUT)
+    private Map<String, String> fields; // POST form fields, sent before the file field
+    private Map<String, String> headers; // Headers the PUT must carry
+    private String objectKey;
+    private long maxBytes;
+    private LocalDateTime expiresAt;
+}
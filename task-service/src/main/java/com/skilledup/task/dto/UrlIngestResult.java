@@ -0,0 +1,18 @@
+package com.skilledup.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UrlIngestResult {
+    private String url; // S3 object URL
+    private long bytes; // Bytes copied from the remote server to S3
+    private int parts; // Multipart parts uploaded, 0 for a single PUT
+    private long elapsedMillis;
+    private long bytesPerSecond;
+}
@@ -0,0 +1,59 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One chunk of finished enrollments moved to the archive tables in a single
+ * transaction, and the export of its rows to object storage.
+ */
+@Entity
+@Table(name = "archive_batches", indexes = {
+        @Index(name = "idx_archive_batch_export_status", columnList = "export_status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchiveBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Builder.Default
+    private int enrollments = 0; // Student/domain pairs
+
+    @Builder.Default
+    private int schedules = 0;
+
+    @Builder.Default
+    private int submissions = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "export_status", nullable = false, length = 20)
+    @Builder.Default
+    private ExportStatus exportStatus = ExportStatus.PENDING;
+
+    private String scheduleObjectKey;
+
+    private String submissionObjectKey;
+
+    @Column(length = 1000)
+    private String exportError;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    private Instant exportedAt;
+
+    public enum ExportStatus {
+        PENDING, EXPORTED, FAILED, DISABLED
+    }
+}
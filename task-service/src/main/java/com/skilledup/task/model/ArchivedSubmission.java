@@ -0,0 +1,57 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Submission row moved out of submissions together with its student's
+ * schedules. Keeps the original ID and a copy of the task's domain.
+ */
+@Entity
+@Table(name = "submissions_archive", indexes = {
+        @Index(name = "idx_submission_archive_student_domain", columnList = "student_id, domain"),
+        @Index(name = "idx_submission_archive_batch", columnList = "archive_batch_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedSubmission {
+
+    @Id
+    private Long id; // submissions.id
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private String domain;
+
+    private String submissionFileUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Submission.SubmissionStatus status;
+
+    private Integer score;
+
+    @Column(length = 1000)
+    private String feedback;
+
+    @Column(nullable = false)
+    private Instant submittedAt;
+
+    private Instant reviewedAt;
+
+    @Column(name = "archive_batch_id", nullable = false)
+    private Long archiveBatchId;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -0,0 +1,66 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * TaskSchedule row moved out of task_schedule once the student finished the
+ * domain. Keeps the original ID; the task's domain, week and title are copied
+ * so the row still reads correctly after the task is edited or deleted.
+ * Written only by ArchiveService.
+ */
+@Entity
+@Table(name = "task_schedule_archive", indexes = {
+        @Index(name = "idx_schedule_archive_student_domain", columnList = "student_id, domain"),
+        @Index(name = "idx_schedule_archive_batch", columnList = "archive_batch_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedTaskSchedule {
+
+    @Id
+    private Long id; // task_schedule.id
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private String domain;
+
+    private Integer weekNo;
+
+    private String taskTitle;
+
+    @Column(nullable = false)
+    private LocalDate unlockDate;
+
+    @Column(nullable = false)
+    private LocalDateTime deadline;
+
+    @Column(nullable = false)
+    private boolean isUnlocked;
+
+    @Column(nullable = false)
+    private boolean isSubmitted;
+
+    @Column(nullable = false)
+    private boolean isDelayed;
+
+    private LocalDateTime lastReminderSentAt;
+
+    @Column(name = "archive_batch_id", nullable = false)
+    private Long archiveBatchId;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -0,0 +1,30 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Staging row holding one student ID of the chunk a fan-out job is currently
+ * processing, so schedules can be written with INSERT ... SELECT.
+ */
+@Entity
+@Table(name = "fanout_staging", indexes = {
+        @Index(name = "idx_fanout_staging_job", columnList = "job_id, student_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FanoutStagingStudent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+}
@@ -0,0 +1,54 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Maintained per-student, per-domain schedule counters so completion stats are
+ * a primary-key read. Updated in the same transaction as the schedule changes
+ * (see StudentProgressService); can be rebuilt from task_schedule at any time.
+ */
+@Entity
+@Table(name = "student_domain_progress")
+@IdClass(StudentDomainProgress.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentDomainProgress {
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Id
+    @Column(name = "domain")
+    private String domain;
+
+    @Column(nullable = false)
+    private int totalTasks;
+
+    @Column(nullable = false)
+    private int submittedTasks;
+
+    @Column(nullable = false)
+    private int delayedTasks;
+
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long studentId;
+        private String domain;
+    }
+}
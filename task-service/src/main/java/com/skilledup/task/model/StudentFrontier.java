@@ -0,0 +1,65 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One task of a student's unlock frontier in a domain: either submitted, or
+ * open (its prerequisites are met and it is not submitted yet). Tasks without
+ * prerequisites are open to everyone and have no OPEN row. Kept up to date in
+ * the same transaction as the schedule changes (see UnlockFrontierService),
+ * so deciding whether a due schedule may unlock is a primary-key lookup; can
+ * be rebuilt from task_schedule at any time.
+ */
+@Entity
+@Table(name = "student_frontier_tasks", indexes = {
+        @Index(name = "idx_frontier_domain_state", columnList = "domain, state, student_id"),
+        @Index(name = "idx_frontier_task", columnList = "task_id")
+})
+@IdClass(StudentFrontier.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StudentFrontier {
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Id
+    @Column(name = "domain")
+    private String domain;
+
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private FrontierState state;
+
+    private LocalDateTime updatedAt;
+
+    public enum FrontierState {
+        SUBMITTED,
+        OPEN
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long studentId;
+        private String domain;
+        private Long taskId;
+    }
+}
@@ -9,7 +9,10 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = {
+        @Index(name = "idx_submission_status_submitted", columnList = "status, submitted_at, id"),
+        @Index(name = "idx_submission_student_task", columnList = "student_id, task_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
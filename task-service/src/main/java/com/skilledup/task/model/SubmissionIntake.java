@@ -0,0 +1,63 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Submission accepted by the asynchronous intake endpoint and not necessarily
+ * applied yet. receivedAt is the moment the request arrived and becomes the
+ * submission's submittedAt, so queueing time never counts against the
+ * deadline.
+ */
+@Entity
+@Table(name = "submission_intake", indexes = {
+        @Index(name = "idx_intake_idempotency_key", columnList = "idempotency_key", unique = true),
+        @Index(name = "idx_intake_student_task_status", columnList = "student_id, task_id, status"),
+        @Index(name = "idx_intake_status_received", columnList = "status, received_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubmissionIntake {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey; // Client-chosen, one per submission attempt
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(length = 1000)
+    private String submissionFileUrl;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private IntakeStatus status = IntakeStatus.QUEUED;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    private Instant appliedAt;
+
+    private Long submissionId; // Set once applied
+
+    @Column(length = 500)
+    private String error; // Reason, when rejected
+
+    public enum IntakeStatus {
+        QUEUED, APPLIED, REJECTED
+    }
+}
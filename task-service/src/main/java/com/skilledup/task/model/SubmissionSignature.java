@@ -0,0 +1,61 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * MinHash signature of a submission's text, one row per submission. The
+ * similarity index of a task is built from these rows and kept up to date
+ * by reading the ones added since (by ID).
+ */
+@Entity
+@Table(name = "submission_signatures", indexes = {
+        @Index(name = "idx_signature_submission", columnList = "submission_id", unique = true),
+        @Index(name = "idx_signature_task", columnList = "task_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubmissionSignature {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "submission_id", nullable = false)
+    private Long submissionId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private Long studentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private SignatureStatus status;
+
+    @Column(length = 1024)
+    private byte[] signature; // numHashes big-endian ints; null unless INDEXED
+
+    private int textLength; // Characters extracted
+
+    @Column(length = 500)
+    private String error;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    public enum SignatureStatus {
+        INDEXED, // In the task's index
+        EMPTY, // Too little text to compare
+        FAILED // File could not be read
+    }
+}
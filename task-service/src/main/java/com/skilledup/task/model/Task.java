@@ -55,6 +55,10 @@ public class Task {
     @Column(nullable = false)
     private boolean active = true;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean customPrerequisites = false; // Opens after task_prerequisites, not after the previous week
+
     @Builder.Default
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
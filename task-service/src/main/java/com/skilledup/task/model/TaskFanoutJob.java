@@ -0,0 +1,67 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Background job that creates TaskSchedule rows for a domain's active cohort
+ * after an admin publishes a task.
+ */
+@Entity
+@Table(name = "task_fanout_jobs", indexes = {
+        @Index(name = "idx_fanout_task", columnList = "task_id"),
+        @Index(name = "idx_fanout_status", columnList = "status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskFanoutJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(nullable = false)
+    private String domain;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private FanoutStatus status = FanoutStatus.PENDING;
+
+    @Builder.Default
+    private int totalStudents = 0;
+
+    @Builder.Default
+    private int processedStudents = 0;
+
+    @Builder.Default
+    private long createdSchedules = 0;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Instant createdAt = Instant.now();
+
+    private Instant startedAt;
+    private Instant heartbeatAt; // Refreshed per chunk by the instance running the job
+
+    @Column(length = 64)
+    private String owner; // Token of the current claim; progress writes must match it
+    private Instant finishedAt;
+
+    public enum FanoutStatus {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+}
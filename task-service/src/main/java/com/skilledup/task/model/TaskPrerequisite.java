@@ -0,0 +1,45 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Prerequisite edge: the task opens once the prerequisite task is submitted.
+ * Only used for tasks with customPrerequisites set; both ends belong to the
+ * same domain. The edges are compiled into a TaskGraph per domain by the
+ * TaskCatalog.
+ */
+@Entity
+@Table(name = "task_prerequisites", indexes = {
+        @Index(name = "idx_prerequisite_of_task", columnList = "task_id")
+})
+@IdClass(TaskPrerequisite.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TaskPrerequisite {
+
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Id
+    @Column(name = "prerequisite_task_id")
+    private Long prerequisiteTaskId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long taskId;
+        private Long prerequisiteTaskId;
+    }
+}
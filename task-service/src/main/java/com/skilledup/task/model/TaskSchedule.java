@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "task_schedule", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "student_id", "task_id" })
+}, indexes = {
+        @Index(name = "idx_schedule_next_reminder", columnList = "next_reminder_at")
 })
+@EntityListeners(com.skilledup.task.scheduler.TaskScheduleWheelListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,4 +49,31 @@ public class TaskSchedule {
     private boolean isDelayed = false;
 
     private LocalDateTime lastReminderSentAt;
+
+    // When the next overdue reminder is due; null while locked and once
+    // submitted, so rows never reminded stay out of the index range. Kept in step
+    // with deadline and lastReminderSentAt so the reminder job is an index range
+    // read.
+    @Column(name = "next_reminder_at")
+    private LocalDateTime nextReminderAt;
+
+    public static final int REMINDER_INTERVAL_DAYS = 3;
+
+    /**
+     * Recomputes nextReminderAt: first reminder at the deadline, then every
+     * {@link #REMINDER_INTERVAL_DAYS} days after the last one sent.
+     */
+    public void rescheduleReminder() {
+        if (isSubmitted || !isUnlocked) {
+            nextReminderAt = null;
+            return;
+        }
+        nextReminderAt = deadline;
+        if (lastReminderSentAt != null) {
+            LocalDateTime afterLast = lastReminderSentAt.plusDays(REMINDER_INTERVAL_DAYS);
+            if (afterLast.isAfter(deadline)) {
+                nextReminderAt = afterLast;
+            }
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package com.skilledup.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Presigned upload issued to a browser. The file goes straight to S3; the
+ * grant records which object key was handed out and, once the client calls
+ * back, the size and type S3 actually stored.
+ */
+@Entity
+@Table(name = "upload_grants", indexes = {
+        @Index(name = "idx_upload_grant_key", columnList = "object_key", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadGrant {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Purpose purpose;
+
+    @Column(name = "object_key", nullable = false, length = 512)
+    private String objectKey;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long maxBytes;
+
+    private Long studentId; // Uploader, for submissions
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private GrantStatus status = GrantStatus.ISSUED;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    private Long storedBytes;
+
+    @Column(length = 1000)
+    private String fileUrl; // Object URL, usable as taskFileUrl / submissionFileUrl
+
+    public enum Purpose {
+        TASK_FILE, SUBMISSION
+    }
+
+    public enum GrantStatus {
+        ISSUED, COMPLETED, REJECTED
+    }
+}
@@ -0,0 +1,19 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.ArchiveBatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchiveBatchRepository extends JpaRepository<ArchiveBatch, Long> {
+
+    @Query("SELECT b FROM ArchiveBatch b WHERE b.exportStatus IN :statuses ORDER BY b.id")
+    List<ArchiveBatch> findByExportStatusIn(@Param("statuses") Collection<ArchiveBatch.ExportStatus> statuses,
+            Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.NotificationOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Ready entries of one student shard, so replicas never drain the same
+    // rows
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now "
+            + "AND MOD(o.studentId, :shardCount) = :shard ORDER BY o.id")
+    List<NotificationOutbox> findReady(@Param("status") NotificationOutbox.OutboxStatus status,
+            @Param("now") LocalDateTime now, @Param("shardCount") int shardCount, @Param("shard") int shard,
+            Pageable pageable);
+
+    long countByStatus(NotificationOutbox.OutboxStatus status);
+
+    Optional<NotificationOutbox> findFirstByStatusOrderByIdAsc(NotificationOutbox.OutboxStatus status);
+}
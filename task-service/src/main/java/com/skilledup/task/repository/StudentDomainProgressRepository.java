@@ -0,0 +1,10 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.StudentDomainProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StudentDomainProgressRepository
+        extends JpaRepository<StudentDomainProgress, StudentDomainProgress.Key> {
+}
@@ -0,0 +1,17 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.StudentScoreAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StudentScoreAggregateRepository
+        extends JpaRepository<StudentScoreAggregate, StudentScoreAggregate.Key> {
+
+    List<StudentScoreAggregate> findByStudentId(Long studentId);
+
+    List<StudentScoreAggregate> findByStudentIdIn(Collection<Long> studentIds);
+}
@@ -0,0 +1,33 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.SubmissionIntake;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SubmissionIntakeRepository extends JpaRepository<SubmissionIntake, Long> {
+
+    Optional<SubmissionIntake> findByIdempotencyKey(String idempotencyKey);
+
+    // Row locks make concurrent appliers of the same intake wait, then skip it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM SubmissionIntake i WHERE i.id IN :ids AND i.status = :status ORDER BY i.id")
+    List<SubmissionIntake> lockByIdsAndStatus(@Param("ids") Collection<Long> ids,
+            @Param("status") SubmissionIntake.IntakeStatus status);
+
+    // Keyset paged on ID, so a pass moves past intakes it could not apply
+    @Query("SELECT i.id FROM SubmissionIntake i WHERE i.status = :status AND i.receivedAt < :before "
+            + "AND i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsByStatusReceivedBefore(@Param("status") SubmissionIntake.IntakeStatus status,
+            @Param("before") Instant before, @Param("afterId") Long afterId, Pageable pageable);
+}
@@ -1,9 +1,15 @@
 package com.skilledup.task.repository;
 
+import com.skilledup.task.dto.ReviewQueueItemView;
+import com.skilledup.task.dto.SubmissionReviewStateView;
 import com.skilledup.task.model.Submission;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +21,38 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     Optional<Submission> findByStudentIdAndTaskId(Long studentId, Long taskId);
 
     List<Submission> findByStatus(Submission.SubmissionStatus status);
+
+    @Query("SELECT s.id AS id, s.studentId AS studentId, t.domain AS domain, s.score AS score "
+            + "FROM Submission s JOIN s.task t WHERE s.id IN :ids")
+    List<SubmissionReviewStateView> findReviewStatesByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+    @Query("SELECT s.id FROM Submission s WHERE s.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") java.util.Collection<Long> ids);
+
+    // Locks the submission rows only (a JPQL lock would lock the joined
+    // tasks too), in ID order so concurrent reviews cannot deadlock. Run it
+    // first in the transaction: the plain reads after it then see the latest
+    // committed scores.
+    @Query(value = "SELECT id FROM submissions WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") java.util.Collection<Long> ids);
+
+    // Reviewer queue, oldest first, keyset paged on (submittedAt, id). Null
+    // filters are ignored.
+    @Query("SELECT s.id AS id, s.studentId AS studentId, t.id AS taskId, t.title AS taskTitle, "
+            + "t.domain AS domain, t.weekNo AS weekNo, s.submissionFileUrl AS submissionFileUrl, "
+            + "s.submittedAt AS submittedAt "
+            + "FROM Submission s JOIN s.task t "
+            + "WHERE s.status = :status "
+            + "AND (:domain IS NULL OR t.domain = :domain) "
+            + "AND (:weekNo IS NULL OR t.weekNo = :weekNo) "
+            + "AND (:submittedBefore IS NULL OR s.submittedAt < :submittedBefore) "
+            + "AND (s.submittedAt > :afterAt OR (s.submittedAt = :afterAt AND s.id > :afterId)) "
+            + "ORDER BY s.submittedAt, s.id")
+    List<ReviewQueueItemView> findReviewQueue(@Param("status") Submission.SubmissionStatus status,
+            @Param("domain") String domain,
+            @Param("weekNo") Integer weekNo,
+            @Param("submittedBefore") Instant submittedBefore,
+            @Param("afterAt") Instant afterAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
 }
@@ -0,0 +1,44 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.SubmissionSignature;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SubmissionSignatureRepository extends JpaRepository<SubmissionSignature, Long> {
+
+    Optional<SubmissionSignature> findBySubmissionId(Long submissionId);
+
+    // Signatures of a task added after the given row, for loading and
+    // catching up an index. Rows whose submission is gone are skipped.
+    @Query("SELECT g FROM SubmissionSignature g WHERE g.taskId = :taskId AND g.id > :afterId "
+            + "AND g.status = :status AND EXISTS (SELECT 1 FROM Submission s WHERE s.id = g.submissionId) "
+            + "ORDER BY g.id")
+    List<SubmissionSignature> findByTaskAfterId(@Param("taskId") Long taskId, @Param("afterId") Long afterId,
+            @Param("status") SubmissionSignature.SignatureStatus status, Pageable pageable);
+
+    // Submissions with a signature row of the task in (afterId, toId], to
+    // find rows that committed after an index had moved past their ID
+    @Query("SELECT g.submissionId FROM SubmissionSignature g WHERE g.taskId = :taskId AND g.id > :afterId "
+            + "AND g.id <= :toId AND g.status = :status "
+            + "AND EXISTS (SELECT 1 FROM Submission s WHERE s.id = g.submissionId)")
+    List<Long> findSubmissionIdsInRange(@Param("taskId") Long taskId, @Param("afterId") Long afterId,
+            @Param("toId") Long toId, @Param("status") SubmissionSignature.SignatureStatus status);
+
+    List<SubmissionSignature> findBySubmissionIdIn(Collection<Long> submissionIds);
+
+    @Query("SELECT COALESCE(MAX(g.submissionId), 0) FROM SubmissionSignature g")
+    long findMaxSubmissionId();
+
+    @Modifying
+    @Query("DELETE FROM SubmissionSignature g WHERE g.submissionId IN :submissionIds")
+    int deleteBySubmissionIdIn(@Param("submissionIds") Collection<Long> submissionIds);
+}
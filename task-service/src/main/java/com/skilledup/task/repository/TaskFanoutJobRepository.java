@@ -0,0 +1,58 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.TaskFanoutJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskFanoutJobRepository extends JpaRepository<TaskFanoutJob, Long> {
+
+    Optional<TaskFanoutJob> findFirstByTaskIdOrderByIdDesc(Long taskId);
+
+    List<TaskFanoutJob> findByStatusIn(List<TaskFanoutJob.FanoutStatus> statuses);
+
+    // Takes a job that is pending, or running with a stale heartbeat (its
+    // instance stopped), under a new owner token and with its progress reset;
+    // 0 rows means another instance has it or it finished
+    @Modifying
+    @Query("UPDATE TaskFanoutJob j SET j.status = :running, j.owner = :owner, j.startedAt = :now, "
+            + "j.heartbeatAt = :now, j.processedStudents = 0, j.createdSchedules = 0, j.error = NULL "
+            + "WHERE j.id = :id AND (j.status = :pending OR (j.status = :running "
+            + "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)))")
+    int claim(@Param("id") Long id,
+            @Param("owner") String owner,
+            @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore,
+            @Param("pending") TaskFanoutJob.FanoutStatus pending,
+            @Param("running") TaskFanoutJob.FanoutStatus running);
+
+    // The writes below only apply while the caller still owns the job; 0 rows
+    // means another instance has taken it over
+
+    @Modifying
+    @Query("UPDATE TaskFanoutJob j SET j.totalStudents = :total, j.heartbeatAt = :now "
+            + "WHERE j.id = :id AND j.owner = :owner")
+    int setTotal(@Param("id") Long id, @Param("owner") String owner, @Param("total") int total,
+            @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE TaskFanoutJob j SET j.processedStudents = j.processedStudents + :students, "
+            + "j.createdSchedules = j.createdSchedules + :created, j.heartbeatAt = :now "
+            + "WHERE j.id = :id AND j.owner = :owner")
+    int addProgress(@Param("id") Long id, @Param("owner") String owner, @Param("students") int students,
+            @Param("created") long created, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE TaskFanoutJob j SET j.status = :status, j.error = :error, j.finishedAt = :now "
+            + "WHERE j.id = :id AND j.owner = :owner")
+    int finish(@Param("id") Long id, @Param("owner") String owner,
+            @Param("status") TaskFanoutJob.FanoutStatus status, @Param("error") String error,
+            @Param("now") Instant now);
+}
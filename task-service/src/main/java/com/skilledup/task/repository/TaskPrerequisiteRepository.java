@@ -0,0 +1,25 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.TaskPrerequisite;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskPrerequisiteRepository extends JpaRepository<TaskPrerequisite, TaskPrerequisite.Key> {
+
+    @Query("SELECT p FROM TaskPrerequisite p WHERE p.taskId IN (SELECT t.id FROM Task t WHERE t.domain = :domain)")
+    List<TaskPrerequisite> findByTaskDomain(@Param("domain") String domain);
+
+    @Modifying
+    @Query("DELETE FROM TaskPrerequisite p WHERE p.taskId = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+
+    @Modifying
+    @Query("DELETE FROM TaskPrerequisite p WHERE p.taskId = :taskId OR p.prerequisiteTaskId = :taskId")
+    int deleteTouching(@Param("taskId") Long taskId);
+}
@@ -12,5 +12,7 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
 
     List<Task> findByDomainAndActiveTrue(String domain);
 
+    List<Task> findByDomain(String domain);
+
     Optional<Task> findByDomainAndWeekNoAndActiveTrue(String domain, Integer weekNo);
 }
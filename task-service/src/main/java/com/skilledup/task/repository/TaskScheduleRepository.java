@@ -18,20 +18,108 @@ public interface TaskScheduleRepository extends JpaRepository<TaskSchedule, Long
 
         Optional<TaskSchedule> findByStudentIdAndTaskId(Long studentId, Long taskId);
 
+        // Dashboard read model: schedule state and task summary in one join
+        @Query("SELECT ts.id AS scheduleId, ts.studentId AS studentId, ts.unlockDate AS unlockDate, "
+                        + "ts.deadline AS deadline, ts.isUnlocked AS unlocked, ts.isSubmitted AS submitted, "
+                        + "ts.isDelayed AS delayed, ts.lastReminderSentAt AS lastReminderSentAt, "
+                        + "ts.nextReminderAt AS nextReminderAt, t.id AS taskId, t.domain AS domain, "
+                        + "t.weekNo AS weekNo, t.title AS title, t.description AS description, "
+                        + "t.taskFileUrl AS taskFileUrl, t.videoUrl AS videoUrl, t.urlFileUrl AS urlFileUrl, "
+                        + "t.startDate AS taskStartDate, t.deadline AS taskDeadline, t.isManual AS manual, "
+                        + "t.active AS active, t.autoReview AS autoReview, "
+                        + "t.customPrerequisites AS customPrerequisites, t.createdAt AS taskCreatedAt "
+                        + "FROM TaskSchedule ts JOIN ts.task t WHERE ts.studentId = :studentId ORDER BY ts.id")
+        List<com.skilledup.task.dto.MyTaskView> findMyTasks(@Param("studentId") Long studentId);
+
+        @Query("SELECT ts.task.id FROM TaskSchedule ts WHERE ts.studentId = :studentId")
+        List<Long> findTaskIdsByStudentId(@Param("studentId") Long studentId);
+
         void deleteByTaskId(Long taskId);
 
         List<TaskSchedule> findByUnlockDateAndIsUnlockedFalse(LocalDate unlockDate);
 
-        List<TaskSchedule> findByDeadlineBeforeAndIsSubmittedFalseAndIsDelayedFalseAndIsUnlockedTrue(
-                        LocalDateTime deadline);
+        // Late schedules of one student shard not yet marked delayed, keyset
+        // paged on id for the chunked deadline sweep. Schedules with a queued
+        // intake are skipped: they count as submitted at intake time.
+        @Query("SELECT ts.id FROM TaskSchedule ts WHERE ts.deadline < :now AND ts.id > :afterId AND ts.isSubmitted = false AND ts.isDelayed = false AND ts.isUnlocked = true AND MOD(ts.studentId, :shardCount) = :shard "
+                        + "AND NOT EXISTS (SELECT 1 FROM SubmissionIntake i WHERE i.studentId = ts.studentId AND i.taskId = ts.task.id AND i.status = :queued) ORDER BY ts.id")
+        List<Long> findLateIdsAfterId(@Param("now") LocalDateTime now, @Param("afterId") Long afterId,
+                        @Param("shardCount") int shardCount, @Param("shard") int shard,
+                        @Param("queued") com.skilledup.task.model.SubmissionIntake.IntakeStatus queued,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Re-checks the predicate so a submission committed or queued after the
+        // ID read is not marked delayed
+        @org.springframework.data.jpa.repository.Modifying
+        @Query("UPDATE TaskSchedule ts SET ts.isDelayed = true WHERE ts.id IN :ids AND ts.isSubmitted = false AND ts.isDelayed = false "
+                        + "AND NOT EXISTS (SELECT 1 FROM SubmissionIntake i WHERE i.studentId = ts.studentId AND i.taskId = ts.task.id AND i.status = :queued)")
+        int markDelayedByIds(@Param("ids") java.util.Collection<Long> ids,
+                        @Param("queued") com.skilledup.task.model.SubmissionIntake.IntakeStatus queued);
+
+        @Query("SELECT ts.id FROM TaskSchedule ts WHERE ts.id IN :ids AND ts.isDelayed = true AND ts.isSubmitted = false")
+        List<Long> findDelayedIdsIn(@Param("ids") java.util.Collection<Long> ids);
+
+        // Overdue schedules of one student shard whose next reminder is due
+        // (index range read on next_reminder_at), keyset paged on id so rows
+        // updated in earlier pages never shift later ones
+        @Query("SELECT ts FROM TaskSchedule ts JOIN FETCH ts.task WHERE ts.nextReminderAt <= :now AND ts.id > :afterId AND ts.isSubmitted = false AND ts.isUnlocked = true AND ts.deadline < :now AND MOD(ts.studentId, :shardCount) = :shard ORDER BY ts.id")
+        List<TaskSchedule> findDueRemindersAfterId(@Param("now") LocalDateTime now,
+                        @Param("afterId") Long afterId,
+                        @Param("shardCount") int shardCount, @Param("shard") int shard,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Backfill for rows created before next_reminder_at existed
+        @org.springframework.data.jpa.repository.Modifying
+        @Query(value = "UPDATE task_schedule SET next_reminder_at = CASE WHEN last_reminder_sent_at IS NULL THEN deadline "
+                        + "ELSE GREATEST(deadline, last_reminder_sent_at + INTERVAL 3 DAY) END "
+                        + "WHERE next_reminder_at IS NULL AND is_submitted = false AND is_unlocked = true",
+                        nativeQuery = true)
+        int backfillNextReminderAt();
+
+        // Locked rows written before reminders started at unlock
+        @org.springframework.data.jpa.repository.Modifying
+        @Query(value = "UPDATE task_schedule SET next_reminder_at = NULL "
+                        + "WHERE next_reminder_at IS NOT NULL AND is_unlocked = false", nativeQuery = true)
+        int clearLockedReminders();
+
+        // Locked schedules after a given ID, for keyset-paged loading of the unlock
+        // timing wheel
+        @Query("SELECT ts.id AS id, ts.unlockDate AS unlockDate FROM TaskSchedule ts WHERE ts.id > :afterId AND ts.isUnlocked = false AND ts.isSubmitted = false ORDER BY ts.id")
+        List<com.skilledup.task.dto.ScheduleUnlockView> findLockedAfterId(@Param("afterId") Long afterId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        // Every schedule in an ID range, for the unlock engine's scan of new
+        // rows and its re-check of IDs that were missing when it passed them
+        @Query("SELECT ts.id AS id, ts.unlockDate AS unlockDate, CASE WHEN ts.isUnlocked = false "
+                        + "AND ts.isSubmitted = false THEN true ELSE false END AS pending "
+                        + "FROM TaskSchedule ts WHERE ts.id > :afterId AND ts.id <= :toId ORDER BY ts.id")
+        List<com.skilledup.task.dto.ScheduleScanView> findInIdRange(@Param("afterId") Long afterId,
+                        @Param("toId") Long toId,
+                        org.springframework.data.domain.Pageable pageable);
+
+        @Query("SELECT COALESCE(MAX(ts.id), 0) FROM TaskSchedule ts")
+        Long findMaxId();
+
+        @org.springframework.data.jpa.repository.Modifying
+        @Query("UPDATE TaskSchedule ts SET ts.isUnlocked = true, ts.nextReminderAt = ts.deadline "
+                        + "WHERE ts.id IN :ids AND ts.isUnlocked = false")
+        int unlockByIds(@Param("ids") java.util.Collection<Long> ids);
 
-        // Find overdue tasks (submitted=false, unlocked=true, deadline < now) - with
-        // pagination
-        org.springframework.data.domain.Page<TaskSchedule> findByIsSubmittedFalseAndIsUnlockedTrueAndDeadlineBefore(
-                        LocalDateTime now, org.springframework.data.domain.Pageable pageable);
+        @org.springframework.data.jpa.repository.Modifying
+        @Query("UPDATE TaskSchedule ts SET ts.isUnlocked = true, ts.nextReminderAt = ts.deadline "
+                        + "WHERE ts.studentId = :studentId "
+                        + "AND ts.task.id IN :taskIds AND ts.isUnlocked = false")
+        int unlockForStudent(@Param("studentId") Long studentId,
+                        @Param("taskIds") java.util.Collection<Long> taskIds);
 
-        @Query("SELECT CASE WHEN COUNT(ts) > 0 THEN true ELSE false END FROM TaskSchedule ts WHERE ts.studentId = :studentId AND ts.task.domain = :domain AND ts.task.weekNo = :weekNo AND ts.isSubmitted = true")
-        boolean isPreviousTaskCompleted(@Param("studentId") Long studentId,
-                        @Param("domain") String domain,
-                        @Param("weekNo") Integer weekNo);
+        // Every due, locked schedule among the IDs with its student shard;
+        // prerequisites are checked against the unlock frontier
+        @Query("SELECT ts.id AS id, MOD(ts.studentId, :shardCount) AS shard, ts.studentId AS studentId, "
+                        + "ts.task.id AS taskId "
+                        + "FROM TaskSchedule ts WHERE ts.id IN :ids AND ts.isUnlocked = false "
+                        + "AND ts.isSubmitted = false AND ts.unlockDate <= :today")
+        List<com.skilledup.task.dto.UnlockCandidateView> findUnlockCandidates(
+                        @Param("ids") java.util.Collection<Long> ids,
+                        @Param("today") LocalDate today,
+                        @Param("shardCount") int shardCount);
 }
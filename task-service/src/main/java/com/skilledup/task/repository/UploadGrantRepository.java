@@ -0,0 +1,9 @@
+package com.skilledup.task.repository;
+
+import com.skilledup.task.model.UploadGrant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UploadGrantRepository extends JpaRepository<UploadGrant, Long> {
+}
@@ -0,0 +1,193 @@
+package com.skilledup.task.scheduler;
+
+import com.skilledup.task.client.NotificationClient;
+import com.skilledup.task.dto.EmailRequest;
+import com.skilledup.task.dto.StudentResponse;
+import com.skilledup.task.model.NotificationOutbox;
+import com.skilledup.task.repository.NotificationOutboxRepository;
+import com.skilledup.task.service.StudentContactCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Drains notification_outbox in batches. Recipients are resolved with one bulk
+ * contact lookup per batch; failed sends are retried with exponential backoff
+ * until max-attempts, after which the row is marked FAILED. Replicas split
+ * the outbox by student shard, so each entry is sent by one instance only.
+ * SENT rows are purged once they are older than retain-sent; FAILED rows
+ * are kept for investigation.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxWorker {
+
+    // One chunk of delivered rows, oldest first; each DELETE commits on its own
+    private static final String PURGE_SENT_SQL = "DELETE FROM notification_outbox "
+            + "WHERE status = 'SENT' AND sent_at < ? ORDER BY id LIMIT ?";
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final NotificationClient notificationClient;
+    private final StudentContactCache studentContactCache;
+    private final SchedulerMetrics schedulerMetrics;
+    private final ShardCoordinator shardCoordinator;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${task.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${task.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${task.outbox.base-backoff-seconds:30}")
+    private long baseBackoffSeconds;
+
+    @Value("${task.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${task.outbox.retain-sent:P7D}")
+    private Duration retainSent;
+
+    @Value("${task.outbox.purge-chunk-size:5000}")
+    private int purgeChunkSize;
+
+    @Scheduled(fixedDelayString = "${task.outbox.poll-ms:10000}")
+    public void drain() {
+        schedulerMetrics.run(SchedulerMetrics.OUTBOX, () -> {
+            int[] total = new int[1];
+            shardCoordinator.forEachClaimedShard("outbox", shard -> total[0] += drainReady(shard));
+            return total[0];
+        });
+    }
+
+    /**
+     * Deletes SENT rows older than retain-sent in chunks, on one instance at
+     * a time
+     */
+    @Scheduled(cron = "${task.outbox.purge-cron:0 0 4 * * *}")
+    public void purgeSent() {
+        shardCoordinator.runIfClaimed("outbox-purge", 0, () -> {
+            Instant deadline = shardCoordinator.deadline();
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retainSent));
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(PURGE_SENT_SQL, cutoff, purgeChunkSize);
+                purged += deleted;
+            } while (deleted == purgeChunkSize && Instant.now().isBefore(deadline));
+            schedulerMetrics.rows(SchedulerMetrics.OUTBOX, "purged", purged);
+            if (purged > 0) {
+                log.info("Purged {} sent notification outbox entries older than {}", purged, retainSent);
+            }
+        });
+    }
+
+    private int drainReady(int shard) {
+        Instant deadline = shardCoordinator.deadline();
+        int sent = 0;
+        int failed = 0;
+        List<NotificationOutbox> batch;
+
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            batch = notificationOutboxRepository.findReady(NotificationOutbox.OutboxStatus.PENDING, now,
+                    shardCoordinator.getShardCount(), shard, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Map<Long, StudentResponse> contacts = studentContactCache.resolve(batch.stream()
+                    .map(NotificationOutbox::getStudentId)
+                    .collect(Collectors.toSet()));
+
+            for (NotificationOutbox entry : batch) {
+                try {
+                    StudentResponse student = contacts.get(entry.getStudentId());
+                    if (student == null || student.getEmail() == null) {
+                        throw new IllegalStateException("Student or email not found for ID " + entry.getStudentId());
+                    }
+                    notificationClient.sendEmail(render(entry, student));
+                    entry.setStatus(NotificationOutbox.OutboxStatus.SENT);
+                    entry.setSentAt(LocalDateTime.now());
+                    entry.setLastError(null);
+                    sent++;
+                } catch (Exception e) {
+                    scheduleRetry(entry, e, now);
+                    failed++;
+                }
+                schedulerMetrics.notifications(entry.getType().name(),
+                        entry.getStatus() == NotificationOutbox.OutboxStatus.PENDING ? "retry"
+                                : entry.getStatus().name().toLowerCase(),
+                        1);
+            }
+
+            notificationOutboxRepository.saveAll(batch);
+            if (batch.size() == batchSize && Instant.now().isAfter(deadline)) {
+                // The rest stays PENDING for the next drain
+                log.warn("Notification outbox drain of shard {} stopped to stay inside its lock", shard);
+                break;
+            }
+        } while (batch.size() == batchSize);
+
+        if (sent > 0 || failed > 0) {
+            log.info("Notification outbox drain of shard {}: {} sent, {} failed", shard, sent, failed);
+        }
+        return sent + failed;
+    }
+
+    private void scheduleRetry(NotificationOutbox entry, Exception e, LocalDateTime now) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        String message = String.valueOf(e.getMessage());
+        entry.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+
+        if (attempts >= maxAttempts) {
+            entry.setStatus(NotificationOutbox.OutboxStatus.FAILED);
+            log.error("Giving up on outbox entry {} ({} for student {}) after {} attempts",
+                    entry.getId(), entry.getType(), entry.getStudentId(), attempts, e);
+            return;
+        }
+
+        long backoff = Math.min(maxBackoffSeconds, baseBackoffSeconds << Math.min(attempts - 1, 20));
+        entry.setNextAttemptAt(now.plusSeconds(backoff));
+        log.warn("Outbox entry {} failed (attempt {}), retrying in {}s: {}", entry.getId(), attempts, backoff,
+                message);
+    }
+
+    private EmailRequest render(NotificationOutbox entry, StudentResponse student) {
+        switch (entry.getType()) {
+            case TASK_UNLOCKED:
+                return new EmailRequest(student.getEmail(), "New Task Unlocked",
+                        "Task " + entry.getTaskTitle() + " is now available.");
+            case TASK_DELAYED:
+                return new EmailRequest(student.getEmail(), "Task Deadline Missed",
+                        "Your task " + entry.getTaskTitle() + " is now marked as Delayed.");
+            case TASK_OVERDUE:
+                String body = String.format(
+                        "Dear %s,\n\n" +
+                                "Your task '%s' was due on %s. You have not submitted it yet.\n\n" +
+                                "Please submit the task immediately to avoid further delays. " +
+                                "You will receive reminders every 3 days until you submit.\n\n" +
+                                "Regards,\nSkilledUp Team",
+                        student.getName(),
+                        entry.getTaskTitle(),
+                        String.valueOf(entry.getDeadline()));
+                return new EmailRequest(student.getEmail(), "Task Overdue – Please Submit Immediately", body);
+            default:
+                throw new IllegalStateException("Unknown notification type: " + entry.getType());
+        }
+    }
+}
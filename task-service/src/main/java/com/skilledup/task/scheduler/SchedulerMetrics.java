@@ -0,0 +1,115 @@
+package com.skilledup.task.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Micrometer meters for the scheduled jobs, all tagged with the job name:
+ * <ul>
+ * <li>task.scheduler.run - run duration, tagged outcome=success|failure</li>
+ * <li>task.scheduler.rows - rows handled, tagged with what happened to them
+ * (scanned, unlocked, blocked, deferred, marked_delayed, applied, ...)</li>
+ * <li>task.scheduler.last.rows - rows scanned by the last successful run</li>
+ * <li>task.scheduler.last.success.age - seconds since the last successful
+ * run, NaN until the first one</li>
+ * </ul>
+ * Notifications are counted as task.notifications, tagged with type and
+ * result: queued by a job, then sent, retry or failed by the outbox worker.
+ * Exposed at /actuator/prometheus.
+ */
+@Component
+public class SchedulerMetrics {
+
+    public static final String REMINDER = "reminder";
+    public static final String UNLOCK = "unlock";
+    public static final String DEADLINE = "deadline";
+    public static final String OUTBOX = "outbox";
+    public static final String INTAKE = "intake";
+    public static final String ARCHIVE = "archive";
+    public static final String SIMILARITY = "similarity";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> lastSuccessMillis = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> lastRows = new ConcurrentHashMap<>();
+
+    public SchedulerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        // Registered up front so a job that never succeeds still shows up
+        for (String job : List.of(REMINDER, UNLOCK, DEADLINE, OUTBOX, INTAKE, ARCHIVE, SIMILARITY)) {
+            AtomicLong lastSuccess = lastSuccessMillis.computeIfAbsent(job, name -> new AtomicLong());
+            Gauge.builder("task.scheduler.last.success.age", lastSuccess, SchedulerMetrics::ageSeconds)
+                    .tag("job", job)
+                    .baseUnit("seconds")
+                    .description("Time since the job last completed successfully")
+                    .register(meterRegistry);
+            Gauge.builder("task.scheduler.last.rows", lastRows.computeIfAbsent(job, name -> new AtomicLong()),
+                    AtomicLong::get)
+                    .tag("job", job)
+                    .description("Rows scanned by the last successful run")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Times one run of a job. The body returns the number of rows it scanned.
+     */
+    public int run(String job, IntSupplier body) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            int scanned = body.getAsInt();
+            outcome = "success";
+            lastSuccessMillis.get(job).set(System.currentTimeMillis());
+            lastRows.get(job).set(scanned);
+            rows(job, "scanned", scanned);
+            return scanned;
+        } finally {
+            Timer.builder("task.scheduler.run")
+                    .tag("job", job)
+                    .tag("outcome", outcome)
+                    .description("Duration of scheduled job runs")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void rows(String job, String result, long count) {
+        if (count > 0) {
+            Counter.builder("task.scheduler.rows")
+                    .tag("job", job)
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
+
+    public void notifications(String type, String result, long count) {
+        if (count > 0) {
+            Counter.builder("task.notifications")
+                    .tag("type", type)
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
+
+    public <T> void gauge(String name, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).register(meterRegistry);
+    }
+
+    private static double ageSeconds(AtomicLong lastSuccess) {
+        long millis = lastSuccess.get();
+        return millis == 0 ? Double.NaN : (System.currentTimeMillis() - millis) / 1000.0;
+    }
+}
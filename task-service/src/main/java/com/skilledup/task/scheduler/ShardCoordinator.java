@@ -0,0 +1,112 @@
+package com.skilledup.task.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits scheduler work across task-service replicas. Students are hashed
+ * into a fixed number of shards (student ID modulo task.shards.count, which
+ * must be the same on every instance) and a job processes a shard only while
+ * it holds that shard's row in the shedlock table, so no two instances ever
+ * work the same students at once. A lock left behind by a dead instance
+ * expires after lock-at-most-for and the shard is picked up on the next run.
+ * <p>
+ * Locks are not extended, so work under one must stop by {@link #deadline()}
+ * (task.shards.work-budget, well inside lock-at-most-for) and leave the rest
+ * of the shard to the next run.
+ */
+@Component
+@Slf4j
+public class ShardCoordinator {
+
+    private final LockProvider lockProvider;
+    private final int shardCount;
+    private final Duration lockAtMostFor;
+    private final Duration lockAtLeastFor;
+    private final Duration workBudget;
+
+    public ShardCoordinator(LockProvider lockProvider,
+            @Value("${task.shards.count:8}") int shardCount,
+            @Value("${task.shards.lock-at-most-for:PT10M}") Duration lockAtMostFor,
+            @Value("${task.shards.lock-at-least-for:PT10S}") Duration lockAtLeastFor,
+            @Value("${task.shards.work-budget:PT5M}") Duration workBudget) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("task.shards.count must be at least 1");
+        }
+        if (workBudget.compareTo(lockAtMostFor) >= 0) {
+            throw new IllegalArgumentException("task.shards.work-budget must be shorter than lock-at-most-for");
+        }
+        this.lockProvider = lockProvider;
+        this.shardCount = shardCount;
+        this.lockAtMostFor = lockAtMostFor;
+        this.lockAtLeastFor = lockAtLeastFor;
+        this.workBudget = workBudget;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(Long studentId) {
+        return (int) Math.floorMod(studentId, (long) shardCount);
+    }
+
+    /**
+     * Point by which work started now under a shard lock must stop. Take it
+     * when the shard's work starts and check it between chunks.
+     */
+    public Instant deadline() {
+        return Instant.now().plus(workBudget);
+    }
+
+    /**
+     * Runs the work once for every shard of the job this instance can claim.
+     * Shards are tried from a random offset so concurrent instances spread
+     * out instead of contending for the same locks. Returns the number of
+     * shards processed here.
+     */
+    public int forEachClaimedShard(String job, IntConsumer work) {
+        int offset = ThreadLocalRandom.current().nextInt(shardCount);
+        int processed = 0;
+        for (int i = 0; i < shardCount; i++) {
+            int shard = (offset + i) % shardCount;
+            if (runIfClaimed(job, shard, () -> work.accept(shard))) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Runs the work if this instance can claim the shard; returns false
+     * without running it while another instance holds the lock.
+     */
+    public boolean runIfClaimed(String job, int shard, Runnable work) {
+        Optional<SimpleLock> lock = lockProvider.lock(
+                new LockConfiguration(Instant.now(), lockName(job, shard), lockAtMostFor, lockAtLeastFor));
+        if (lock.isEmpty()) {
+            log.debug("Shard {} of {} is held by another instance", shard, job);
+            return false;
+        }
+        try {
+            work.run();
+            return true;
+        } finally {
+            lock.get().unlock();
+        }
+    }
+
+    private String lockName(String job, int shard) {
+        return job + "-shard-" + shard + "-of-" + shardCount;
+    }
+}
@@ -0,0 +1,152 @@
+package com.skilledup.task.scheduler;
+
+import com.skilledup.task.dto.IntakeApplyResult;
+import com.skilledup.task.service.SubmissionIntakeService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Applies accepted submission intakes. A single daemon thread takes batches
+ * off the in-memory queue as they arrive; a scheduled recovery poll applies
+ * intakes that are still QUEUED after recovery-after, such as ones that did
+ * not fit the queue or were accepted by an instance that went away. A batch
+ * that fails as a whole is retried one intake at a time so a single bad row
+ * is rejected on its own. Intakes that fail on a lock timeout, deadlock or
+ * lost connection are not rejected; they stay QUEUED for the recovery poll.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionIntakeWorker {
+
+    private final SubmissionIntakeService submissionIntakeService;
+    private final SchedulerMetrics schedulerMetrics;
+
+    @Value("${task.intake.batch-size:200}")
+    private int batchSize;
+
+    @Value("${task.intake.recovery-after:PT10S}")
+    private Duration recoveryAfter;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedulerMetrics.gauge("task.intake.queue.size", submissionIntakeService,
+                SubmissionIntakeService::getQueueSize);
+        running = true;
+        thread = new Thread(this::loop, "submission-intake");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(5000);
+        }
+    }
+
+    /**
+     * One pass over the intakes queued before recovery-after, in ID order.
+     * Intakes left QUEUED by a transient failure are passed over and tried
+     * again on the next poll.
+     */
+    @Scheduled(fixedDelayString = "${task.intake.recovery-ms:30000}")
+    public void recover() {
+        Instant before = Instant.now().minus(recoveryAfter);
+        long lastId = 0L;
+        List<Long> ids;
+        do {
+            ids = submissionIntakeService.findStaleIds(before, lastId, batchSize);
+            if (!ids.isEmpty()) {
+                log.info("Recovering {} queued submission intakes", ids.size());
+                applyBatch(ids);
+                lastId = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                List<Long> ids = submissionIntakeService.takeBatch(batchSize, 1000);
+                if (!ids.isEmpty()) {
+                    applyBatch(ids);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Intakes stay QUEUED and are picked up by the recovery poll
+                log.error("Submission intake batch failed", e);
+            }
+        }
+    }
+
+    private void applyBatch(List<Long> ids) {
+        int[] counts = new int[2]; // applied, rejected
+        schedulerMetrics.run(SchedulerMetrics.INTAKE, () -> {
+            try {
+                add(counts, submissionIntakeService.apply(ids));
+            } catch (Exception e) {
+                log.warn("Intake batch of {} failed, applying one at a time: {}", ids.size(), e.getMessage());
+                for (Long id : ids) {
+                    try {
+                        add(counts, submissionIntakeService.apply(List.of(id)));
+                    } catch (Exception single) {
+                        if (isTransient(single)) {
+                            log.warn("Submission intake {} failed transiently, leaving it queued: {}", id,
+                                    single.getMessage());
+                            continue;
+                        }
+                        log.error("Rejecting submission intake {}", id, single);
+                        submissionIntakeService.reject(id, single.getMessage());
+                        counts[1]++;
+                    }
+                }
+            }
+            return ids.size();
+        });
+        schedulerMetrics.rows(SchedulerMetrics.INTAKE, "applied", counts[0]);
+        schedulerMetrics.rows(SchedulerMetrics.INTAKE, "rejected", counts[1]);
+    }
+
+    /**
+     * Whether the failure may go away on a retry (lock wait timeout,
+     * deadlock, connection or transaction resource failure) rather than
+     * being caused by the intake itself.
+     */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof org.springframework.dao.TransientDataAccessException
+                    || t instanceof org.springframework.dao.RecoverableDataAccessException
+                    || t instanceof org.springframework.dao.DataAccessResourceFailureException
+                    || t instanceof org.springframework.transaction.CannotCreateTransactionException
+                    || t instanceof org.springframework.transaction.TransactionTimedOutException
+                    || t instanceof java.sql.SQLTransientException
+                    || t instanceof java.sql.SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void add(int[] counts, IntakeApplyResult result) {
+        counts[0] += result.getApplied();
+        counts[1] += result.getRejected();
+    }
+}
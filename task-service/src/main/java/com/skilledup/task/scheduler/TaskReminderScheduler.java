@@ -1,22 +1,23 @@
 package com.skilledup.task.scheduler;
 
-import com.skilledup.task.client.NotificationClient;
-import com.skilledup.task.client.StudentClient;
-import com.skilledup.task.dto.EmailRequest;
-import com.skilledup.task.dto.StudentResponse;
+import com.skilledup.task.model.NotificationOutbox;
 import com.skilledup.task.model.TaskSchedule;
 import com.skilledup.task.repository.TaskScheduleRepository;
+import com.skilledup.task.service.NotificationOutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
@@ -24,109 +25,93 @@ import java.time.temporal.ChronoUnit;
 public class TaskReminderScheduler {
 
     private final TaskScheduleRepository taskScheduleRepository;
-    private final StudentClient studentClient;
-    private final NotificationClient notificationClient;
+    private final NotificationOutboxService notificationOutboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCoordinator shardCoordinator;
+    private final SchedulerMetrics schedulerMetrics;
 
-    // Run every minute for testing (SHOULD BE HOURLY IN PROD)
-    @Scheduled(cron = "0 * * * * *")
-    // @SchedulerLock(name = "TaskReminderScheduler_sendTaskOverdueReminders",
-    // lockAtLeastFor = "PT30S", lockAtMostFor = "PT50S")
+    @Value("${task.reminder.page-size:500}")
+    private int pageSize;
+
+    // Run every minute for testing (SHOULD BE HOURLY IN PROD). Replicas split
+    // the run by student shard, so each reminder is sent by one instance only.
+    @Scheduled(cron = "${task.reminder.cron:0 * * * * *}")
     public void sendTaskOverdueReminders() {
-        log.info("Running Task Overdue Reminder Scheduler with Locking & Batching...");
         LocalDateTime now = LocalDateTime.now(java.time.ZoneOffset.UTC);
-        log.info("Current Scheduler Time (now): {}", now);
+        log.debug("Running Task Overdue Reminder Scheduler at {}", now);
+
+        int[] shards = new int[1];
+        int scanned = schedulerMetrics.run(SchedulerMetrics.REMINDER, () -> {
+            int[] total = new int[1];
+            shards[0] = shardCoordinator.forEachClaimedShard("reminder",
+                    shard -> total[0] += remindShard(now, shard));
+            return total[0];
+        });
+        schedulerMetrics.notifications(NotificationOutbox.NotificationType.TASK_OVERDUE.name(), "queued", scanned);
+
+        if (scanned > 0) {
+            log.info("Completed Overdue Reminder Scheduler run. {} due reminders queued in {} shards.", scanned,
+                    shards[0]);
+        }
+    }
 
-        int count = taskScheduleRepository.findAll().size();
-        log.info("Total TaskSchedule records in DB: {}", count);
-        int pageNumber = 0;
-        int pageSize = 100;
-        Page<TaskSchedule> page;
+    private int remindShard(LocalDateTime now, int shard) {
+        Instant deadline = shardCoordinator.deadline();
+        long lastId = 0L;
+        int scanned = 0;
+        List<TaskSchedule> chunk;
 
         do {
-            page = taskScheduleRepository.findByIsSubmittedFalseAndIsUnlockedTrueAndDeadlineBefore(
-                    now,
-                    PageRequest.of(pageNumber, pageSize, Sort.by("id").ascending()) // Predictable order for batching
-            );
-
-            log.info("Processing batch {}/{} ({} tasks)", pageNumber + 1, page.getTotalPages(),
-                    page.getNumberOfElements());
-
-            for (TaskSchedule schedule : page.getContent()) {
-                try {
-                    processReminder(schedule, now);
-                } catch (Exception e) {
-                    log.error("Failed to process reminder for schedule ID {}", schedule.getId(), e);
-                }
+            // Keyset page: constant memory, no COUNT query, and rows updated in
+            // a previous chunk cannot shift the window. Each chunk is read,
+            // updated and queued in one short transaction.
+            long afterId = lastId;
+            chunk = transactionTemplate.execute(status -> {
+                List<TaskSchedule> page = taskScheduleRepository.findDueRemindersAfterId(now, afterId,
+                        shardCoordinator.getShardCount(), shard, PageRequest.of(0, pageSize));
+                queueReminders(page, now);
+                return page;
+            });
+
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+                scanned += chunk.size();
             }
-
-            pageNumber++;
-        } while (page.hasNext());
-
-        log.info("Completed Overdue Reminder Scheduler run.");
-    }
-
-    private void processReminder(TaskSchedule schedule, LocalDateTime now) {
-        boolean shouldSendEmail = false;
-
-        if (schedule.getLastReminderSentAt() == null) {
-            // Case 1: First reminder immediately after deadline
-            shouldSendEmail = true;
-        } else {
-            // Case 2: Recurring reminder every 3 days
-            long daysSinceLastReminder = ChronoUnit.DAYS.between(schedule.getLastReminderSentAt(), now);
-            if (daysSinceLastReminder >= 3) {
-                shouldSendEmail = true;
+            if (chunk.size() == pageSize && Instant.now().isAfter(deadline)) {
+                // Reminders left here are still due on the next run
+                log.warn("Reminder run of shard {} stopped after {} rows to stay inside its lock", shard, scanned);
+                break;
             }
-        }
+        } while (chunk.size() == pageSize);
+        return scanned;
+    }
 
-        if (shouldSendEmail) {
-            log.info("Sending email for scheduleId: {}", schedule.getId());
-            boolean emailSent = sendEmail(schedule);
-            if (emailSent) {
-                schedule.setLastReminderSentAt(now);
-                taskScheduleRepository.save(schedule);
-            } else {
-                log.warn("Email sending failed for scheduleId: {}. Will retry next cycle.", schedule.getId());
-            }
-        } else {
-            log.info("Skipping email for scheduleId: {}. Last sent: {}", schedule.getId(),
-                    schedule.getLastReminderSentAt());
+    /**
+     * Fills next_reminder_at for unlocked rows that predate the column and
+     * clears it on locked rows written before it was set on unlock.
+     * Idempotent; the column itself comes from Hibernate's schema update.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillNextReminderAt() {
+        int updated = taskScheduleRepository.backfillNextReminderAt();
+        int cleared = taskScheduleRepository.clearLockedReminders();
+        if (updated > 0 || cleared > 0) {
+            log.info("Backfilled next_reminder_at for {} task schedules, cleared it on {} locked ones", updated,
+                    cleared);
         }
     }
 
-    private boolean sendEmail(TaskSchedule schedule) {
-        try {
-            Long studentId = schedule.getStudentId();
-            StudentResponse student = studentClient.getStudentById(studentId);
-
-            if (student == null || student.getEmail() == null) {
-                log.error("Student or email not found for ID {}", studentId);
-                return false;
-            }
-
-            String subject = "Task Overdue – Please Submit Immediately";
-            String body = String.format(
-                    "Dear %s,\n\n" +
-                            "Your task '%s' was due on %s. You have not submitted it yet.\n\n" +
-                            "Please submit the task immediately to avoid further delays. " +
-                            "You will receive reminders every 3 days until you submit.\n\n" +
-                            "Regards,\nSkilledUp Team",
-                    student.getName(),
-                    schedule.getTask().getTitle(),
-                    schedule.getDeadline().toString());
-
-            EmailRequest emailRequest = new EmailRequest();
-            emailRequest.setRecipient(student.getEmail());
-            emailRequest.setSubject(subject);
-            emailRequest.setBody(body);
-
-            notificationClient.sendEmail(emailRequest);
-            log.info("Sent overdue reminder to {} for task {}", student.getEmail(), schedule.getTask().getTitle());
-            return true;
-
-        } catch (Exception e) {
-            log.error("Error sending email for schedule {}", schedule.getId(), e);
-            return false;
+    /**
+     * Marks the chunk as reminded and queues the emails in the same
+     * transaction; delivery is handled by the notification outbox worker.
+     */
+    private void queueReminders(List<TaskSchedule> chunk, LocalDateTime now) {
+        // Managed entities: changes are flushed on commit
+        for (TaskSchedule schedule : chunk) {
+            schedule.setLastReminderSentAt(now);
+            schedule.rescheduleReminder();
         }
+        notificationOutboxService.enqueue(NotificationOutbox.NotificationType.TASK_OVERDUE, chunk);
     }
 }
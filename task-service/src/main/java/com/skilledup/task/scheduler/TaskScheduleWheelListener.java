@@ -0,0 +1,63 @@
+package com.skilledup.task.scheduler;
+
+import com.skilledup.task.model.TaskSchedule;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps {@link TaskUnlockEngine} in sync with TaskSchedule changes made through
+ * JPA. The change is applied to the wheel once the transaction commits, so a
+ * rollback leaves the wheel as it was. Rows written with plain JDBC are picked
+ * up by the engine's ID watermark.
+ */
+@Component
+public class TaskScheduleWheelListener {
+
+    private final ObjectProvider<TaskUnlockEngine> unlockEngine;
+
+    public TaskScheduleWheelListener(ObjectProvider<TaskUnlockEngine> unlockEngine) {
+        this.unlockEngine = unlockEngine;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(TaskSchedule schedule) {
+        // Captured now: the entity may change again before commit
+        Long scheduleId = schedule.getId();
+        boolean pending = !schedule.isUnlocked() && !schedule.isSubmitted();
+        LocalDate unlockDate = schedule.getUnlockDate();
+        afterCommit(engine -> {
+            if (pending) {
+                engine.schedule(scheduleId, unlockDate);
+            } else {
+                engine.cancel(scheduleId);
+            }
+        });
+    }
+
+    @PostRemove
+    public void onRemoved(TaskSchedule schedule) {
+        Long scheduleId = schedule.getId();
+        afterCommit(engine -> engine.cancel(scheduleId));
+    }
+
+    private void afterCommit(java.util.function.Consumer<TaskUnlockEngine> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    unlockEngine.ifAvailable(change);
+                }
+            });
+        } else {
+            unlockEngine.ifAvailable(change);
+        }
+    }
+}
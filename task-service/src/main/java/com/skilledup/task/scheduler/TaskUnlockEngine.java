@@ -0,0 +1,245 @@
+package com.skilledup.task.scheduler;
+
+import com.skilledup.task.dto.ScheduleScanView;
+import com.skilledup.task.dto.ScheduleUnlockView;
+import com.skilledup.task.dto.UnlockRunResult;
+import com.skilledup.task.model.NotificationOutbox;
+import com.skilledup.task.repository.TaskScheduleRepository;
+import com.skilledup.task.service.TaskSchedulerService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Fires scheduled task unlocks from an in-memory timing wheel instead of a
+ * once-a-day scan. The wheel holds every locked, unsubmitted schedule; it is
+ * loaded at startup, picks up newly inserted rows by ID watermark on every
+ * tick and follows JPA updates through {@link TaskScheduleWheelListener}.
+ * Inserts commit out of ID order, so IDs missing below the watermark when the
+ * scan passes them are kept as gaps and re-read on later ticks until they show
+ * up or task.unlock.gap-timeout (longer than any inserting transaction)
+ * expires them as rolled back or deleted.
+ * Schedules already past their unlock date when loaded fire on the first tick,
+ * which covers downtime. Every replica keeps a full wheel; the unlock itself is
+ * split across replicas by student shard (see {@link ShardCoordinator}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskUnlockEngine {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final TaskScheduleRepository taskScheduleRepository;
+    private final TaskSchedulerService taskSchedulerService;
+    private final SchedulerMetrics schedulerMetrics;
+
+    @Value("${task.unlock.load-page-size:5000}")
+    private int loadPageSize;
+
+    @Value("${task.unlock.tick-ms:60000}")
+    private long tickMs;
+
+    // IDs below the highest one at startup whose rows may still be committing
+    @Value("${task.unlock.rescan-ids:10000}")
+    private long rescanIds;
+
+    @Value("${task.unlock.gap-timeout:PT10M}")
+    private Duration gapTimeout;
+
+    private TimingWheel wheel;
+    private final Set<Long> pendingDue = new LinkedHashSet<>();
+    private final TreeMap<Long, long[]> gaps = new TreeMap<>(); // first missing ID -> {last, opened at ms}
+    private long watermarkId = 0;
+    private volatile boolean loaded = false;
+
+    @PostConstruct
+    public void registerGauges() {
+        schedulerMetrics.gauge("task.unlock.wheel.size", this, TaskUnlockEngine::getScheduledCount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (this) {
+            wheel = new TimingWheel(tickMs, WHEEL_SIZE, System.currentTimeMillis());
+            pendingDue.clear();
+            gaps.clear();
+            long maxId = taskScheduleRepository.findMaxId();
+            loadLocked();
+            // Re-scan the tail with gap tracking; rows loaded above are just
+            // scheduled again
+            watermarkId = Math.max(0L, maxId - rescanIds);
+            scanNew();
+            loaded = true;
+            log.info("Unlock timing wheel loaded: {} scheduled, {} already due", wheel.size(), pendingDue.size());
+        }
+        tick();
+    }
+
+    @Scheduled(fixedDelayString = "${task.unlock.tick-ms:60000}")
+    public void tick() {
+        if (!loaded) {
+            return;
+        }
+        schedulerMetrics.run(SchedulerMetrics.UNLOCK, this::fireDue);
+    }
+
+    private int fireDue() {
+        List<Long> due;
+        synchronized (this) {
+            scanNew();
+            recheckGaps();
+            due = new ArrayList<>(pendingDue);
+            pendingDue.clear();
+            due.addAll(wheel.advance(System.currentTimeMillis()));
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        UnlockRunResult result = taskSchedulerService.unlockDueSchedules(due);
+        schedulerMetrics.rows(SchedulerMetrics.UNLOCK, "unlocked", result.getUnlocked());
+        schedulerMetrics.rows(SchedulerMetrics.UNLOCK, "blocked", result.getBlocked());
+        schedulerMetrics.rows(SchedulerMetrics.UNLOCK, "deferred", result.getDeferred());
+        schedulerMetrics.notifications(NotificationOutbox.NotificationType.TASK_UNLOCKED.name(), "queued",
+                result.getUnlocked());
+
+        // Due rows in shards another instance held this tick are retried on the
+        // next one; by then they are usually unlocked and drop out
+        List<Long> deferred = result.getDeferredIds();
+        if (!deferred.isEmpty()) {
+            synchronized (this) {
+                pendingDue.addAll(deferred);
+            }
+        }
+        return due.size();
+    }
+
+    /**
+     * Locked schedules waiting in the wheel, exported as task.unlock.wheel.size
+     */
+    public synchronized int getScheduledCount() {
+        return loaded ? wheel.size() + pendingDue.size() : 0;
+    }
+
+    /**
+     * Registers or moves a schedule after an insert or update.
+     */
+    public synchronized void schedule(Long scheduleId, LocalDate unlockDate) {
+        if (!loaded || scheduleId == null || unlockDate == null) {
+            return;
+        }
+        if (!wheel.schedule(scheduleId, toEpochMillis(unlockDate))) {
+            pendingDue.add(scheduleId);
+        }
+    }
+
+    public synchronized void cancel(Long scheduleId) {
+        if (!loaded || scheduleId == null) {
+            return;
+        }
+        wheel.cancel(scheduleId);
+    }
+
+    private void loadLocked() {
+        long afterId = 0L;
+        List<ScheduleUnlockView> page;
+        do {
+            page = taskScheduleRepository.findLockedAfterId(afterId, PageRequest.of(0, loadPageSize));
+            for (ScheduleUnlockView view : page) {
+                add(view);
+                afterId = view.getId();
+            }
+        } while (page.size() == loadPageSize);
+    }
+
+    /**
+     * Reads every row above the watermark; holes between consecutive IDs are
+     * recorded as gaps.
+     */
+    private void scanNew() {
+        long now = System.currentTimeMillis();
+        List<ScheduleScanView> page;
+        do {
+            page = taskScheduleRepository.findInIdRange(watermarkId, Long.MAX_VALUE, PageRequest.of(0, loadPageSize));
+            for (ScheduleScanView view : page) {
+                if (view.getId() > watermarkId + 1) {
+                    gaps.put(watermarkId + 1, new long[] { view.getId() - 1, now });
+                }
+                if (Boolean.TRUE.equals(view.getPending())) {
+                    add(view);
+                }
+                watermarkId = view.getId();
+            }
+        } while (page.size() == loadPageSize);
+    }
+
+    /**
+     * Expires old gaps and reads the ID span of the rest in one range query;
+     * rows that landed in a gap are scheduled and taken out of it.
+     */
+    private void recheckGaps() {
+        long expiredBefore = System.currentTimeMillis() - gapTimeout.toMillis();
+        gaps.values().removeIf(gap -> gap[1] < expiredBefore);
+        if (gaps.isEmpty()) {
+            return;
+        }
+
+        long afterId = gaps.firstKey() - 1;
+        long toId = gaps.lastEntry().getValue()[0];
+        List<ScheduleScanView> page;
+        do {
+            page = taskScheduleRepository.findInIdRange(afterId, toId, PageRequest.of(0, loadPageSize));
+            for (ScheduleScanView view : page) {
+                if (fillGap(view.getId()) && Boolean.TRUE.equals(view.getPending())) {
+                    add(view);
+                }
+                afterId = view.getId();
+            }
+        } while (page.size() == loadPageSize);
+    }
+
+    private boolean fillGap(long id) {
+        Map.Entry<Long, long[]> gap = gaps.floorEntry(id);
+        if (gap == null || gap.getValue()[0] < id) {
+            return false;
+        }
+        long first = gap.getKey();
+        long last = gap.getValue()[0];
+        long openedAt = gap.getValue()[1];
+        gaps.remove(first);
+        if (first < id) {
+            gaps.put(first, new long[] { id - 1, openedAt });
+        }
+        if (id < last) {
+            gaps.put(id + 1, new long[] { last, openedAt });
+        }
+        return true;
+    }
+
+    private void add(ScheduleUnlockView view) {
+        if (!wheel.schedule(view.getId(), toEpochMillis(view.getUnlockDate()))) {
+            pendingDue.add(view.getId());
+        }
+    }
+
+    private long toEpochMillis(LocalDate unlockDate) {
+        return unlockDate.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,147 @@
+package com.skilledup.task.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by ID. Each level has the same number of
+ * slots; a level's whole span is one tick of the next (overflow) level, which
+ * is created on demand. Entries cascade down as the clock advances and are
+ * returned from {@link #advance(long)} once due. Not thread-safe.
+ */
+public class TimingWheel {
+
+    private final Level root;
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.root = new Level(tickMs, wheelSize, startMs);
+    }
+
+    /**
+     * Schedules (or reschedules) an ID. Returns false when it is already due,
+     * in which case nothing is stored and the caller should fire it directly.
+     */
+    public boolean schedule(long id, long expirationMs) {
+        cancel(id);
+        Entry entry = new Entry(id, expirationMs);
+        if (!root.add(entry)) {
+            return false;
+        }
+        entries.put(id, entry);
+        return true;
+    }
+
+    public void cancel(long id) {
+        Entry existing = entries.remove(id);
+        if (existing != null) {
+            existing.cancelled = true;
+        }
+    }
+
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the clock to {@code nowMs} and returns the IDs that have become due.
+     */
+    public List<Long> advance(long nowMs) {
+        root.advanceClock(nowMs);
+
+        List<Entry> flushed = new ArrayList<>();
+        root.flush(nowMs, flushed);
+
+        List<Long> due = new ArrayList<>();
+        for (Entry entry : flushed) {
+            if (entry.cancelled) {
+                continue;
+            }
+            if (!root.add(entry)) {
+                entries.remove(entry.id);
+                due.add(entry.id);
+            }
+        }
+        return due;
+    }
+
+    private static final class Entry {
+        final long id;
+        final long expirationMs;
+        boolean cancelled;
+
+        Entry(long id, long expirationMs) {
+            this.id = id;
+            this.expirationMs = expirationMs;
+        }
+    }
+
+    private static final class Level {
+        final long tickMs;
+        final int wheelSize;
+        final long intervalMs;
+        final List<Entry>[] buckets;
+        final long[] bucketExpirations;
+        long currentTime;
+        Level overflow;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.intervalMs = tickMs * wheelSize;
+            this.buckets = new List[wheelSize];
+            this.bucketExpirations = new long[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayList<>();
+                bucketExpirations[i] = -1;
+            }
+            this.currentTime = startMs - (startMs % tickMs);
+        }
+
+        boolean add(Entry entry) {
+            if (entry.expirationMs < currentTime + tickMs) {
+                return false;
+            }
+            if (entry.expirationMs < currentTime + intervalMs) {
+                long virtualId = entry.expirationMs / tickMs;
+                int slot = (int) (virtualId % wheelSize);
+                buckets[slot].add(entry);
+                bucketExpirations[slot] = virtualId * tickMs;
+                return true;
+            }
+            if (overflow == null) {
+                overflow = new Level(intervalMs, wheelSize, currentTime);
+            }
+            return overflow.add(entry);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                if (overflow != null) {
+                    overflow.advanceClock(currentTime);
+                }
+            }
+        }
+
+        void flush(long nowMs, List<Entry> out) {
+            for (int i = 0; i < wheelSize; i++) {
+                if (bucketExpirations[i] >= 0 && bucketExpirations[i] <= nowMs) {
+                    out.addAll(buckets[i]);
+                    buckets[i].clear();
+                    bucketExpirations[i] = -1;
+                }
+            }
+            if (overflow != null) {
+                overflow.flush(nowMs, out);
+            }
+        }
+    }
+}
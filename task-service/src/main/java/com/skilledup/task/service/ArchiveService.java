@@ -0,0 +1,385 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.ArchiveRunResult;
+import com.skilledup.task.dto.HistoryItem;
+import com.skilledup.task.dto.StudentHistory;
+import com.skilledup.task.model.ArchiveBatch;
+import com.skilledup.task.repository.ArchiveBatchRepository;
+import com.skilledup.task.scheduler.SchedulerMetrics;
+import com.skilledup.task.scheduler.ShardCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves finished enrollments out of task_schedule and submissions. A student's
+ * enrollment in a domain is finished once every schedule is submitted, no
+ * submission is waiting for review and the last deadline is older than
+ * task.archive.retain-after. Each chunk of finished student/domain pairs is
+ * copied to task_schedule_archive and submissions_archive and deleted from the
+ * live tables in one transaction, recorded as an archive batch. Batches are
+ * then exported to object storage as gzipped CSV, one file per table.
+ * <p>
+ * Progress and score aggregates are left in place, so completion stats and
+ * performance keep working for archived students, and both rebuilds also read
+ * the archive tables. getHistory reads the live tables first and falls back to
+ * the archive.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveService {
+
+    // Keyset scan of the progress counters; the live tables are only probed
+    // for pairs whose counters say they are complete
+    private static final String FIND_FINISHED_SQL = "SELECT p.student_id, p.domain FROM student_domain_progress p "
+            + "WHERE MOD(p.student_id, ?) = ? "
+            + "AND (p.student_id > ? OR (p.student_id = ? AND p.domain > ?)) "
+            + "AND p.total_tasks > 0 AND p.submitted_tasks >= p.total_tasks "
+            + "AND EXISTS (SELECT 1 FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id "
+            + "WHERE ts.student_id = p.student_id AND t.domain = p.domain) "
+            + "AND NOT EXISTS (SELECT 1 FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id "
+            + "WHERE ts.student_id = p.student_id AND t.domain = p.domain "
+            + "AND (ts.is_submitted = false OR ts.deadline >= ?)) "
+            + "AND NOT EXISTS (SELECT 1 FROM submissions s JOIN tasks t ON t.id = s.task_id "
+            + "WHERE s.student_id = p.student_id AND t.domain = p.domain AND s.status = 'PENDING') "
+            + "ORDER BY p.student_id, p.domain LIMIT ?";
+
+    private static final String LOCK_SCHEDULES_SQL = "SELECT ts.id FROM task_schedule ts "
+            + "JOIN tasks t ON t.id = ts.task_id WHERE (ts.student_id, t.domain) IN (:pairs) FOR UPDATE";
+
+    // Pairs that stopped being finished between the scan and the lock
+    private static final String FIND_UNFINISHED_SQL = "SELECT DISTINCT ts.student_id, t.domain FROM task_schedule ts "
+            + "JOIN tasks t ON t.id = ts.task_id WHERE (ts.student_id, t.domain) IN (:pairs) "
+            + "AND (ts.is_submitted = false OR ts.deadline >= :cutoff OR EXISTS (SELECT 1 FROM submissions s "
+            + "WHERE s.student_id = ts.student_id AND s.task_id = ts.task_id AND s.status = 'PENDING'))";
+
+    private static final String ARCHIVE_SCHEDULES_SQL = "INSERT INTO task_schedule_archive "
+            + "(id, student_id, task_id, domain, week_no, task_title, unlock_date, deadline, is_unlocked, "
+            + "is_submitted, is_delayed, last_reminder_sent_at, archive_batch_id, archived_at) "
+            + "SELECT ts.id, ts.student_id, ts.task_id, t.domain, t.week_no, t.title, ts.unlock_date, ts.deadline, "
+            + "ts.is_unlocked, ts.is_submitted, ts.is_delayed, ts.last_reminder_sent_at, :batchId, :now "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id WHERE (ts.student_id, t.domain) IN (:pairs)";
+
+    private static final String ARCHIVE_SUBMISSIONS_SQL = "INSERT INTO submissions_archive "
+            + "(id, student_id, task_id, domain, submission_file_url, status, score, feedback, submitted_at, "
+            + "reviewed_at, archive_batch_id, archived_at) "
+            + "SELECT s.id, s.student_id, s.task_id, t.domain, s.submission_file_url, s.status, s.score, s.feedback, "
+            + "s.submitted_at, s.reviewed_at, :batchId, :now "
+            + "FROM submissions s JOIN tasks t ON t.id = s.task_id WHERE (s.student_id, t.domain) IN (:pairs)";
+
+    private static final String DELETE_SCHEDULES_SQL = "DELETE ts FROM task_schedule ts "
+            + "JOIN task_schedule_archive a ON a.id = ts.id WHERE a.archive_batch_id = ?";
+
+    private static final String ARCHIVED_SUBMISSION_IDS_SQL = "SELECT id FROM submissions_archive "
+            + "WHERE archive_batch_id = ?";
+
+    private static final String DELETE_SUBMISSIONS_SQL = "DELETE s FROM submissions s "
+            + "JOIN submissions_archive a ON a.id = s.id WHERE a.archive_batch_id = ?";
+
+    private static final String EXPORT_SCHEDULES_SQL = "SELECT id, student_id, task_id, domain, week_no, task_title, "
+            + "unlock_date, deadline, is_unlocked, is_submitted, is_delayed, last_reminder_sent_at, archived_at "
+            + "FROM task_schedule_archive WHERE archive_batch_id = ? ORDER BY id";
+
+    private static final String EXPORT_SUBMISSIONS_SQL = "SELECT id, student_id, task_id, domain, "
+            + "submission_file_url, status, score, feedback, submitted_at, reviewed_at, archived_at "
+            + "FROM submissions_archive WHERE archive_batch_id = ? ORDER BY id";
+
+    private static final String LIVE_HISTORY_SQL = "SELECT ts.task_id, t.week_no, t.title AS task_title, "
+            + "ts.unlock_date, ts.deadline, ts.is_unlocked, ts.is_submitted, ts.is_delayed, "
+            + "s.id AS submission_id, s.status, s.score, s.feedback, s.submission_file_url, s.submitted_at, "
+            + "s.reviewed_at "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id "
+            + "LEFT JOIN submissions s ON s.id = (SELECT MAX(s2.id) FROM submissions s2 "
+            + "WHERE s2.student_id = ts.student_id AND s2.task_id = ts.task_id) "
+            + "WHERE ts.student_id = ? AND t.domain = ? ORDER BY t.week_no, ts.task_id";
+
+    private static final String ARCHIVED_HISTORY_SQL = "SELECT a.task_id, a.week_no, a.task_title, "
+            + "a.unlock_date, a.deadline, a.is_unlocked, a.is_submitted, a.is_delayed, "
+            + "s.id AS submission_id, s.status, s.score, s.feedback, s.submission_file_url, s.submitted_at, "
+            + "s.reviewed_at "
+            + "FROM task_schedule_archive a "
+            + "LEFT JOIN submissions_archive s ON s.id = (SELECT MAX(s2.id) FROM submissions_archive s2 "
+            + "WHERE s2.student_id = a.student_id AND s2.task_id = a.task_id) "
+            + "WHERE a.student_id = ? AND a.domain = ? ORDER BY a.week_no, a.task_id";
+
+    private static final RowMapper<HistoryItem> HISTORY_ROW_MAPPER = (rs, rowNum) -> {
+        long submissionId = rs.getLong("submission_id");
+        boolean hasSubmission = !rs.wasNull();
+        Timestamp submittedAt = rs.getTimestamp("submitted_at");
+        Timestamp reviewedAt = rs.getTimestamp("reviewed_at");
+        return HistoryItem.builder()
+                .taskId(rs.getLong("task_id"))
+                .weekNo(rs.getObject("week_no", Integer.class))
+                .taskTitle(rs.getString("task_title"))
+                .unlockDate(rs.getDate("unlock_date").toLocalDate())
+                .deadline(rs.getTimestamp("deadline").toLocalDateTime())
+                .unlocked(rs.getBoolean("is_unlocked"))
+                .submitted(rs.getBoolean("is_submitted"))
+                .delayed(rs.getBoolean("is_delayed"))
+                .submissionId(hasSubmission ? submissionId : null)
+                .submissionStatus(rs.getString("status"))
+                .score(rs.getObject("score", Integer.class))
+                .feedback(rs.getString("feedback"))
+                .submissionFileUrl(rs.getString("submission_file_url"))
+                .submittedAt(submittedAt != null ? submittedAt.toInstant() : null)
+                .reviewedAt(reviewedAt != null ? reviewedAt.toInstant() : null)
+                .build();
+    };
+
+    private final ArchiveBatchRepository archiveBatchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCoordinator shardCoordinator;
+    private final SchedulerMetrics schedulerMetrics;
+    private final S3Service s3Service;
+    private final SimilarityIndexService similarityIndexService;
+
+    @Value("${task.archive.retain-after:P90D}")
+    private Duration retainAfter;
+
+    @Value("${task.archive.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${task.archive.export.enabled:true}")
+    private boolean exportEnabled;
+
+    @Value("${task.archive.export.prefix:archive/}")
+    private String exportPrefix;
+
+    @Scheduled(cron = "${task.archive.cron:0 30 3 * * *}")
+    public void archiveFinished() {
+        archiveFinishedEnrollments();
+    }
+
+    /**
+     * Archives every finished enrollment in the shards this instance can
+     * claim, then exports the batches not yet in object storage
+     */
+    public ArchiveRunResult archiveFinishedEnrollments() {
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(retainAfter);
+        ArchiveRunResult result = ArchiveRunResult.builder().build();
+
+        schedulerMetrics.run(SchedulerMetrics.ARCHIVE, () -> {
+            result.setShards(shardCoordinator.forEachClaimedShard("archive",
+                    shard -> archiveShard(shard, cutoff, result)));
+            if (exportEnabled) {
+                exportPending(result);
+            }
+            return result.getEnrollments();
+        });
+        schedulerMetrics.rows(SchedulerMetrics.ARCHIVE, "schedules", result.getSchedules());
+        schedulerMetrics.rows(SchedulerMetrics.ARCHIVE, "submissions", result.getSubmissions());
+        schedulerMetrics.rows(SchedulerMetrics.ARCHIVE, "exported", result.getExported());
+        schedulerMetrics.rows(SchedulerMetrics.ARCHIVE, "export_failed", result.getExportFailures());
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        if (result.getBatches() > 0 || result.getExported() > 0 || result.getExportFailures() > 0) {
+            log.info("Archive run: {} enrollments ({} schedules, {} submissions) in {} batches, {} exported, "
+                    + "{} export failures in {} ms", result.getEnrollments(), result.getSchedules(),
+                    result.getSubmissions(), result.getBatches(), result.getExported(), result.getExportFailures(),
+                    result.getElapsedMillis());
+        }
+        return result;
+    }
+
+    /**
+     * A student's schedules and latest submissions in a domain. Served from
+     * the live tables, or from the archive once the enrollment was archived.
+     */
+    public StudentHistory getHistory(Long studentId, String domain) {
+        List<HistoryItem> items = jdbcTemplate.query(LIVE_HISTORY_SQL, HISTORY_ROW_MAPPER, studentId, domain);
+        boolean archived = false;
+        if (items.isEmpty()) {
+            items = jdbcTemplate.query(ARCHIVED_HISTORY_SQL, HISTORY_ROW_MAPPER, studentId, domain);
+            archived = !items.isEmpty();
+        }
+        return StudentHistory.builder()
+                .studentId(studentId)
+                .domain(domain)
+                .archived(archived)
+                .items(items)
+                .build();
+    }
+
+    private void archiveShard(int shard, LocalDateTime cutoff, ArchiveRunResult result) {
+        Instant deadline = shardCoordinator.deadline();
+        long lastStudentId = -1L;
+        String lastDomain = "";
+        List<Object[]> pairs;
+        do {
+            pairs = jdbcTemplate.query(FIND_FINISHED_SQL,
+                    (rs, rowNum) -> new Object[] { rs.getLong("student_id"), rs.getString("domain") },
+                    shardCoordinator.getShardCount(), shard, lastStudentId, lastStudentId, lastDomain,
+                    Timestamp.valueOf(cutoff), chunkSize);
+            if (pairs.isEmpty()) {
+                break;
+            }
+            List<Object[]> chunk = pairs;
+            transactionTemplate.executeWithoutResult(status -> archiveChunk(chunk, cutoff, result));
+            Object[] last = pairs.get(pairs.size() - 1);
+            lastStudentId = (Long) last[0];
+            lastDomain = (String) last[1];
+            if (pairs.size() == chunkSize && Instant.now().isAfter(deadline)) {
+                // Finished enrollments left here are archived on the next run
+                log.warn("Archive run of shard {} stopped to stay inside its lock", shard);
+                break;
+            }
+        } while (pairs.size() == chunkSize);
+    }
+
+    private void archiveChunk(List<Object[]> candidates, LocalDateTime cutoff, ArchiveRunResult result) {
+        // Lock the schedules, then drop pairs a concurrent write has reopened
+        namedParameterJdbcTemplate.queryForList(LOCK_SCHEDULES_SQL, new MapSqlParameterSource("pairs", candidates),
+                Long.class);
+        List<String> unfinished = namedParameterJdbcTemplate.query(FIND_UNFINISHED_SQL,
+                new MapSqlParameterSource("pairs", candidates).addValue("cutoff", Timestamp.valueOf(cutoff)),
+                (rs, rowNum) -> rs.getLong("student_id") + ":" + rs.getString("domain"));
+        List<Object[]> pairs = new ArrayList<>(candidates.size());
+        for (Object[] pair : candidates) {
+            if (!unfinished.contains(pair[0] + ":" + pair[1])) {
+                pairs.add(pair);
+            }
+        }
+        if (pairs.isEmpty()) {
+            return;
+        }
+
+        ArchiveBatch batch = archiveBatchRepository.save(ArchiveBatch.builder()
+                .enrollments(pairs.size())
+                .exportStatus(exportEnabled ? ArchiveBatch.ExportStatus.PENDING : ArchiveBatch.ExportStatus.DISABLED)
+                .build());
+        MapSqlParameterSource params = new MapSqlParameterSource("pairs", pairs)
+                .addValue("batchId", batch.getId())
+                .addValue("now", Timestamp.from(batch.getCreatedAt()));
+        int schedules = namedParameterJdbcTemplate.update(ARCHIVE_SCHEDULES_SQL, params);
+        int submissions = namedParameterJdbcTemplate.update(ARCHIVE_SUBMISSIONS_SQL, params);
+        // Signatures are derived data and are not archived
+        similarityIndexService.onSubmissionsDeleted(jdbcTemplate.queryForList(ARCHIVED_SUBMISSION_IDS_SQL,
+                Long.class, batch.getId()));
+        jdbcTemplate.update(DELETE_SUBMISSIONS_SQL, batch.getId());
+        jdbcTemplate.update(DELETE_SCHEDULES_SQL, batch.getId());
+
+        batch.setSchedules(schedules);
+        batch.setSubmissions(submissions);
+        archiveBatchRepository.save(batch);
+
+        result.setBatches(result.getBatches() + 1);
+        result.setEnrollments(result.getEnrollments() + pairs.size());
+        result.setSchedules(result.getSchedules() + schedules);
+        result.setSubmissions(result.getSubmissions() + submissions);
+    }
+
+    /**
+     * Exports pending batches, and retries failed ones, one file per table.
+     * A failure is recorded on the batch and leaves the rest for the next run.
+     */
+    private void exportPending(ArchiveRunResult result) {
+        List<ArchiveBatch> batches;
+        do {
+            batches = archiveBatchRepository.findByExportStatusIn(
+                    List.of(ArchiveBatch.ExportStatus.PENDING, ArchiveBatch.ExportStatus.FAILED),
+                    PageRequest.of(0, chunkSize));
+            for (ArchiveBatch batch : batches) {
+                exportBatch(batch, result);
+            }
+        } while (batches.size() == chunkSize && result.getExportFailures() == 0);
+    }
+
+    private void exportBatch(ArchiveBatch batch, ArchiveRunResult result) {
+        try {
+            String scheduleKey = exportPrefix + "task_schedule/batch-" + batch.getId() + ".csv.gz";
+            String submissionKey = exportPrefix + "submissions/batch-" + batch.getId() + ".csv.gz";
+            exportTable(EXPORT_SCHEDULES_SQL, batch.getId(), scheduleKey);
+            exportTable(EXPORT_SUBMISSIONS_SQL, batch.getId(), submissionKey);
+            batch.setScheduleObjectKey(scheduleKey);
+            batch.setSubmissionObjectKey(submissionKey);
+            batch.setExportStatus(ArchiveBatch.ExportStatus.EXPORTED);
+            batch.setExportedAt(Instant.now());
+            batch.setExportError(null);
+            result.setExported(result.getExported() + 1);
+        } catch (Exception e) {
+            String message = String.valueOf(e.getMessage());
+            batch.setExportStatus(ArchiveBatch.ExportStatus.FAILED);
+            batch.setExportError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            result.setExportFailures(result.getExportFailures() + 1);
+            log.warn("Export of archive batch {} failed: {}", batch.getId(), message);
+        }
+        archiveBatchRepository.save(batch);
+    }
+
+    /**
+     * Streams the batch's rows into a gzipped CSV file with a header line and
+     * uploads it
+     */
+    private void exportTable(String sql, Long batchId, String key) throws IOException {
+        File file = Files.createTempFile("archive-", ".csv.gz").toFile();
+        try {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(file)), StandardCharsets.UTF_8))) {
+                jdbcTemplate.query(sql, (ResultSetExtractor<Void>) rs -> {
+                    try {
+                        ResultSetMetaData meta = rs.getMetaData();
+                        int columns = meta.getColumnCount();
+                        for (int i = 1; i <= columns; i++) {
+                            writeCsvField(writer, meta.getColumnLabel(i), i == columns);
+                        }
+                        while (rs.next()) {
+                            for (int i = 1; i <= columns; i++) {
+                                Object value = rs.getObject(i);
+                                writeCsvField(writer, value != null ? value.toString() : "", i == columns);
+                            }
+                        }
+                        return null;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, batchId);
+            }
+            s3Service.putFile(key, file, "text/csv", "gzip");
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    private static void writeCsvField(Writer writer, String value, boolean last) throws IOException {
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+        writer.write(last ? "\n" : ",");
+    }
+}
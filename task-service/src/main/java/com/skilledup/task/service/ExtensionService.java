@@ -22,6 +22,7 @@ public class ExtensionService {
     private final ExtensionRequestRepository extensionRequestRepository;
     private final TaskScheduleRepository taskScheduleRepository;
     private final NotificationClient notificationClient;
+    private final StudentProgressService studentProgressService;
 
     @Transactional
     public ExtensionRequest createRequest(Long studentId, Long taskId, String reason, Integer requestedDays) {
@@ -60,9 +61,13 @@ public class ExtensionService {
             // Extend deadline
             LocalDateTime newDeadline = schedule.getDeadline().plusDays(request.getRequestedDays());
             schedule.setDeadline(newDeadline);
+            schedule.rescheduleReminder();
 
             // Reset Delayed status if effective
             if (newDeadline.isAfter(LocalDateTime.now())) {
+                if (schedule.isDelayed()) {
+                    studentProgressService.adjust(schedule.getStudentId(), schedule.getTask().getDomain(), 0, 0, -1);
+                }
                 schedule.setDelayed(false);
             }
 
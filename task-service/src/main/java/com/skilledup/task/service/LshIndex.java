@@ -0,0 +1,204 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.SimilarityMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locality-sensitive hash index over MinHash signatures. A signature is cut
+ * into bands of rows components each; two signatures become candidates when
+ * any band is identical, which for Jaccard similarity s happens with
+ * probability 1 - (1 - s^rows)^bands. A query looks up one bucket per band
+ * and compares only the candidates' signatures, instead of every signature in
+ * the index.
+ * <p>
+ * Buckets are open-addressing tables of primitive arrays with the entries of
+ * a bucket chained through a per-band next array, so an index of 50k
+ * signatures stays a few dozen MB. Removal leaves a tombstone. Not
+ * thread-safe; callers guard it.
+ */
+public class LshIndex {
+
+    private static final long REMOVED = Long.MIN_VALUE;
+
+    private final int bands;
+    private final int rows;
+    private final int numHashes;
+    private final BandTable[] tables;
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private long[] submissionIds = new long[1024];
+    private long[] studentIds = new long[1024];
+    private int[] signatures;
+    private int size;
+
+    public LshIndex(int bands, int rows) {
+        if (bands < 1 || rows < 1) {
+            throw new IllegalArgumentException("bands and rows must be positive");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.numHashes = bands * rows;
+        this.signatures = new int[submissionIds.length * numHashes];
+        this.tables = new BandTable[bands];
+        for (int band = 0; band < bands; band++) {
+            tables[band] = new BandTable();
+        }
+    }
+
+    /**
+     * Live signatures in the index
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    public boolean contains(long submissionId) {
+        return positions.containsKey(submissionId);
+    }
+
+    /**
+     * Adds a signature; replaces the submission's previous one
+     */
+    public void add(long submissionId, long studentId, int[] signature) {
+        if (signature.length != numHashes) {
+            throw new IllegalArgumentException("Expected " + numHashes + " components, got " + signature.length);
+        }
+        remove(submissionId);
+        if (size == submissionIds.length) {
+            int capacity = size * 2;
+            submissionIds = Arrays.copyOf(submissionIds, capacity);
+            studentIds = Arrays.copyOf(studentIds, capacity);
+            signatures = Arrays.copyOf(signatures, capacity * numHashes);
+        }
+        int position = size++;
+        submissionIds[position] = submissionId;
+        studentIds[position] = studentId;
+        System.arraycopy(signature, 0, signatures, position * numHashes, numHashes);
+        positions.put(submissionId, position);
+        for (int band = 0; band < bands; band++) {
+            tables[band].add(bandKey(signature, band), position);
+        }
+    }
+
+    public void remove(long submissionId) {
+        Integer position = positions.remove(submissionId);
+        if (position != null) {
+            submissionIds[position] = REMOVED;
+        }
+    }
+
+    /**
+     * Signatures estimated at least threshold similar, most similar first.
+     * Submissions of excludeStudentId are skipped.
+     */
+    public List<SimilarityMatch> query(int[] signature, double threshold, long excludeStudentId, int limit) {
+        Set<Integer> seen = new HashSet<>();
+        List<SimilarityMatch> matches = new ArrayList<>();
+        for (int band = 0; band < bands; band++) {
+            BandTable table = tables[band];
+            for (int p = table.head(bandKey(signature, band)); p >= 0; p = table.next[p]) {
+                if (!seen.add(p) || submissionIds[p] == REMOVED || studentIds[p] == excludeStudentId) {
+                    continue;
+                }
+                double similarity = similarity(signature, p);
+                if (similarity >= threshold) {
+                    matches.add(SimilarityMatch.builder()
+                            .submissionId(submissionIds[p])
+                            .studentId(studentIds[p])
+                            .similarity(similarity)
+                            .build());
+                }
+            }
+        }
+        matches.sort(Comparator.comparingDouble(SimilarityMatch::getSimilarity).reversed());
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private double similarity(int[] signature, int position) {
+        int offset = position * numHashes;
+        int equal = 0;
+        for (int i = 0; i < numHashes; i++) {
+            if (signature[i] == signatures[offset + i]) {
+                equal++;
+            }
+        }
+        return (double) equal / numHashes;
+    }
+
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            key = MinHasher.mix(key * 31 + signature[i]);
+        }
+        return key;
+    }
+
+    /**
+     * Band key to the most recently added position in its bucket; older
+     * entries follow through next
+     */
+    private static final class BandTable {
+
+        private long[] keys = new long[2048];
+        private int[] heads = filled(2048);
+        private int[] next = new int[1024];
+        private int used;
+
+        void add(long key, int position) {
+            if (position >= next.length) {
+                next = Arrays.copyOf(next, Math.max(next.length * 2, position + 1));
+            }
+            int slot = slot(key);
+            if (heads[slot] < 0) {
+                keys[slot] = key;
+                used++;
+            }
+            next[position] = heads[slot];
+            heads[slot] = position;
+            if (used * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        int head(long key) {
+            return heads[slot(key)];
+        }
+
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) MinHasher.mix(key) & mask;
+            while (heads[slot] >= 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldHeads = heads;
+            keys = new long[oldKeys.length * 2];
+            heads = filled(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldHeads[i] >= 0) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    heads[slot] = oldHeads[i];
+                }
+            }
+        }
+
+        private static int[] filled(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+}
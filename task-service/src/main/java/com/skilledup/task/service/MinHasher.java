@@ -0,0 +1,112 @@
+package com.skilledup.task.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures over word shingles. Text is split into lower-cased runs
+ * of letters and digits, every window of shingleSize consecutive words is
+ * hashed to 64 bits, and component i of the signature is the minimum of the
+ * i-th seeded hash over all shingles. The share of equal components between
+ * two signatures estimates the Jaccard similarity of their shingle sets.
+ * Immutable and thread-safe.
+ */
+public class MinHasher {
+
+    private final int numHashes;
+    private final int shingleSize;
+    private final long[] seeds;
+
+    public MinHasher(int numHashes, int shingleSize, long seed) {
+        if (numHashes < 1 || shingleSize < 1) {
+            throw new IllegalArgumentException("numHashes and shingleSize must be positive");
+        }
+        this.numHashes = numHashes;
+        this.shingleSize = shingleSize;
+        SplittableRandom random = new SplittableRandom(seed);
+        this.seeds = new long[numHashes];
+        for (int i = 0; i < numHashes; i++) {
+            seeds[i] = random.nextLong();
+        }
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Signature of the text, or null if it has fewer than shingleSize words
+     */
+    public int[] sign(CharSequence text) {
+        long[] minimums = new long[numHashes];
+        Arrays.fill(minimums, Long.MAX_VALUE);
+
+        // Ring buffer of the last shingleSize word hashes
+        long[] window = new long[shingleSize];
+        int words = 0;
+        long wordHash = FNV_OFFSET;
+        boolean inWord = false;
+        int length = text.length();
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                wordHash = (wordHash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+                continue;
+            }
+            if (!inWord) {
+                continue;
+            }
+            window[words % shingleSize] = wordHash;
+            words++;
+            wordHash = FNV_OFFSET;
+            inWord = false;
+
+            if (words >= shingleSize) {
+                long shingle = 0;
+                for (int k = words - shingleSize; k < words; k++) {
+                    shingle = shingle * 31 + window[k % shingleSize];
+                }
+                for (int h = 0; h < numHashes; h++) {
+                    long value = mix(shingle ^ seeds[h]) >>> 32;
+                    if (value < minimums[h]) {
+                        minimums[h] = value;
+                    }
+                }
+            }
+        }
+
+        if (words < shingleSize) {
+            return null;
+        }
+        int[] signature = new int[numHashes];
+        for (int h = 0; h < numHashes; h++) {
+            signature[h] = (int) minimums[h];
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity: the share of equal components
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // SplitMix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,141 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.MyTaskItem;
+import com.skilledup.task.dto.MyTaskView;
+import com.skilledup.task.repository.TaskScheduleRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Student dashboard read model. The rows come from one projection join and
+ * the ETag is a digest of exactly those rows, so it is the same on every
+ * instance and changes whenever anything shown changes. Presigned URLs are
+ * valid for an hour; the current half-hour window is part of the ETag so a
+ * cached dashboard never holds links that are about to expire.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MyTasksService {
+
+    private static final long SIGNING_WINDOW_MILLIS = 30 * 60 * 1000L;
+
+    private final TaskScheduleRepository taskScheduleRepository;
+    private final S3Service s3Service;
+
+    @Value("${cloud.aws.s3.bucket}")
+    private String bucketName;
+
+    public Snapshot load(Long studentId) {
+        List<MyTaskView> rows = taskScheduleRepository.findMyTasks(studentId);
+        return new Snapshot(rows, etag(rows));
+    }
+
+    /**
+     * Builds the response body, presigning the task files
+     */
+    public List<MyTaskItem> render(Snapshot snapshot) {
+        return snapshot.getRows().stream()
+                .map(this::toItem)
+                .collect(Collectors.toList());
+    }
+
+    private MyTaskItem toItem(MyTaskView row) {
+        return MyTaskItem.builder()
+                .id(row.getScheduleId())
+                .studentId(row.getStudentId())
+                .unlockDate(row.getUnlockDate())
+                .deadline(row.getDeadline())
+                .unlocked(Boolean.TRUE.equals(row.getUnlocked()))
+                .submitted(Boolean.TRUE.equals(row.getSubmitted()))
+                .delayed(Boolean.TRUE.equals(row.getDelayed()))
+                .lastReminderSentAt(row.getLastReminderSentAt())
+                .nextReminderAt(row.getNextReminderAt())
+                .task(MyTaskItem.TaskSummary.builder()
+                        .id(row.getTaskId())
+                        .domain(row.getDomain())
+                        .weekNo(row.getWeekNo())
+                        .title(row.getTitle())
+                        .description(row.getDescription())
+                        .taskFileUrl(signIfS3Url(row.getTaskFileUrl()))
+                        .videoUrl(signIfS3Url(row.getVideoUrl()))
+                        .urlFileUrl(signIfS3Url(row.getUrlFileUrl()))
+                        .startDate(row.getTaskStartDate())
+                        .deadline(row.getTaskDeadline())
+                        .manual(Boolean.TRUE.equals(row.getManual()))
+                        .autoReview(Boolean.TRUE.equals(row.getAutoReview()))
+                        .active(Boolean.TRUE.equals(row.getActive()))
+                        .customPrerequisites(Boolean.TRUE.equals(row.getCustomPrerequisites()))
+                        .createdAt(row.getTaskCreatedAt())
+                        .build())
+                .build();
+    }
+
+    private String etag(List<MyTaskView> rows) {
+        StringBuilder content = new StringBuilder()
+                .append(System.currentTimeMillis() / SIGNING_WINDOW_MILLIS);
+        for (MyTaskView row : rows) {
+            content.append('\n')
+                    .append(row.getScheduleId()).append('|')
+                    .append(row.getUnlockDate()).append('|')
+                    .append(row.getDeadline()).append('|')
+                    .append(row.getUnlocked()).append('|')
+                    .append(row.getSubmitted()).append('|')
+                    .append(row.getDelayed()).append('|')
+                    .append(row.getLastReminderSentAt()).append('|')
+                    .append(row.getNextReminderAt()).append('|')
+                    .append(row.getTaskId()).append('|')
+                    .append(row.getDomain()).append('|')
+                    .append(row.getWeekNo()).append('|')
+                    .append(row.getTitle()).append('|')
+                    .append(row.getDescription()).append('|')
+                    .append(row.getTaskFileUrl()).append('|')
+                    .append(row.getVideoUrl()).append('|')
+                    .append(row.getUrlFileUrl()).append('|')
+                    .append(row.getTaskStartDate()).append('|')
+                    .append(row.getTaskDeadline()).append('|')
+                    .append(row.getManual()).append('|')
+                    .append(row.getAutoReview()).append('|')
+                    .append(row.getActive()).append('|')
+                    .append(row.getCustomPrerequisites()).append('|')
+                    .append(row.getTaskCreatedAt());
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            // Weak: the signed URLs in the body differ between responses
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String signIfS3Url(String url) {
+        if (url == null || url.isEmpty() || !url.contains(bucketName)) {
+            return url;
+        }
+        try {
+            return s3Service.generateSignedUrl(url);
+        } catch (Exception e) {
+            log.error("Error signing URL: {}", url, e);
+            return url;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final List<MyTaskView> rows;
+        private final String etag;
+    }
+}
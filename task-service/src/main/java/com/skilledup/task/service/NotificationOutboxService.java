@@ -0,0 +1,85 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.model.NotificationOutbox;
+import com.skilledup.task.model.TaskSchedule;
+import com.skilledup.task.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes student emails to the notification_outbox table. Must be called
+ * inside the transaction that changes the schedules, so an email is queued if
+ * and only if the change commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    private static final String INSERT_SQL = "INSERT INTO notification_outbox "
+            + "(type, student_id, schedule_id, task_title, deadline, status, attempts, next_attempt_at, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private static final String INSERT_SELECT_SQL = "INSERT INTO notification_outbox "
+            + "(type, student_id, schedule_id, task_title, deadline, status, attempts, next_attempt_at, created_at) "
+            + "SELECT :type, ts.student_id, ts.id, t.title, ts.deadline, 'PENDING', 0, :now, :now "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id WHERE ts.id IN (:ids)";
+
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(NotificationOutbox.NotificationType type, List<TaskSchedule> schedules) {
+        if (schedules.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, schedules, schedules.size(), (ps, schedule) -> {
+            ps.setString(1, type.name());
+            ps.setLong(2, schedule.getStudentId());
+            ps.setLong(3, schedule.getId());
+            ps.setString(4, schedule.getTask().getTitle());
+            ps.setTimestamp(5, schedule.getDeadline() != null ? Timestamp.valueOf(schedule.getDeadline()) : null);
+            ps.setTimestamp(6, now);
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    /**
+     * Set-based variant for rows changed by bulk UPDATE: copies the schedule and
+     * task details straight from the database with INSERT ... SELECT.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueForSchedules(NotificationOutbox.NotificationType type, Collection<Long> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        namedParameterJdbcTemplate.update(INSERT_SELECT_SQL, new MapSqlParameterSource()
+                .addValue("type", type.name())
+                .addValue("now", now)
+                .addValue("ids", scheduleIds));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (NotificationOutbox.OutboxStatus status : NotificationOutbox.OutboxStatus.values()) {
+            stats.put(status.name().toLowerCase(), notificationOutboxRepository.countByStatus(status));
+        }
+        notificationOutboxRepository.findFirstByStatusOrderByIdAsc(NotificationOutbox.OutboxStatus.PENDING)
+                .ifPresent(oldest -> stats.put("oldestPendingCreatedAt", oldest.getCreatedAt()));
+        return stats;
+    }
+}
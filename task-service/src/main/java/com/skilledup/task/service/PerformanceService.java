@@ -1,48 +1,205 @@
 package com.skilledup.task.service;
 
-import com.skilledup.task.model.Submission;
-import com.skilledup.task.repository.SubmissionRepository;
+import com.skilledup.task.dto.StudentPerformanceDTO;
+import com.skilledup.task.model.StudentScoreAggregate;
+import com.skilledup.task.repository.StudentScoreAggregateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class PerformanceService {
 
-    private final SubmissionRepository submissionRepository;
+    private static final double RECOMMENDATION_THRESHOLD = 95.0;
 
-    public Double calculateStudentPerformance(Long studentId) {
-        List<Submission> submissions = submissionRepository.findByStudentId(studentId);
+    private static final String UPSERT_DELTA_SQL = "INSERT INTO student_score_aggregates "
+            + "(student_id, domain, score_sum, graded_count, updated_at) "
+            + "VALUES (?, ?, GREATEST(?, 0), GREATEST(?, 0), NOW()) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "score_sum = GREATEST(score_sum + ?, 0), "
+            + "graded_count = GREATEST(graded_count + ?, 0), "
+            + "updated_at = NOW()";
 
-        if (submissions.isEmpty()) {
-            return 0.0;
-        }
+    private static final String REBUILD_SQL = "INSERT INTO student_score_aggregates "
+            + "(student_id, domain, score_sum, graded_count, updated_at) "
+            + "SELECT s.student_id, t.domain, SUM(s.score), COUNT(s.score), NOW() "
+            + "FROM submissions s JOIN tasks t ON t.id = s.task_id "
+            + "WHERE s.score IS NOT NULL "
+            + "GROUP BY s.student_id, t.domain";
 
-        long gradedCount = submissions.stream()
-                .filter(s -> s.getScore() != null)
-                .count();
+    // Archived enrollments keep counting; their submissions moved out of the
+    // submissions table whole, so the two sources never overlap
+    private static final String REBUILD_ARCHIVED_SQL = "INSERT INTO student_score_aggregates "
+            + "(student_id, domain, score_sum, graded_count, updated_at) "
+            + "SELECT student_id, domain, SUM(score), COUNT(score), NOW() "
+            + "FROM submissions_archive WHERE score IS NOT NULL "
+            + "GROUP BY student_id, domain "
+            + "ON DUPLICATE KEY UPDATE "
+            + "score_sum = score_sum + VALUES(score_sum), "
+            + "graded_count = graded_count + VALUES(graded_count), "
+            + "updated_at = NOW()";
 
-        if (gradedCount == 0) {
-            return 0.0;
-        }
+    private static final String REMOVE_TASK_SQL = "UPDATE student_score_aggregates a "
+            + "JOIN (SELECT student_id, SUM(score) AS total, COUNT(score) AS graded "
+            + "FROM submissions WHERE task_id = ? AND score IS NOT NULL GROUP BY student_id) x "
+            + "ON x.student_id = a.student_id "
+            + "SET a.score_sum = GREATEST(a.score_sum - x.total, 0), "
+            + "a.graded_count = GREATEST(a.graded_count - x.graded, 0), "
+            + "a.updated_at = NOW() "
+            + "WHERE a.domain = ?";
+
+    private static final String ADD_TASK_SQL = "INSERT INTO student_score_aggregates "
+            + "(student_id, domain, score_sum, graded_count, updated_at) "
+            + "SELECT student_id, ?, SUM(score), COUNT(score), NOW() "
+            + "FROM submissions WHERE task_id = ? AND score IS NOT NULL GROUP BY student_id "
+            + "ON DUPLICATE KEY UPDATE "
+            + "score_sum = score_sum + VALUES(score_sum), "
+            + "graded_count = graded_count + VALUES(graded_count), "
+            + "updated_at = NOW()";
 
-        double totalScore = submissions.stream()
-                .map(Submission::getScore)
-                .filter(Objects::nonNull)
-                .mapToInt(Integer::intValue)
-                .sum();
+    private final StudentScoreAggregateRepository studentScoreAggregateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
-        return totalScore / gradedCount;
+    public Double calculateStudentPerformance(Long studentId) {
+        return average(studentScoreAggregateRepository.findByStudentId(studentId));
+    }
+
+    public Double calculateStudentPerformance(Long studentId, String domain) {
+        return studentScoreAggregateRepository.findById(new StudentScoreAggregate.Key(studentId, domain))
+                .map(aggregate -> average(List.of(aggregate)))
+                .orElse(0.0);
     }
 
     public boolean isEligibleForRecommendation(Long studentId) {
         Double performance = calculateStudentPerformance(studentId);
         log.info("Performance for student {}: {}%", studentId, performance);
-        return performance >= 95.0;
+        return performance >= RECOMMENDATION_THRESHOLD;
+    }
+
+    /**
+     * Performance for many students with one query, in request order.
+     */
+    public List<StudentPerformanceDTO> getBulkPerformance(Collection<Long> studentIds) {
+        Map<Long, List<StudentScoreAggregate>> byStudent = studentScoreAggregateRepository
+                .findByStudentIdIn(studentIds).stream()
+                .collect(Collectors.groupingBy(StudentScoreAggregate::getStudentId));
+
+        return new LinkedHashSet<>(studentIds).stream()
+                .map(studentId -> {
+                    List<StudentScoreAggregate> aggregates = byStudent.getOrDefault(studentId, List.of());
+                    double average = average(aggregates);
+                    return StudentPerformanceDTO.builder()
+                            .studentId(studentId)
+                            .averageScore(average)
+                            .gradedCount(aggregates.stream().mapToInt(StudentScoreAggregate::getGradedCount).sum())
+                            .eligibleForRecommendation(average >= RECOMMENDATION_THRESHOLD)
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies a score change of one submission to the running aggregates. A
+     * null score means ungraded; pass the previous and the new value.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordScoreChange(Long studentId, String domain, Integer oldScore, Integer newScore) {
+        long sumDelta = (newScore != null ? newScore : 0) - (oldScore != null ? oldScore : 0);
+        int countDelta = (newScore != null ? 1 : 0) - (oldScore != null ? 1 : 0);
+        if (sumDelta == 0 && countDelta == 0) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT_DELTA_SQL, studentId, domain, sumDelta, countDelta, sumDelta, countDelta);
+    }
+
+    /**
+     * Batch variant of recordScoreChange: deltas are summed per student and
+     * domain and applied as one JDBC batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordScoreChanges(Collection<ScoreChange> changes) {
+        Map<StudentScoreAggregate.Key, long[]> deltas = new HashMap<>();
+        for (ScoreChange change : changes) {
+            long[] delta = deltas.computeIfAbsent(
+                    new StudentScoreAggregate.Key(change.getStudentId(), change.getDomain()), key -> new long[2]);
+            delta[0] += (change.getNewScore() != null ? change.getNewScore() : 0)
+                    - (change.getOldScore() != null ? change.getOldScore() : 0);
+            delta[1] += (change.getNewScore() != null ? 1 : 0) - (change.getOldScore() != null ? 1 : 0);
+        }
+
+        List<Object[]> args = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                args.add(new Object[] { key.getStudentId(), key.getDomain(), delta[0], delta[1], delta[0], delta[1] });
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_DELTA_SQL, args);
+        }
+    }
+
+    /**
+     * Moves a task's graded submissions between domain aggregates after the task
+     * changed domain.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTaskMoved(Long taskId, String oldDomain, String newDomain) {
+        jdbcTemplate.update(REMOVE_TASK_SQL, taskId, oldDomain);
+        jdbcTemplate.update(ADD_TASK_SQL, newDomain, taskId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (studentScoreAggregateRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    /**
+     * Recomputes all aggregates from the submissions and archive tables.
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM student_score_aggregates");
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        rows += jdbcTemplate.update(REBUILD_ARCHIVED_SQL);
+        log.info("Rebuilt student_score_aggregates: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private double average(List<StudentScoreAggregate> aggregates) {
+        long sum = 0;
+        long count = 0;
+        for (StudentScoreAggregate aggregate : aggregates) {
+            sum += aggregate.getScoreSum();
+            count += aggregate.getGradedCount();
+        }
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    @lombok.Value
+    public static class ScoreChange {
+        Long studentId;
+        String domain;
+        Integer oldScore;
+        Integer newScore;
     }
 }
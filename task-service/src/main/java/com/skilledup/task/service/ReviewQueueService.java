@@ -0,0 +1,121 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.ReviewQueueItem;
+import com.skilledup.task.dto.ReviewQueueItemView;
+import com.skilledup.task.dto.ReviewQueuePage;
+import com.skilledup.task.model.Submission;
+import com.skilledup.task.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Pending submissions for reviewers, oldest first. Pages are read with a
+ * keyset projection query, so the cost of a page does not depend on how many
+ * submissions are waiting, and only the files on the returned page are
+ * presigned.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewQueueService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final SubmissionRepository submissionRepository;
+    private final S3Service s3Service;
+
+    @Value("${cloud.aws.s3.bucket}")
+    private String bucketName;
+
+    public ReviewQueuePage getPage(String domain, Integer weekNo, Instant submittedBefore, String cursor,
+            int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        Instant afterAt = Instant.EPOCH;
+        long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            afterAt = Instant.parse(parts[0]);
+            afterId = Long.parseLong(parts[1]);
+        }
+
+        // One extra row tells whether another page follows
+        List<ReviewQueueItemView> rows = submissionRepository.findReviewQueue(
+                Submission.SubmissionStatus.PENDING, blankToNull(domain), weekNo, submittedBefore,
+                afterAt, afterId, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ReviewQueueItemView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<ReviewQueueItem> items = page.stream()
+                .map(this::toItem)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            ReviewQueueItemView last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getSubmittedAt(), last.getId());
+        }
+
+        return ReviewQueuePage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private ReviewQueueItem toItem(ReviewQueueItemView view) {
+        return ReviewQueueItem.builder()
+                .id(view.getId())
+                .studentId(view.getStudentId())
+                .taskId(view.getTaskId())
+                .taskTitle(view.getTaskTitle())
+                .domain(view.getDomain())
+                .weekNo(view.getWeekNo())
+                .submissionFileUrl(signIfS3Url(view.getSubmissionFileUrl()))
+                .submittedAt(view.getSubmittedAt())
+                .build();
+    }
+
+    private String signIfS3Url(String url) {
+        if (url == null || url.isEmpty() || !url.contains(bucketName)) {
+            return url;
+        }
+        try {
+            return s3Service.generateSignedUrl(url);
+        } catch (Exception e) {
+            log.error("Error signing URL: {}", url, e);
+            return url;
+        }
+    }
+
+    static String encodeCursor(Instant submittedAt, Long id) {
+        String raw = submittedAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(raw);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,26 +1,59 @@
 package com.skilledup.task.service;
 
+import com.amazonaws.HttpMethod;
 import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSSessionCredentials;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skilledup.task.dto.UrlIngestResult;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.annotation.PostConstruct;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
+@Slf4j
 public class S3Service {
 
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
     @Value("${cloud.aws.credentials.access-key}")
     private String accessKey;
 
@@ -33,6 +66,23 @@ public class S3Service {
     @Value("${cloud.aws.s3.bucket}")
     private String bucketName;
 
+    @Value("${cloud.aws.s3.ingest.part-size:8MB}")
+    private DataSize ingestPartSize;
+
+    @Value("${cloud.aws.s3.ingest.max-size:2GB}")
+    private DataSize ingestMaxSize;
+
+    @Value("${cloud.aws.s3.ingest.connect-timeout:PT10S}")
+    private Duration ingestConnectTimeout;
+
+    @Value("${cloud.aws.s3.ingest.read-timeout:PT30S}")
+    private Duration ingestReadTimeout;
+
+    @Value("${cloud.aws.s3.ingest.timeout:PT15M}")
+    private Duration ingestTimeout;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private AmazonS3 s3Client;
 
     @PostConstruct
@@ -72,56 +122,136 @@ public class S3Service {
     }
 
     public String uploadFromUrl(String urlString) {
+        return ingestFromUrl(urlString).getUrl();
+    }
+
+    /**
+     * Streams a remote file into S3 without holding it in memory. The body is
+     * read into one fixed part-size buffer that is reused for every multipart
+     * part; a body that fits in the first buffer goes up as a single PUT. The
+     * copy is aborted once it passes the maximum size or the overall timeout.
+     */
+    public UrlIngestResult ingestFromUrl(String urlString) {
+        long start = System.currentTimeMillis();
+        long deadline = start + ingestTimeout.toMillis();
+        long maxBytes = ingestMaxSize.toBytes();
+        // S3 rejects non-final parts under 5 MB
+        int partSize = (int) Math.max(ingestPartSize.toBytes(), MIN_PART_SIZE);
+
         try {
             URL url = new URL(urlString);
             URLConnection connection = url.openConnection();
             connection.setRequestProperty("User-Agent", "Mozilla/5.0");
+            connection.setConnectTimeout((int) ingestConnectTimeout.toMillis());
+            connection.setReadTimeout((int) ingestReadTimeout.toMillis());
             connection.connect();
 
+            long contentLength = connection.getContentLengthLong();
+            if (contentLength > maxBytes) {
+                throw new RuntimeException("Remote file is " + contentLength + " bytes, limit is " + maxBytes);
+            }
+
             String fileName = generateFileNameFromUrl(urlString);
+            String contentType = connection.getContentType() != null ? connection.getContentType()
+                    : "application/octet-stream";
 
             try (InputStream inputStream = connection.getInputStream()) {
-                ObjectMetadata metadata = new ObjectMetadata();
-
-                // Get content length
-                long contentLength = connection.getContentLengthLong();
-                if (contentLength > 0) {
-                    metadata.setContentLength(contentLength);
-                } else {
-                    // If content length is unknown, read into byte array first
-                    byte[] bytes = inputStream.readAllBytes();
-                    metadata.setContentLength(bytes.length);
-
-                    String contentType = connection.getContentType();
-                    if (contentType != null) {
-                        metadata.setContentType(contentType);
-                    } else {
-                        metadata.setContentType("application/octet-stream");
-                    }
-
-                    PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, fileName,
-                            new java.io.ByteArrayInputStream(bytes), metadata);
-                    s3Client.putObject(putObjectRequest);
-                    return s3Client.getUrl(bucketName, fileName).toString();
+                byte[] buffer = new byte[partSize];
+                int filled = fill(inputStream, buffer, deadline);
+                if (filled > maxBytes) {
+                    throw new RuntimeException("Remote file exceeds the limit of " + maxBytes + " bytes");
                 }
 
-                String contentType = connection.getContentType();
-                if (contentType != null) {
+                if (filled < partSize) {
+                    // Whole body fits in one buffer
+                    ObjectMetadata metadata = new ObjectMetadata();
+                    metadata.setContentLength(filled);
                     metadata.setContentType(contentType);
-                } else {
-                    metadata.setContentType("application/octet-stream");
+                    s3Client.putObject(new PutObjectRequest(bucketName, fileName,
+                            new ByteArrayInputStream(buffer, 0, filled), metadata));
+                    return ingestResult(fileName, filled, 0, start);
                 }
 
-                PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, fileName, inputStream, metadata);
-                s3Client.putObject(putObjectRequest);
+                ObjectMetadata metadata = new ObjectMetadata();
+                metadata.setContentType(contentType);
+                String uploadId = s3Client.initiateMultipartUpload(
+                        new InitiateMultipartUploadRequest(bucketName, fileName, metadata)).getUploadId();
+
+                try {
+                    List<PartETag> partETags = new ArrayList<>();
+                    long total = 0;
+                    while (filled > 0) {
+                        total += filled;
+                        if (total > maxBytes) {
+                            throw new RuntimeException("Remote file exceeds the limit of " + maxBytes + " bytes");
+                        }
+                        int partNumber = partETags.size() + 1;
+                        // Read ahead one byte so the final part can be flagged as such
+                        int next = filled == partSize ? inputStream.read() : -1;
+                        partETags.add(s3Client.uploadPart(new UploadPartRequest()
+                                .withBucketName(bucketName)
+                                .withKey(fileName)
+                                .withUploadId(uploadId)
+                                .withPartNumber(partNumber)
+                                .withInputStream(new ByteArrayInputStream(buffer, 0, filled))
+                                .withPartSize(filled)
+                                .withLastPart(next < 0))
+                                .getPartETag());
+
+                        if (next < 0) {
+                            break;
+                        }
+                        buffer[0] = (byte) next;
+                        filled = 1 + fill(inputStream, buffer, 1, deadline);
+                    }
 
-                return s3Client.getUrl(bucketName, fileName).toString();
+                    s3Client.completeMultipartUpload(
+                            new CompleteMultipartUploadRequest(bucketName, fileName, uploadId, partETags));
+                    return ingestResult(fileName, total, partETags.size(), start);
+                } catch (Exception e) {
+                    s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, fileName, uploadId));
+                    throw e;
+                }
             }
         } catch (Exception e) {
             throw new RuntimeException("Error while uploading file from URL to S3: " + e.getMessage(), e);
         }
     }
 
+    private int fill(InputStream inputStream, byte[] buffer, long deadline) throws IOException {
+        return fill(inputStream, buffer, 0, deadline);
+    }
+
+    // Reads until the buffer is full or the stream ends; returns the bytes read
+    private int fill(InputStream inputStream, byte[] buffer, int offset, long deadline) throws IOException {
+        int position = offset;
+        while (position < buffer.length) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("Timed out after " + ingestTimeout.toSeconds() + "s while reading remote file");
+            }
+            int read = inputStream.read(buffer, position, buffer.length - position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        return position - offset;
+    }
+
+    private UrlIngestResult ingestResult(String fileName, long bytes, int parts, long start) {
+        long elapsedMillis = Math.max(System.currentTimeMillis() - start, 1);
+        UrlIngestResult result = UrlIngestResult.builder()
+                .url(s3Client.getUrl(bucketName, fileName).toString())
+                .bytes(bytes)
+                .parts(parts)
+                .elapsedMillis(elapsedMillis)
+                .bytesPerSecond(bytes * 1000 / elapsedMillis)
+                .build();
+        log.info("Ingested {} bytes into {} ({} parts) in {} ms, {} KB/s", bytes, fileName, parts,
+                elapsedMillis, result.getBytesPerSecond() / 1024);
+        return result;
+    }
+
     private String generateFileNameFromUrl(String urlString) {
         String fileName = urlString.substring(urlString.lastIndexOf('/') + 1);
         if (fileName.contains("?")) {
@@ -133,6 +263,128 @@ public class S3Service {
         return UUID.randomUUID().toString() + "_" + fileName.replace(" ", "_");
     }
 
+    /**
+     * Presigned PUT for one object. The content type is part of the signature;
+     * S3 cannot bound the size of a presigned PUT, so callers check the stored
+     * size afterwards.
+     */
+    public String presignPut(String key, String contentType, Date expiration) {
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest(bucketName, key)
+                .withMethod(HttpMethod.PUT)
+                .withContentType(contentType)
+                .withExpiration(expiration);
+        return s3Client.generatePresignedUrl(request).toString();
+    }
+
+    /**
+     * Browser POST form for one object, signed with SigV4. The policy pins the
+     * key and content type and has S3 reject bodies outside 1..maxBytes.
+     */
+    public Map<String, String> presignPost(String key, String contentType, long maxBytes, Date expiration) {
+        AWSCredentials credentials = resolveCredentials();
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String date = now.format(DateTimeFormatter.ofPattern("yyyyMMdd"));
+        String amzDate = now.format(DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'"));
+        String credential = credentials.getAWSAccessKeyId() + "/" + date + "/" + region + "/s3/aws4_request";
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("key", key);
+        fields.put("Content-Type", contentType);
+        fields.put("x-amz-algorithm", "AWS4-HMAC-SHA256");
+        fields.put("x-amz-credential", credential);
+        fields.put("x-amz-date", amzDate);
+        if (credentials instanceof AWSSessionCredentials) {
+            fields.put("x-amz-security-token", ((AWSSessionCredentials) credentials).getSessionToken());
+        }
+
+        List<Object> conditions = new ArrayList<>();
+        conditions.add(Map.of("bucket", bucketName));
+        fields.forEach((name, value) -> conditions.add(Map.of(name, value)));
+        conditions.add(List.of("content-length-range", 1, maxBytes));
+
+        Map<String, Object> policy = new LinkedHashMap<>();
+        policy.put("expiration", expiration.toInstant().truncatedTo(ChronoUnit.SECONDS).toString());
+        policy.put("conditions", conditions);
+
+        try {
+            String encodedPolicy = Base64.getEncoder().encodeToString(
+                    objectMapper.writeValueAsBytes(policy));
+            byte[] signingKey = hmacSha256(("AWS4" + credentials.getAWSSecretKey()).getBytes(StandardCharsets.UTF_8),
+                    date);
+            signingKey = hmacSha256(signingKey, region);
+            signingKey = hmacSha256(signingKey, "s3");
+            signingKey = hmacSha256(signingKey, "aws4_request");
+
+            fields.put("policy", encodedPolicy);
+            fields.put("x-amz-signature", HexFormat.of().formatHex(hmacSha256(signingKey, encodedPolicy)));
+            return fields;
+        } catch (Exception e) {
+            throw new RuntimeException("Error signing upload policy: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Form action for presignPost (path-style, like the client)
+     */
+    public String getPostUrl() {
+        return "https://s3." + region + ".amazonaws.com/" + bucketName;
+    }
+
+    /**
+     * Metadata of a stored object, or null if it does not exist
+     */
+    public ObjectMetadata findObjectMetadata(String key) {
+        try {
+            return s3Client.getObjectMetadata(bucketName, key);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Uploads a local file under the given key
+     */
+    public void putFile(String key, java.io.File file, String contentType, String contentEncoding) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(file.length());
+        metadata.setContentType(contentType);
+        if (contentEncoding != null) {
+            metadata.setContentEncoding(contentEncoding);
+        }
+        s3Client.putObject(new PutObjectRequest(bucketName, key, file).withMetadata(metadata));
+    }
+
+    /**
+     * Opens a stored file by its URL; the caller closes the stream
+     */
+    public InputStream openFile(String fileUrl) {
+        return s3Client.getObject(bucketName, extractFileNameFromUrl(fileUrl)).getObjectContent();
+    }
+
+    public String getObjectUrl(String key) {
+        return s3Client.getUrl(bucketName, key).toString();
+    }
+
+    public void deleteObject(String key) {
+        s3Client.deleteObject(bucketName, key);
+    }
+
+    private AWSCredentials resolveCredentials() {
+        if (accessKey != null && !accessKey.isBlank() && secretKey != null && !secretKey.isBlank()) {
+            return new BasicAWSCredentials(accessKey, secretKey);
+        }
+        return DefaultAWSCredentialsProviderChain.getInstance().getCredentials();
+    }
+
+    private static byte[] hmacSha256(byte[] key, String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
     public String generateSignedUrl(String fileUrl) {
         try {
             // Extract filename from S3 URL
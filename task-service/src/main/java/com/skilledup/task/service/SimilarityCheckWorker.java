@@ -0,0 +1,41 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.SimilarityReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks new submissions for near-duplicates off the request thread, right
+ * after they commit, instead of waiting for the signing poller. Signing reads
+ * the submission's file, so a failure is only logged; the poller and the
+ * lookup endpoint retry it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarityCheckWorker {
+
+    private final SimilarityIndexService similarityIndexService;
+
+    @Async
+    public void check(List<Long> submissionIds) {
+        for (Long submissionId : submissionIds) {
+            try {
+                SimilarityReport report = similarityIndexService.findSimilar(submissionId);
+                if (!report.getMatches().isEmpty()) {
+                    log.warn("Submission {} of task {} is similar to submissions {}", submissionId,
+                            report.getTaskId(), report.getMatches().stream()
+                                    .map(match -> match.getSubmissionId() + " (" + match.getSimilarity() + ")")
+                                    .collect(Collectors.toList()));
+                }
+            } catch (Exception e) {
+                log.warn("Similarity check of submission {} failed: {}", submissionId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.SimilarityMatch;
+import com.skilledup.task.dto.SimilarityReport;
+import com.skilledup.task.model.Submission;
+import com.skilledup.task.model.SubmissionSignature;
+import com.skilledup.task.repository.SubmissionRepository;
+import com.skilledup.task.repository.SubmissionSignatureRepository;
+import com.skilledup.task.scheduler.SchedulerMetrics;
+import com.skilledup.task.scheduler.ShardCoordinator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Near-duplicate detection across the submissions of a task. A poller reads
+ * each new submission's file, extracts its text and stores a MinHash
+ * signature in submission_signatures. Per task, an in-memory {@link LshIndex}
+ * is loaded from those rows on first use and then caught up incrementally
+ * with the rows added since (re-checking a window below the last row seen for
+ * signatures that committed late), so a lookup touches only the LSH
+ * candidates rather than every submission of the task. Indexes of the most
+ * recently used tasks are cached up to a total number of signatures; the
+ * table is the source of truth on every instance. New submissions are also
+ * checked right after they commit (see {@link SimilarityCheckWorker}).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarityIndexService {
+
+    // Fixed so signatures stay comparable across restarts and instances
+    private static final long MINHASH_SEED = 0x5EEDL;
+
+    private static final int LOAD_PAGE_SIZE = 5000;
+
+    // Submissions without a signature, from a starting ID
+    private static final String FIND_UNSIGNED_SQL = "SELECT s.id, s.student_id, s.task_id, s.submission_file_url "
+            + "FROM submissions s LEFT JOIN submission_signatures g ON g.submission_id = s.id "
+            + "WHERE s.id > ? AND g.id IS NULL ORDER BY s.id LIMIT ?";
+
+    private final SubmissionSignatureRepository submissionSignatureRepository;
+    private final SubmissionRepository submissionRepository;
+    private final SubmissionTextExtractor submissionTextExtractor;
+    private final S3Service s3Service;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardCoordinator shardCoordinator;
+    private final SchedulerMetrics schedulerMetrics;
+    private final ObjectProvider<SimilarityCheckWorker> similarityCheckWorker;
+
+    @Value("${task.similarity.bands:16}")
+    private int bands;
+
+    @Value("${task.similarity.rows:8}")
+    private int rows;
+
+    @Value("${task.similarity.shingle-size:5}")
+    private int shingleSize;
+
+    @Value("${task.similarity.threshold:0.8}")
+    private double threshold;
+
+    @Value("${task.similarity.max-matches:20}")
+    private int maxMatches;
+
+    @Value("${task.similarity.batch-size:50}")
+    private int batchSize;
+
+    // Submissions and signatures can commit out of ID order; the poll and
+    // each index catch-up re-check this many IDs below the highest one seen
+    @Value("${task.similarity.rescan-ids:10000}")
+    private long rescanIds;
+
+    // Across all cached task indexes; a signature takes about 1 KB
+    @Value("${task.similarity.max-cached-signatures:100000}")
+    private int maxCachedSignatures;
+
+    @Value("${task.similarity.check-on-submit:true}")
+    private boolean checkOnSubmit;
+
+    private MinHasher minHasher;
+    private Map<Long, TaskIndex> indexes;
+
+    @PostConstruct
+    public void init() {
+        minHasher = new MinHasher(bands * rows, shingleSize, MINHASH_SEED);
+        indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true));
+    }
+
+    /**
+     * Signs submissions that have no signature yet. One instance at a time;
+     * signing is dominated by file downloads.
+     */
+    @Scheduled(fixedDelayString = "${task.similarity.poll-ms:15000}")
+    public void signNewSubmissions() {
+        shardCoordinator.runIfClaimed("similarity", 0,
+                () -> schedulerMetrics.run(SchedulerMetrics.SIMILARITY, this::signPending));
+    }
+
+    private int signPending() {
+        Instant deadline = shardCoordinator.deadline();
+        long afterId = Math.max(0L, submissionSignatureRepository.findMaxSubmissionId() - rescanIds);
+        int scanned = 0;
+        List<Submission> batch;
+        do {
+            batch = jdbcTemplate.query(FIND_UNSIGNED_SQL, (rs, rowNum) -> Submission.builder()
+                    .id(rs.getLong("id"))
+                    .studentId(rs.getLong("student_id"))
+                    .task(com.skilledup.task.model.Task.builder().id(rs.getLong("task_id")).build())
+                    .submissionFileUrl(rs.getString("submission_file_url"))
+                    .build(), afterId, batchSize);
+            for (Submission submission : batch) {
+                SubmissionSignature signature = sign(submission, null);
+                schedulerMetrics.rows(SchedulerMetrics.SIMILARITY, signature.getStatus().name().toLowerCase(), 1);
+                afterId = submission.getId();
+            }
+            scanned += batch.size();
+            if (batch.size() == batchSize && Instant.now().isAfter(deadline)) {
+                // Unsigned submissions left here are picked up on the next poll
+                break;
+            }
+        } while (batch.size() == batchSize);
+        return scanned;
+    }
+
+    /**
+     * Other students' submissions of the same task that are at least
+     * threshold similar. Signs the submission first if the poller has not
+     * reached it yet, and tries again if reading its file failed before.
+     */
+    public SimilarityReport findSimilar(Long submissionId) {
+        SubmissionSignature signature = submissionSignatureRepository.findBySubmissionId(submissionId).orElse(null);
+        if (signature == null || signature.getStatus() == SubmissionSignature.SignatureStatus.FAILED) {
+            Submission submission = submissionRepository.findById(submissionId)
+                    .orElseThrow(() -> new RuntimeException("Submission not found"));
+            signature = sign(submission, signature);
+        }
+
+        List<SimilarityMatch> matches = List.of();
+        if (signature.getStatus() == SubmissionSignature.SignatureStatus.INDEXED) {
+            matches = index(signature.getTaskId()).query(decode(signature.getSignature()), signature.getStudentId());
+            evictOverBudget(signature.getTaskId());
+            if (!matches.isEmpty()) {
+                // Submissions deleted or archived through another instance are
+                // still in this instance's index
+                Set<Long> existing = new HashSet<>(submissionRepository.findExistingIds(
+                        matches.stream().map(SimilarityMatch::getSubmissionId).collect(Collectors.toList())));
+                matches.removeIf(match -> !existing.contains(match.getSubmissionId()));
+            }
+        }
+
+        return SimilarityReport.builder()
+                .submissionId(submissionId)
+                .taskId(signature.getTaskId())
+                .status(signature.getStatus().name())
+                .threshold(threshold)
+                .matches(matches)
+                .build();
+    }
+
+    /**
+     * Drops the signature of a deleted submission. Joins the caller's
+     * transaction.
+     */
+    @Transactional
+    public void onSubmissionDeleted(Long submissionId) {
+        onSubmissionsDeleted(List.of(submissionId));
+    }
+
+    /**
+     * Drops the signatures of deleted or archived submissions. Joins the
+     * caller's transaction.
+     */
+    @Transactional
+    public void onSubmissionsDeleted(Collection<Long> submissionIds) {
+        if (submissionIds.isEmpty()) {
+            return;
+        }
+        submissionSignatureRepository.deleteBySubmissionIdIn(submissionIds);
+        synchronized (indexes) {
+            indexes.values().forEach(index -> submissionIds.forEach(index::remove));
+        }
+    }
+
+    /**
+     * Checks the submissions against their tasks' indexes once the current
+     * transaction commits, off the caller's thread.
+     */
+    public void checkAfterCommit(List<Long> submissionIds) {
+        if (!checkOnSubmit || submissionIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(submissionIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    similarityCheckWorker.getObject().check(ids);
+                }
+            });
+        } else {
+            similarityCheckWorker.getObject().check(ids);
+        }
+    }
+
+    /**
+     * Reads, extracts and signs the submission's file. A previous FAILED row
+     * is replaced by a new one, so loaded indexes catch up with it by ID.
+     */
+    private SubmissionSignature sign(Submission submission, SubmissionSignature previous) {
+        SubmissionSignature.SubmissionSignatureBuilder row = SubmissionSignature.builder()
+                .submissionId(submission.getId())
+                .taskId(submission.getTask().getId())
+                .studentId(submission.getStudentId());
+        try {
+            if (submission.getSubmissionFileUrl() == null) {
+                throw new IllegalStateException("Submission has no file");
+            }
+            String text;
+            try (InputStream in = s3Service.openFile(submission.getSubmissionFileUrl())) {
+                text = submissionTextExtractor.extract(in);
+            }
+            int[] signature = minHasher.sign(text);
+            row.textLength(text.length());
+            row.status(signature != null ? SubmissionSignature.SignatureStatus.INDEXED
+                    : SubmissionSignature.SignatureStatus.EMPTY);
+            row.signature(signature != null ? encode(signature) : null);
+        } catch (Exception e) {
+            String message = String.valueOf(e.getMessage());
+            row.status(SubmissionSignature.SignatureStatus.FAILED);
+            row.error(message.length() > 500 ? message.substring(0, 500) : message);
+            log.warn("Could not sign submission {}: {}", submission.getId(), message);
+        }
+
+        if (previous != null) {
+            submissionSignatureRepository.delete(previous);
+        }
+        try {
+            return submissionSignatureRepository.save(row.build());
+        } catch (DataIntegrityViolationException e) {
+            // Signed concurrently by a lookup on another instance
+            return submissionSignatureRepository.findBySubmissionId(submission.getId()).orElseThrow(() -> e);
+        }
+    }
+
+    private TaskIndex index(Long taskId) {
+        return indexes.computeIfAbsent(taskId, TaskIndex::new);
+    }
+
+    /**
+     * Drops the least recently used indexes, other than the one just
+     * queried, while the cached signatures exceed max-cached-signatures
+     */
+    private void evictOverBudget(Long taskId) {
+        synchronized (indexes) {
+            long total = indexes.values().stream().mapToLong(index -> index.entries).sum();
+            java.util.Iterator<Map.Entry<Long, TaskIndex>> eldest = indexes.entrySet().iterator();
+            while (total > maxCachedSignatures && eldest.hasNext()) {
+                Map.Entry<Long, TaskIndex> entry = eldest.next();
+                if (!entry.getKey().equals(taskId)) {
+                    total -= entry.getValue().entries;
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    private static byte[] encode(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    private static int[] decode(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    /**
+     * One task's LSH index and the last signature row it has seen
+     */
+    private final class TaskIndex {
+
+        private final Long taskId;
+        private final LshIndex lsh = new LshIndex(bands, rows);
+        private long lastSignatureId;
+        private volatile int entries;
+
+        TaskIndex(Long taskId) {
+            this.taskId = taskId;
+        }
+
+        synchronized List<SimilarityMatch> query(int[] signature, Long studentId) {
+            catchUp();
+            entries = lsh.size();
+            return lsh.query(signature, threshold, studentId, maxMatches);
+        }
+
+        synchronized void remove(Long submissionId) {
+            lsh.remove(submissionId);
+            entries = lsh.size();
+        }
+
+        private void catchUp() {
+            if (lastSignatureId > 0) {
+                List<Long> missing = submissionSignatureRepository.findSubmissionIdsInRange(taskId,
+                        Math.max(0L, lastSignatureId - rescanIds), lastSignatureId,
+                        SubmissionSignature.SignatureStatus.INDEXED).stream()
+                        .filter(submissionId -> !lsh.contains(submissionId))
+                        .collect(Collectors.toList());
+                if (!missing.isEmpty()) {
+                    log.debug("Adding {} late signatures to the index of task {}", missing.size(), taskId);
+                    for (SubmissionSignature row : submissionSignatureRepository.findBySubmissionIdIn(missing)) {
+                        lsh.add(row.getSubmissionId(), row.getStudentId(), decode(row.getSignature()));
+                    }
+                }
+            }
+
+            List<SubmissionSignature> page;
+            do {
+                page = submissionSignatureRepository.findByTaskAfterId(taskId, lastSignatureId,
+                        SubmissionSignature.SignatureStatus.INDEXED, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (SubmissionSignature row : page) {
+                    lsh.add(row.getSubmissionId(), row.getStudentId(), decode(row.getSignature()));
+                    lastSignatureId = row.getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.client.StudentClient;
+import com.skilledup.task.dto.StudentResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size-bounded, TTL-based cache of student contact details (name, email) used
+ * by the scheduler notifications. Misses are fetched from student-service in
+ * batches through the bulk contacts endpoint, so a run needs a handful of round
+ * trips instead of one per schedule.
+ */
+@Component
+@Slf4j
+public class StudentContactCache {
+
+    private final StudentClient studentClient;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final int batchSize;
+
+    // Access-ordered so the least recently used contact is evicted first
+    private final LinkedHashMap<Long, CachedContact> cache;
+
+    public StudentContactCache(StudentClient studentClient,
+            @Value("${task.contact-cache.max-size:50000}") int maxSize,
+            @Value("${task.contact-cache.ttl:PT10M}") Duration ttl,
+            @Value("${task.contact-cache.batch-size:500}") int batchSize) {
+        this.studentClient = studentClient;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.batchSize = batchSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedContact> eldest) {
+                return size() > StudentContactCache.this.maxSize;
+            }
+        };
+    }
+
+    public StudentResponse get(Long studentId) {
+        return resolve(List.of(studentId)).get(studentId);
+    }
+
+    /**
+     * Returns contacts for the given students. Students unknown to
+     * student-service (or whose lookup failed) are absent from the map.
+     */
+    public Map<Long, StudentResponse> resolve(Collection<Long> studentIds) {
+        Map<Long, StudentResponse> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long now = System.currentTimeMillis();
+
+        synchronized (cache) {
+            for (Long id : studentIds) {
+                if (id == null) {
+                    continue;
+                }
+                CachedContact cached = cache.get(id);
+                if (cached != null && cached.expiresAt > now) {
+                    result.put(id, cached.contact);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<Long> ids = new ArrayList<>(missing);
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                List<StudentResponse> contacts = studentClient.getStudentContacts(batch);
+                long expiresAt = System.currentTimeMillis() + ttlMillis;
+                synchronized (cache) {
+                    for (StudentResponse contact : contacts) {
+                        cache.put(contact.getId(), new CachedContact(contact, expiresAt));
+                        result.put(contact.getId(), contact);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to fetch contacts for {} students", batch.size(), e);
+            }
+        }
+        return result;
+    }
+
+    public void evict(Long studentId) {
+        synchronized (cache) {
+            cache.remove(studentId);
+        }
+    }
+
+    private static final class CachedContact {
+        final StudentResponse contact;
+        final long expiresAt;
+
+        CachedContact(StudentResponse contact, long expiresAt) {
+            this.contact = contact;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.model.StudentDomainProgress;
+import com.skilledup.task.repository.StudentDomainProgressRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Keeps student_domain_progress in step with task_schedule. Every write method
+ * joins the caller's transaction, so counters commit or roll back together with
+ * the schedule change. Deltas are applied with atomic upserts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StudentProgressService {
+
+    private static final String UPSERT_DELTA_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "VALUES (?, ?, GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), NOW()) "
+            + "ON DUPLICATE KEY UPDATE "
+            + "total_tasks = GREATEST(total_tasks + ?, 0), "
+            + "submitted_tasks = GREATEST(submitted_tasks + ?, 0), "
+            + "delayed_tasks = GREATEST(delayed_tasks + ?, 0), "
+            + "updated_at = NOW()";
+
+    // Recomputes counters from task_schedule for the students selected by the
+    // given WHERE fragment
+    private static final String RECOMPUTE_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "SELECT ts.student_id, t.domain, COUNT(*), SUM(ts.is_submitted), SUM(ts.is_delayed), NOW() "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id "
+            + "WHERE %s "
+            + "GROUP BY ts.student_id, t.domain "
+            + "ON DUPLICATE KEY UPDATE "
+            + "total_tasks = VALUES(total_tasks), "
+            + "submitted_tasks = VALUES(submitted_tasks), "
+            + "delayed_tasks = VALUES(delayed_tasks), "
+            + "updated_at = NOW()";
+
+    // Counters of archived enrollments, whose schedules left task_schedule
+    private static final String RECOMPUTE_ARCHIVED_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "SELECT student_id, domain, COUNT(*), SUM(is_submitted), SUM(is_delayed), NOW() "
+            + "FROM task_schedule_archive GROUP BY student_id, domain "
+            + "ON DUPLICATE KEY UPDATE "
+            + "total_tasks = total_tasks + VALUES(total_tasks), "
+            + "submitted_tasks = submitted_tasks + VALUES(submitted_tasks), "
+            + "delayed_tasks = delayed_tasks + VALUES(delayed_tasks), "
+            + "updated_at = NOW()";
+
+    // Live plus archived counters of one domain for the students staged for a
+    // fan-out job; the upsert replaces the counters, so both must be summed here
+    private static final String RECOMPUTE_FANOUT_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "SELECT x.student_id, x.domain, SUM(x.c), SUM(x.s), SUM(x.d), NOW() FROM ("
+            + "SELECT ts.student_id, t.domain, COUNT(*) AS c, SUM(ts.is_submitted) AS s, SUM(ts.is_delayed) AS d "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id "
+            + "WHERE t.domain = ? AND ts.student_id IN (SELECT s.student_id FROM fanout_staging s WHERE s.job_id = ?) "
+            + "GROUP BY ts.student_id, t.domain "
+            + "UNION ALL "
+            + "SELECT a.student_id, a.domain, COUNT(*), SUM(a.is_submitted), SUM(a.is_delayed) "
+            + "FROM task_schedule_archive a "
+            + "WHERE a.domain = ? AND a.student_id IN (SELECT s.student_id FROM fanout_staging s WHERE s.job_id = ?) "
+            + "GROUP BY a.student_id, a.domain) x "
+            + "GROUP BY x.student_id, x.domain "
+            + "ON DUPLICATE KEY UPDATE "
+            + "total_tasks = VALUES(total_tasks), "
+            + "submitted_tasks = VALUES(submitted_tasks), "
+            + "delayed_tasks = VALUES(delayed_tasks), "
+            + "updated_at = NOW()";
+
+    private static final String REMOVE_TASK_SQL = "UPDATE student_domain_progress p "
+            + "JOIN (SELECT student_id, COUNT(*) AS c, SUM(is_submitted) AS s, SUM(is_delayed) AS d "
+            + "FROM task_schedule WHERE task_id = ? GROUP BY student_id) x ON x.student_id = p.student_id "
+            + "SET p.total_tasks = GREATEST(p.total_tasks - x.c, 0), "
+            + "p.submitted_tasks = GREATEST(p.submitted_tasks - x.s, 0), "
+            + "p.delayed_tasks = GREATEST(p.delayed_tasks - x.d, 0), "
+            + "p.updated_at = NOW() "
+            + "WHERE p.domain = ?";
+
+    private static final String ADD_TASK_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "SELECT student_id, ?, COUNT(*), SUM(is_submitted), SUM(is_delayed), NOW() "
+            + "FROM task_schedule WHERE task_id = ? GROUP BY student_id "
+            + "ON DUPLICATE KEY UPDATE "
+            + "total_tasks = total_tasks + VALUES(total_tasks), "
+            + "submitted_tasks = submitted_tasks + VALUES(submitted_tasks), "
+            + "delayed_tasks = delayed_tasks + VALUES(delayed_tasks), "
+            + "updated_at = NOW()";
+
+    private static final String ADD_DELAYED_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "SELECT ts.student_id, t.domain, 0, 0, COUNT(*), NOW() "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id WHERE ts.id IN (:ids) "
+            + "GROUP BY ts.student_id, t.domain "
+            + "ON DUPLICATE KEY UPDATE "
+            + "delayed_tasks = delayed_tasks + VALUES(delayed_tasks), "
+            + "updated_at = NOW()";
+
+    private static final String ADD_SUBMITTED_SQL = "INSERT INTO student_domain_progress "
+            + "(student_id, domain, total_tasks, submitted_tasks, delayed_tasks, updated_at) "
+            + "SELECT ts.student_id, t.domain, 0, COUNT(*), 0, NOW() "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id WHERE ts.id IN (:ids) "
+            + "GROUP BY ts.student_id, t.domain "
+            + "ON DUPLICATE KEY UPDATE "
+            + "submitted_tasks = submitted_tasks + VALUES(submitted_tasks), "
+            + "updated_at = NOW()";
+
+    private final StudentDomainProgressRepository studentDomainProgressRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public Optional<StudentDomainProgress> getProgress(Long studentId, String domain) {
+        return studentDomainProgressRepository.findById(new StudentDomainProgress.Key(studentId, domain));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjust(Long studentId, String domain, int totalDelta, int submittedDelta, int delayedDelta) {
+        jdbcTemplate.update(UPSERT_DELTA_SQL, studentId, domain, totalDelta, submittedDelta, delayedDelta,
+                totalDelta, submittedDelta, delayedDelta);
+    }
+
+    /**
+     * Counts the given schedules as delayed, grouped per student and domain in
+     * one INSERT ... SELECT. Call after the rows were marked delayed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addDelayed(Collection<Long> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update(ADD_DELAYED_SQL, new MapSqlParameterSource("ids", scheduleIds));
+    }
+
+    /**
+     * Counts the given schedules as submitted, grouped per student and domain
+     * in one INSERT ... SELECT.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addSubmitted(Collection<Long> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        namedParameterJdbcTemplate.update(ADD_SUBMITTED_SQL, new MapSqlParameterSource("ids", scheduleIds));
+    }
+
+    /**
+     * Recomputes the domain counters of the students staged for a fan-out job,
+     * counting their archived schedules like {@link #rebuild()} does.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recomputeForFanoutJob(Long jobId, String domain) {
+        jdbcTemplate.update(RECOMPUTE_FANOUT_SQL, domain, jobId, domain, jobId);
+    }
+
+    /**
+     * Moves a task's schedules from one domain's counters to another's after the
+     * task was re-assigned to a different domain.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTaskMoved(Long taskId, String oldDomain, String newDomain) {
+        jdbcTemplate.update(REMOVE_TASK_SQL, taskId, oldDomain);
+        jdbcTemplate.update(ADD_TASK_SQL, newDomain, taskId);
+    }
+
+    /**
+     * Subtracts a task's schedules from the counters. Call before the schedules
+     * are deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTaskDeleted(Long taskId, String domain) {
+        jdbcTemplate.update(REMOVE_TASK_SQL, taskId, domain);
+    }
+
+    /**
+     * Seeds the counters on first start after the table was introduced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (studentDomainProgressRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    /**
+     * Rebuilds the whole table from task_schedule and its archive.
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM student_domain_progress");
+        int rows = jdbcTemplate.update(String.format(RECOMPUTE_SQL, "1 = 1"));
+        rows += jdbcTemplate.update(RECOMPUTE_ARCHIVED_SQL);
+        log.info("Rebuilt student_domain_progress: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+}
@@ -0,0 +1,374 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.IntakeApplyResult;
+import com.skilledup.task.dto.SubmissionRequest;
+import com.skilledup.task.model.Submission;
+import com.skilledup.task.model.SubmissionIntake;
+import com.skilledup.task.model.Task;
+import com.skilledup.task.repository.SubmissionIntakeRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous submission intake for deadline bursts. accept() costs one
+ * catalog lookup and one INSERT and hands the intake ID to a bounded in-memory
+ * queue; {@link com.skilledup.task.scheduler.SubmissionIntakeWorker} applies
+ * queued intakes in batches with the same checks and end state as
+ * TaskService.submitTask, using the intake time as submittedAt. The table is
+ * the source of truth: IDs that did not fit the queue, or were queued on an
+ * instance that stopped, are picked up by the worker's recovery poll.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionIntakeService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    static final String INSERT_SUBMISSION_SQL = "INSERT INTO submissions "
+            + "(student_id, task_id, submission_file_url, status, score, submitted_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Locks the schedules of the batch so a concurrent submit cannot slip in
+    // between the checks and the writes
+    private static final String LOCK_SCHEDULES_SQL = "SELECT id, student_id, task_id, is_unlocked, is_submitted, "
+            + "is_delayed, deadline FROM task_schedule "
+            + "WHERE student_id IN (:studentIds) AND task_id IN (:taskIds) FOR UPDATE";
+
+    private static final String MARK_SUBMITTED_SQL = "UPDATE task_schedule "
+            + "SET is_submitted = true, next_reminder_at = NULL WHERE id IN (:ids)";
+
+    private static final String CLEAR_DELAYED_SQL = "UPDATE task_schedule SET is_delayed = false WHERE id IN (:ids)";
+
+    private static final String UNLOCK_SQL = "UPDATE task_schedule SET is_unlocked = true, next_reminder_at = deadline "
+            + "WHERE student_id = ? AND task_id = ? AND is_unlocked = false";
+
+    private static final String FINISH_INTAKE_SQL = "UPDATE submission_intake "
+            + "SET status = ?, submission_id = ?, error = ?, applied_at = ? WHERE id = ?";
+
+    private final SubmissionIntakeRepository submissionIntakeRepository;
+    private final TaskCatalog taskCatalog;
+    private final StudentProgressService studentProgressService;
+    private final PerformanceService performanceService;
+    private final UnlockFrontierService unlockFrontierService;
+    private final SimilarityIndexService similarityIndexService;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${task.intake.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<Long> queue;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Records a submission and returns at once. Repeating a request with the
+     * same key returns the original intake.
+     */
+    public SubmissionIntake accept(SubmissionRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key header is required (at most " + MAX_KEY_LENGTH
+                    + " characters)");
+        }
+        Optional<SubmissionIntake> existing = submissionIntakeRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isPresent()) {
+            return replay(existing.get(), request);
+        }
+
+        // Catalog snapshot, queried only on a miss. Schedule state is checked
+        // when applied.
+        taskCatalog.findTask(request.getTaskId())
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+
+        SubmissionIntake intake;
+        try {
+            intake = submissionIntakeRepository.save(SubmissionIntake.builder()
+                    .idempotencyKey(idempotencyKey)
+                    .studentId(request.getStudentId())
+                    .taskId(request.getTaskId())
+                    .submissionFileUrl(request.getSubmissionFileUrl())
+                    .receivedAt(Instant.now())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Same key accepted concurrently by another request
+            return replay(submissionIntakeRepository.findByIdempotencyKey(idempotencyKey).orElseThrow(() -> e),
+                    request);
+        }
+
+        if (!queue.offer(intake.getId())) {
+            log.debug("Intake queue full, intake {} left for the recovery poll", intake.getId());
+        }
+        return intake;
+    }
+
+    public Optional<SubmissionIntake> getIntake(Long intakeId) {
+        return submissionIntakeRepository.findById(intakeId);
+    }
+
+    /**
+     * Waits up to timeoutMillis for the first queued ID, then takes whatever
+     * else is queued up to max.
+     */
+    public List<Long> takeBatch(int max, long timeoutMillis) throws InterruptedException {
+        Long first = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(max);
+        ids.add(first);
+        queue.drainTo(ids, max - 1);
+        return ids;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public List<Long> findStaleIds(Instant receivedBefore, Long afterId, int limit) {
+        return submissionIntakeRepository.findIdsByStatusReceivedBefore(SubmissionIntake.IntakeStatus.QUEUED,
+                receivedBefore, afterId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Applies queued intakes in one transaction: locks the intake rows and
+     * their schedules, rejects what submitTask would reject, then writes the
+     * submissions, schedule flags, counters and next-week unlocks as batches.
+     * Intakes already applied elsewhere are skipped.
+     */
+    @Transactional
+    public IntakeApplyResult apply(Collection<Long> intakeIds) {
+        List<SubmissionIntake> intakes = submissionIntakeRepository.lockByIdsAndStatus(intakeIds,
+                SubmissionIntake.IntakeStatus.QUEUED);
+        if (intakes.isEmpty()) {
+            return IntakeApplyResult.builder().build();
+        }
+
+        Map<String, ScheduleState> schedules = lockSchedules(intakes);
+        Set<String> submittedKeys = new HashSet<>();
+        List<AcceptedIntake> accepted = new ArrayList<>();
+        List<Object[]> finished = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+
+        for (SubmissionIntake intake : intakes) {
+            String key = key(intake.getStudentId(), intake.getTaskId());
+            Task task = taskCatalog.findTask(intake.getTaskId()).orElse(null);
+            ScheduleState schedule = schedules.get(key);
+
+            String error = null;
+            if (task == null) {
+                error = "Task not found";
+            } else if (schedule == null) {
+                error = "Task schedule not found";
+            } else if (!schedule.unlocked) {
+                error = "Task is not unlocked yet";
+            } else if (schedule.submitted || !submittedKeys.add(key)) {
+                error = "Task already submitted";
+            }
+
+            if (error != null) {
+                finished.add(new Object[] { SubmissionIntake.IntakeStatus.REJECTED.name(), null, error, now,
+                        intake.getId() });
+            } else {
+                accepted.add(new AcceptedIntake(intake, task, schedule));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            List<Long> submissionIds = insertSubmissions(accepted);
+            for (int i = 0; i < accepted.size(); i++) {
+                finished.add(new Object[] { SubmissionIntake.IntakeStatus.APPLIED.name(), submissionIds.get(i), null,
+                        now, accepted.get(i).intake.getId() });
+            }
+            updateSchedules(accepted);
+            similarityIndexService.checkAfterCommit(submissionIds);
+        }
+        jdbcTemplate.batchUpdate(FINISH_INTAKE_SQL, finished,
+                new int[] { Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.TIMESTAMP, Types.BIGINT });
+
+        return IntakeApplyResult.builder()
+                .applied(accepted.size())
+                .rejected(intakes.size() - accepted.size())
+                .build();
+    }
+
+    /**
+     * Rejects an intake that failed to apply on its own, so it does not block
+     * later batches
+     */
+    @Transactional
+    public void reject(Long intakeId, String error) {
+        String message = String.valueOf(error);
+        jdbcTemplate.update(FINISH_INTAKE_SQL + " AND status = ?", SubmissionIntake.IntakeStatus.REJECTED.name(), null,
+                message.length() > 500 ? message.substring(0, 500) : message, Timestamp.from(Instant.now()),
+                intakeId, SubmissionIntake.IntakeStatus.QUEUED.name());
+    }
+
+    private Map<String, ScheduleState> lockSchedules(List<SubmissionIntake> intakes) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("studentIds", intakes.stream().map(SubmissionIntake::getStudentId).collect(Collectors.toSet()))
+                .addValue("taskIds", intakes.stream().map(SubmissionIntake::getTaskId).collect(Collectors.toSet()));
+        Map<String, ScheduleState> schedules = new HashMap<>();
+        namedParameterJdbcTemplate.query(LOCK_SCHEDULES_SQL, params, rs -> {
+            ScheduleState state = new ScheduleState(rs.getLong("id"), rs.getBoolean("is_unlocked"),
+                    rs.getBoolean("is_submitted"), rs.getBoolean("is_delayed"),
+                    rs.getTimestamp("deadline").toLocalDateTime());
+            schedules.put(key(rs.getLong("student_id"), rs.getLong("task_id")), state);
+        });
+        return schedules;
+    }
+
+    /**
+     * One multi-row INSERT; the driver returns the generated IDs in row order
+     */
+    private List<Long> insertSubmissions(List<AcceptedIntake> accepted) {
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SUBMISSION_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (AcceptedIntake item : accepted) {
+                    boolean autoReview = item.task.isAutoReview();
+                    ps.setLong(1, item.intake.getStudentId());
+                    ps.setLong(2, item.intake.getTaskId());
+                    ps.setString(3, item.intake.getSubmissionFileUrl());
+                    ps.setString(4, (autoReview ? Submission.SubmissionStatus.APPROVED
+                            : Submission.SubmissionStatus.PENDING).name());
+                    if (autoReview) {
+                        ps.setInt(5, 100);
+                    } else {
+                        ps.setNull(5, Types.INTEGER);
+                    }
+                    ps.setTimestamp(6, Timestamp.from(item.intake.getReceivedAt()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                List<Long> ids = new ArrayList<>(accepted.size());
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != accepted.size()) {
+                    throw new IllegalStateException("Expected " + accepted.size() + " submission IDs, got "
+                            + ids.size());
+                }
+                return ids;
+            }
+        });
+    }
+
+    private void updateSchedules(List<AcceptedIntake> accepted) {
+        List<Long> scheduleIds = new ArrayList<>();
+        List<Long> onTimeAfterAll = new ArrayList<>();
+        List<PerformanceService.ScoreChange> scoreChanges = new ArrayList<>();
+        Map<Long, List<Task>> tasksByStudent = new HashMap<>();
+
+        for (AcceptedIntake item : accepted) {
+            Long studentId = item.intake.getStudentId();
+            scheduleIds.add(item.schedule.id);
+
+            // The sweep may have flagged the row while the intake was queued;
+            // what counts is when the submission arrived
+            LocalDateTime receivedAt = LocalDateTime.ofInstant(item.intake.getReceivedAt(), ZoneId.systemDefault());
+            if (item.schedule.delayed && !receivedAt.isAfter(item.schedule.deadline)) {
+                onTimeAfterAll.add(item.schedule.id);
+                studentProgressService.adjust(studentId, item.task.getDomain(), 0, 0, -1);
+            }
+
+            if (item.task.isAutoReview()) {
+                scoreChanges.add(new PerformanceService.ScoreChange(studentId, item.task.getDomain(), null, 100));
+            }
+
+            tasksByStudent.computeIfAbsent(studentId, id -> new ArrayList<>()).add(item.task);
+        }
+
+        namedParameterJdbcTemplate.update(MARK_SUBMITTED_SQL, new MapSqlParameterSource("ids", scheduleIds));
+        if (!onTimeAfterAll.isEmpty()) {
+            namedParameterJdbcTemplate.update(CLEAR_DELAYED_SQL, new MapSqlParameterSource("ids", onTimeAfterAll));
+        }
+        studentProgressService.addSubmitted(scheduleIds);
+        performanceService.recordScoreChanges(scoreChanges);
+
+        // Unlock what the submissions complete the prerequisites of, as in
+        // submitTask
+        List<Object[]> unlocks = new ArrayList<>();
+        unlockFrontierService.onSubmitted(tasksByStudent).forEach((studentId, taskIds) -> taskIds
+                .forEach(taskId -> unlocks.add(new Object[] { studentId, taskId })));
+        if (!unlocks.isEmpty()) {
+            jdbcTemplate.batchUpdate(UNLOCK_SQL, unlocks);
+        }
+    }
+
+    private SubmissionIntake replay(SubmissionIntake existing, SubmissionRequest request) {
+        if (!existing.getStudentId().equals(request.getStudentId())
+                || !existing.getTaskId().equals(request.getTaskId())) {
+            throw new RuntimeException("Idempotency-Key was already used for a different submission");
+        }
+        return existing;
+    }
+
+    private static String key(Long studentId, Long taskId) {
+        return studentId + ":" + taskId;
+    }
+
+    private static class ScheduleState {
+        final long id;
+        final boolean unlocked;
+        final boolean submitted;
+        final boolean delayed;
+        final LocalDateTime deadline;
+
+        ScheduleState(long id, boolean unlocked, boolean submitted, boolean delayed, LocalDateTime deadline) {
+            this.id = id;
+            this.unlocked = unlocked;
+            this.submitted = submitted;
+            this.delayed = delayed;
+            this.deadline = deadline;
+        }
+    }
+
+    private static class AcceptedIntake {
+        final SubmissionIntake intake;
+        final Task task;
+        final ScheduleState schedule;
+
+        AcceptedIntake(SubmissionIntake intake, Task task, ScheduleState schedule) {
+            this.intake = intake;
+            this.task = task;
+            this.schedule = schedule;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.BulkReviewItem;
+import com.skilledup.task.dto.BulkReviewItemResult;
+import com.skilledup.task.dto.BulkReviewResult;
+import com.skilledup.task.dto.SubmissionReviewStateView;
+import com.skilledup.task.model.Submission;
+import com.skilledup.task.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many mentor reviews in one request. All items are validated
+ * against a single read of the current submissions; the valid ones are
+ * written with one JDBC batch and the score aggregates are updated with one
+ * more. Invalid items are reported per item and do not block the rest.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionReviewService {
+
+    public static final int MAX_ITEMS = 1000;
+
+    private static final String UPDATE_SQL = "UPDATE submissions SET status = ?, score = ?, "
+            + "feedback = COALESCE(?, feedback), reviewed_at = ? WHERE id = ?";
+
+    private final SubmissionRepository submissionRepository;
+    private final PerformanceService performanceService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public BulkReviewResult reviewAll(List<BulkReviewItem> items) {
+        long start = System.currentTimeMillis();
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("No review items given");
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new RuntimeException("At most " + MAX_ITEMS + " reviews can be submitted per call");
+        }
+
+        // Old scores are read under the row locks, so a concurrent review of
+        // the same submission cannot make the aggregate delta stale
+        Set<Long> ids = items.stream()
+                .map(BulkReviewItem::getSubmissionId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        submissionRepository.lockByIdIn(ids);
+        Map<Long, SubmissionReviewStateView> current = submissionRepository.findReviewStatesByIdIn(ids).stream()
+                .collect(Collectors.toMap(SubmissionReviewStateView::getId, Function.identity()));
+
+        List<BulkReviewItemResult> results = new ArrayList<>(items.size());
+        List<BulkReviewItem> accepted = new ArrayList<>();
+        List<PerformanceService.ScoreChange> scoreChanges = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (BulkReviewItem item : items) {
+            String error = validate(item, current, seen);
+            results.add(BulkReviewItemResult.builder()
+                    .submissionId(item.getSubmissionId())
+                    .updated(error == null)
+                    .error(error)
+                    .build());
+            if (error == null) {
+                SubmissionReviewStateView state = current.get(item.getSubmissionId());
+                accepted.add(item);
+                scoreChanges.add(new PerformanceService.ScoreChange(state.getStudentId(), state.getDomain(),
+                        state.getScore(), item.getScore()));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            Timestamp reviewedAt = Timestamp.from(Instant.now());
+            jdbcTemplate.batchUpdate(UPDATE_SQL, accepted, accepted.size(), (ps, item) -> {
+                ps.setString(1, Submission.SubmissionStatus.valueOf(item.getStatus()).name());
+                if (item.getScore() != null) {
+                    ps.setInt(2, item.getScore());
+                } else {
+                    ps.setNull(2, Types.INTEGER);
+                }
+                ps.setString(3, item.getFeedback());
+                ps.setTimestamp(4, reviewedAt);
+                ps.setLong(5, item.getSubmissionId());
+            });
+            performanceService.recordScoreChanges(scoreChanges);
+        }
+
+        BulkReviewResult result = BulkReviewResult.builder()
+                .requested(items.size())
+                .updated(accepted.size())
+                .failed(items.size() - accepted.size())
+                .elapsedMillis(System.currentTimeMillis() - start)
+                .results(results)
+                .build();
+        log.info("Bulk review: {} of {} submissions updated in {} ms", result.getUpdated(), result.getRequested(),
+                result.getElapsedMillis());
+        return result;
+    }
+
+    private String validate(BulkReviewItem item, Map<Long, SubmissionReviewStateView> current, Set<Long> seen) {
+        if (item.getSubmissionId() == null) {
+            return "Submission ID is required";
+        }
+        if (!seen.add(item.getSubmissionId())) {
+            return "Duplicate submission in request";
+        }
+        if (!current.containsKey(item.getSubmissionId())) {
+            return "Submission not found";
+        }
+        if (item.getStatus() == null) {
+            return "Status is required";
+        }
+        try {
+            Submission.SubmissionStatus.valueOf(item.getStatus());
+        } catch (IllegalArgumentException e) {
+            return "Invalid status: " + item.getStatus();
+        }
+        if (item.getScore() != null && (item.getScore() < 0 || item.getScore() > 100)) {
+            return "Score must be between 0 and 100";
+        }
+        if (item.getFeedback() != null && item.getFeedback().length() > 1000) {
+            return "Feedback must be at most 1000 characters";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,164 @@
+package com.skilledup.task.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Plain text of a submitted file for the similarity index. The format is
+ * detected from the content: PDF, DOCX, a zip archive of source files, or
+ * anything else read as UTF-8 text. Binary content yields empty text. Files
+ * above max-file-size are refused and text is cut at max-chars, which also
+ * bounds what a zip archive can expand to.
+ */
+@Component
+public class SubmissionTextExtractor {
+
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of(
+            "java", "kt", "scala", "groovy", "py", "ipynb", "js", "jsx", "ts", "tsx", "vue", "c", "h", "cpp",
+            "hpp", "cc", "cs", "go", "rs", "rb", "php", "swift", "dart", "m", "r", "sql", "sh", "html", "htm",
+            "css", "scss", "txt", "md", "json", "xml", "yml", "yaml");
+
+    // Dependencies and build output say nothing about the student's own work
+    private static final String[] SKIPPED_PATHS = {
+            "node_modules/", ".git/", "__MACOSX/", "target/", "build/", "dist/", "venv/", ".idea/" };
+
+    @Value("${task.similarity.max-file-size:25MB}")
+    private DataSize maxFileSize;
+
+    @Value("${task.similarity.max-chars:2000000}")
+    private int maxChars;
+
+    public String extract(InputStream in) throws IOException {
+        byte[] bytes = readLimited(in);
+        if (startsWith(bytes, "%PDF")) {
+            return extractPdf(bytes);
+        }
+        if (startsWith(bytes, "PK\u0003\u0004")) {
+            return extractZip(bytes);
+        }
+        return looksBinary(bytes, bytes.length) ? "" : truncate(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private String extractPdf(byte[] bytes) throws IOException {
+        try (PDDocument document = Loader.loadPDF(bytes)) {
+            return truncate(new PDFTextStripper().getText(document));
+        }
+    }
+
+    /**
+     * DOCX body text, or the concatenated source files of an archive
+     */
+    private String extractZip(byte[] bytes) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null && text.length() < maxChars) {
+                String name = entry.getName();
+                if (name.equals("word/document.xml")) {
+                    // Markup is most of document.xml, so read past maxChars
+                    StringBuilder xml = new StringBuilder();
+                    append(xml, zip, maxChars * 4);
+                    return truncate(docxText(xml));
+                }
+                if (!entry.isDirectory() && isSource(name)) {
+                    append(text, zip, maxChars - text.length());
+                    text.append('\n');
+                }
+            }
+        }
+        return truncate(text.toString());
+    }
+
+    private boolean isSource(String name) {
+        String path = "/" + name;
+        for (String skipped : SKIPPED_PATHS) {
+            if (path.contains("/" + skipped)) {
+                return false;
+            }
+        }
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && SOURCE_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Paragraph ends become line breaks; all other markup is dropped
+    private static String docxText(CharSequence xml) {
+        return xml.toString()
+                .replace("</w:p>", "\n")
+                .replaceAll("<w:tab/>", " ")
+                .replaceAll("<[^>]+>", "")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private void append(StringBuilder text, InputStream in, int limit) throws IOException {
+        // Not closed: that would close the enclosing zip stream
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        char[] buffer = new char[8192];
+        int read;
+        int total = 0;
+        while (total < limit && (read = reader.read(buffer)) > 0) {
+            text.append(buffer, 0, read);
+            total += read;
+        }
+    }
+
+    private byte[] readLimited(InputStream in) throws IOException {
+        long max = maxFileSize.toBytes();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            total += read;
+            if (total > max) {
+                throw new IOException("File exceeds the limit of " + max + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private String truncate(String text) {
+        return text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+
+    private static boolean startsWith(byte[] bytes, String magic) {
+        if (bytes.length < magic.length()) {
+            return false;
+        }
+        for (int i = 0; i < magic.length(); i++) {
+            if (bytes[i] != (byte) magic.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean looksBinary(byte[] bytes, int length) {
+        for (int i = 0; i < Math.min(length, 8192); i++) {
+            if (bytes[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,187 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.model.Task;
+import com.skilledup.task.model.TaskPrerequisite;
+import com.skilledup.task.repository.TaskPrerequisiteRepository;
+import com.skilledup.task.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Read-optimized, versioned snapshot of the task table (domain -> weekNo ->
+ * tasks, plus lookup by ID, plus the compiled prerequisite graph of each
+ * domain). Tasks only change through admin edits, so the
+ * snapshot is rebuilt after createTask/updateTask/deleteTask commit and swapped
+ * in atomically; a periodic reload picks up edits made on other instances.
+ * Returned Task objects are shared and must not be modified.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskCatalog {
+
+    private final TaskRepository taskRepository;
+    private final TaskPrerequisiteRepository taskPrerequisiteRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+
+    public long getVersion() {
+        return snapshot().version;
+    }
+
+    public Optional<Task> getTask(Long taskId) {
+        return Optional.ofNullable(snapshot().byId.get(taskId));
+    }
+
+    /**
+     * Like {@link #getTask(Long)}, but falls back to the database when the
+     * snapshot does not have the task yet (created on another instance since
+     * the last reload) and schedules a reload if it turns up there.
+     */
+    public Optional<Task> findTask(Long taskId) {
+        Optional<Task> task = getTask(taskId);
+        if (task.isPresent()) {
+            return task;
+        }
+        task = taskRepository.findById(taskId);
+        if (task.isPresent()) {
+            log.debug("Task {} missing from catalog version {}; reloading", taskId, getVersion());
+            refreshAfterCommit();
+        }
+        return task;
+    }
+
+    /**
+     * Active tasks of a domain, ordered by week.
+     */
+    public List<Task> getActiveTasks(String domain) {
+        return snapshot().activeByDomain.getOrDefault(domain, Collections.emptyList());
+    }
+
+    public List<Task> getActiveTasks(String domain, int weekNo) {
+        return snapshot().byDomainWeek
+                .getOrDefault(domain, Collections.emptyMap())
+                .getOrDefault(weekNo, Collections.emptyList())
+                .stream()
+                .filter(Task::isActive)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * All tasks (active or not) of a domain and week.
+     */
+    public List<Task> getTasks(String domain, int weekNo) {
+        return snapshot().byDomainWeek
+                .getOrDefault(domain, Collections.emptyMap())
+                .getOrDefault(weekNo, Collections.emptyList());
+    }
+
+    /**
+     * Compiled prerequisite graph of a domain; empty for unknown domains.
+     */
+    public TaskGraph getGraph(String domain) {
+        return snapshot().graphs.getOrDefault(domain, TaskGraph.EMPTY);
+    }
+
+    /**
+     * Reloads the snapshot once the current transaction commits (immediately if
+     * there is none).
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${task.catalog.refresh-ms:60000}", initialDelayString = "${task.catalog.refresh-ms:60000}")
+    public synchronized void refresh() {
+        List<Task> tasks = taskRepository.findAll();
+        Set<TaskPrerequisite> edges = new HashSet<>(taskPrerequisiteRepository.findAll());
+
+        Map<Long, Task> byId = new HashMap<>();
+        for (Task task : tasks) {
+            byId.put(task.getId(), task);
+        }
+        Snapshot current = snapshot.get();
+        if (current != null && current.byId.equals(byId) && current.edges.equals(edges)) {
+            return; // Unchanged: keep the version stable
+        }
+
+        Map<String, Map<Integer, List<Task>>> byDomainWeek = new HashMap<>();
+        for (Task task : tasks) {
+            byDomainWeek.computeIfAbsent(task.getDomain(), d -> new TreeMap<>())
+                    .computeIfAbsent(task.getWeekNo(), w -> new java.util.ArrayList<>())
+                    .add(task);
+        }
+
+        Map<String, List<Task>> activeByDomain = new HashMap<>();
+        byDomainWeek.forEach((domain, weeks) -> activeByDomain.put(domain, weeks.values().stream()
+                .flatMap(List::stream)
+                .filter(Task::isActive)
+                .sorted(Comparator.comparing(Task::getWeekNo).thenComparing(Task::getId))
+                .collect(Collectors.toUnmodifiableList())));
+        byDomainWeek.values().forEach(weeks -> weeks.replaceAll((week, list) -> List.copyOf(list)));
+
+        // Edits are validated before they commit; anything broken that still
+        // got in is logged and skipped here
+        Map<String, TaskGraph> graphs = TaskGraph.compile(tasks, edges, false);
+
+        Snapshot next = new Snapshot(versionCounter.incrementAndGet(), byId, byDomainWeek, activeByDomain, edges,
+                graphs);
+        snapshot.set(next);
+        log.debug("Task catalog refreshed: version {}, {} tasks", next.version, tasks.size());
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        final long version;
+        final Map<Long, Task> byId;
+        final Map<String, Map<Integer, List<Task>>> byDomainWeek;
+        final Map<String, List<Task>> activeByDomain;
+        final Set<TaskPrerequisite> edges;
+        final Map<String, TaskGraph> graphs;
+
+        Snapshot(long version, Map<Long, Task> byId, Map<String, Map<Integer, List<Task>>> byDomainWeek,
+                Map<String, List<Task>> activeByDomain, Set<TaskPrerequisite> edges, Map<String, TaskGraph> graphs) {
+            this.version = version;
+            this.byId = byId;
+            this.byDomainWeek = byDomainWeek;
+            this.activeByDomain = activeByDomain;
+            this.edges = edges;
+            this.graphs = graphs;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.model.Task;
+import com.skilledup.task.model.TaskFanoutJob;
+import com.skilledup.task.repository.TaskFanoutJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskFanoutService {
+
+    private final TaskFanoutJobRepository taskFanoutJobRepository;
+    private final TaskFanoutWorker taskFanoutWorker;
+
+    /**
+     * Records a fan-out job for a newly published task. The job only starts once
+     * the surrounding transaction commits, so the worker always sees the task.
+     */
+    @Transactional
+    public TaskFanoutJob startFanout(Task task) {
+        TaskFanoutJob job = taskFanoutJobRepository.save(TaskFanoutJob.builder()
+                .taskId(task.getId())
+                .domain(task.getDomain())
+                .build());
+
+        Long jobId = job.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    taskFanoutWorker.run(jobId);
+                }
+            });
+        } else {
+            taskFanoutWorker.run(jobId);
+        }
+
+        log.info("Queued fan-out job {} for task {} in domain {}", jobId, task.getId(), task.getDomain());
+        return job;
+    }
+
+    public Optional<TaskFanoutJob> getJob(Long jobId) {
+        return taskFanoutJobRepository.findById(jobId);
+    }
+
+    public Optional<TaskFanoutJob> getLatestJobForTask(Long taskId) {
+        return taskFanoutJobRepository.findFirstByTaskIdOrderByIdDesc(taskId);
+    }
+
+    /**
+     * Jobs interrupted by a restart are re-run. Inserts skip existing schedules,
+     * so re-running a partially finished job is safe. The worker only takes
+     * jobs that are pending or whose heartbeat went stale, so a job running
+     * live on another instance is left alone; the periodic pass picks up jobs
+     * that were still fresh at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${task.fanout.resume-ms:60000}", initialDelayString = "${task.fanout.resume-ms:60000}")
+    public void resumeInterruptedJobs() {
+        List<TaskFanoutJob> pending = taskFanoutJobRepository.findByStatusIn(
+                List.of(TaskFanoutJob.FanoutStatus.PENDING, TaskFanoutJob.FanoutStatus.RUNNING));
+        for (TaskFanoutJob job : pending) {
+            log.debug("Offering fan-out job {} for task {} to the worker", job.getId(), job.getTaskId());
+            taskFanoutWorker.run(job.getId());
+        }
+    }
+}
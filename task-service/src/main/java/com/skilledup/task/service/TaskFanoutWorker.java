@@ -0,0 +1,183 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.client.StudentClient;
+import com.skilledup.task.model.TaskFanoutJob;
+import com.skilledup.task.repository.TaskFanoutJobRepository;
+import com.skilledup.task.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Executes fan-out jobs off the request thread. Student IDs are written to
+ * fanout_staging one chunk at a time and each active domain task is inserted
+ * for the whole chunk with a single INSERT ... SELECT, one short transaction
+ * per chunk. A job is claimed with a conditional UPDATE before it runs, so
+ * it runs on one instance at a time; the heartbeat it refreshes per chunk
+ * lets another instance take it over once its owner has stopped. Every write
+ * to the job is conditional on the claim's owner token, so an instance that
+ * was taken over rolls back its chunk and stops instead of overwriting the
+ * new owner's progress.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskFanoutWorker {
+
+    private static final String INSERT_STAGING_SQL = "INSERT INTO fanout_staging (job_id, student_id) VALUES (?, ?)";
+
+    private static final String INSERT_SCHEDULES_SQL = "INSERT INTO task_schedule "
+            + "(student_id, task_id, unlock_date, deadline, next_reminder_at, is_unlocked, is_submitted, is_delayed) "
+            + "SELECT s.student_id, ?, ?, ?, ?, ?, false, false FROM fanout_staging s "
+            + "WHERE s.job_id = ? AND NOT EXISTS ("
+            + "SELECT 1 FROM task_schedule ts WHERE ts.student_id = s.student_id AND ts.task_id = ?) "
+            // Finished enrollments that were archived stay finished
+            + "AND NOT EXISTS (SELECT 1 FROM task_schedule_archive a "
+            + "WHERE a.student_id = s.student_id AND a.domain = ?)";
+
+    private static final String DELETE_STAGING_SQL = "DELETE FROM fanout_staging WHERE job_id = ?";
+
+    private final TaskFanoutJobRepository taskFanoutJobRepository;
+    private final TaskRepository taskRepository;
+    private final StudentClient studentClient;
+    private final TaskScheduleMaterializer taskScheduleMaterializer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentProgressService studentProgressService;
+
+    @Value("${task.fanout.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${task.fanout.stale-after:PT5M}")
+    private Duration staleAfter;
+
+    @Async
+    public void run(Long jobId) {
+        String owner = UUID.randomUUID().toString();
+        Instant claimedAt = Instant.now();
+        Integer claimed = transactionTemplate.execute(status -> taskFanoutJobRepository.claim(jobId, owner,
+                claimedAt, claimedAt.minus(staleAfter), TaskFanoutJob.FanoutStatus.PENDING,
+                TaskFanoutJob.FanoutStatus.RUNNING));
+        if (claimed == null || claimed == 0) {
+            log.debug("Fan-out job {} is finished or running on another instance", jobId);
+            return;
+        }
+
+        TaskFanoutJob job = taskFanoutJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            log.warn("Fan-out job {} not found", jobId);
+            return;
+        }
+
+        TaskFanoutJob.FanoutStatus result;
+        String error = null;
+        int processed = 0;
+        long createdTotal = 0;
+        try {
+            List<Long> studentIds = studentClient.getActiveStudentsByDomain(job.getDomain()).stream()
+                    .distinct()
+                    .collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> checkOwned(taskFanoutJobRepository.setTotal(jobId,
+                    owner, studentIds.size(), Instant.now())));
+
+            // Same semantics as initializeTaskSchedules: every active domain task
+            // the student is missing gets a schedule, not only the new one.
+            // Read from the database: the catalog may not have the task yet.
+            LocalDate now = LocalDate.now();
+            LocalDate week1UnlockDate = taskScheduleMaterializer.week1UnlockDate(now);
+            List<TaskScheduleMaterializer.SchedulePlan> plans = taskRepository
+                    .findByDomainAndActiveTrue(job.getDomain()).stream()
+                    .map(task -> taskScheduleMaterializer.plan(task, week1UnlockDate, now))
+                    .collect(Collectors.toList());
+
+            jdbcTemplate.update(DELETE_STAGING_SQL, jobId);
+
+            for (int from = 0; from < studentIds.size(); from += chunkSize) {
+                List<Long> chunk = studentIds.subList(from, Math.min(from + chunkSize, studentIds.size()));
+                // Rolled back if the job was taken over meanwhile
+                Long created = transactionTemplate.execute(status -> {
+                    long count = processChunk(job, chunk, plans);
+                    checkOwned(taskFanoutJobRepository.addProgress(jobId, owner, chunk.size(), count,
+                            Instant.now()));
+                    return count;
+                });
+                processed += chunk.size();
+                createdTotal += created != null ? created : 0;
+            }
+
+            result = TaskFanoutJob.FanoutStatus.COMPLETED;
+            log.info("Fan-out job {} completed: {} students, {} schedules created", jobId, processed, createdTotal);
+        } catch (TakenOverException e) {
+            log.warn("Fan-out job {} was taken over by another instance; stopping here", jobId);
+            return;
+        } catch (Exception e) {
+            log.error("Fan-out job {} failed", jobId, e);
+            result = TaskFanoutJob.FanoutStatus.FAILED;
+            String message = String.valueOf(e.getMessage());
+            error = message.length() > 1000 ? message.substring(0, 1000) : message;
+        }
+
+        TaskFanoutJob.FanoutStatus status = result;
+        String message = error;
+        Integer finished = transactionTemplate.execute(tx -> taskFanoutJobRepository.finish(jobId, owner, status,
+                message, Instant.now()));
+        if (finished == null || finished == 0) {
+            log.warn("Fan-out job {} was taken over by another instance; its result is left to the new owner", jobId);
+        }
+    }
+
+    private static void checkOwned(int updated) {
+        if (updated == 0) {
+            throw new TakenOverException();
+        }
+    }
+
+    /**
+     * A conditional write found another owner on the job
+     */
+    private static final class TakenOverException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private long processChunk(TaskFanoutJob job, List<Long> chunk,
+            List<TaskScheduleMaterializer.SchedulePlan> plans) {
+        Long jobId = job.getId();
+        jdbcTemplate.batchUpdate(INSERT_STAGING_SQL, chunk, chunk.size(), (ps, studentId) -> {
+            ps.setLong(1, jobId);
+            ps.setLong(2, studentId);
+        });
+
+        long created = 0;
+        for (TaskScheduleMaterializer.SchedulePlan plan : plans) {
+            created += jdbcTemplate.update(INSERT_SCHEDULES_SQL,
+                    plan.getTaskId(),
+                    Date.valueOf(plan.getUnlockDate()),
+                    Timestamp.valueOf(plan.getDeadline()),
+                    plan.isUnlocked() ? Timestamp.valueOf(plan.getDeadline()) : null, // Set on unlock
+                    plan.isUnlocked(),
+                    jobId,
+                    plan.getTaskId(),
+                    job.getDomain());
+        }
+
+        if (created > 0) {
+            studentProgressService.recomputeForFanoutJob(jobId, job.getDomain());
+        }
+
+        jdbcTemplate.update(DELETE_STAGING_SQL, jobId);
+        return created;
+    }
+}
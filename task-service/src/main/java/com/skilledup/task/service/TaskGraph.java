@@ -0,0 +1,244 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.model.Task;
+import com.skilledup.task.model.TaskPrerequisite;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compiled prerequisite DAG of one domain. A task with customPrerequisites
+ * opens once all of its declared prerequisites are submitted; any other task
+ * keeps the original rule and opens once any active task of the previous week
+ * is submitted (week 1, or a week after an empty one, has no prerequisites).
+ * Edges to inactive tasks are dropped, since nobody can submit those.
+ * <p>
+ * Instances are immutable and shared through the TaskCatalog snapshot, so
+ * deciding what a student may open is a set operation over the IDs of the
+ * tasks they submitted (see UnlockFrontierService).
+ */
+@Slf4j
+public final class TaskGraph {
+
+    public static final TaskGraph EMPTY = new TaskGraph(Collections.emptyMap(), Collections.emptySet(),
+            Collections.emptyMap());
+
+    private static final long[] NONE = new long[0];
+
+    private final Map<Long, long[]> prerequisites;
+    private final Set<Long> anyOf; // Tasks on the previous-week rule
+    private final Map<Long, long[]> dependents;
+
+    private TaskGraph(Map<Long, long[]> prerequisites, Set<Long> anyOf, Map<Long, long[]> dependents) {
+        this.prerequisites = prerequisites;
+        this.anyOf = anyOf;
+        this.dependents = dependents;
+    }
+
+    /**
+     * Whether the task's prerequisites are met by the submitted task IDs.
+     * Tasks outside this graph have none.
+     */
+    public boolean isUnlockable(Long taskId, Set<Long> submitted) {
+        long[] required = prerequisites.getOrDefault(taskId, NONE);
+        if (required.length == 0) {
+            return true;
+        }
+        boolean any = anyOf.contains(taskId);
+        for (long prerequisite : required) {
+            boolean done = submitted.contains(prerequisite);
+            if (any && done) {
+                return true;
+            }
+            if (!any && !done) {
+                return false;
+            }
+        }
+        return !any;
+    }
+
+    /**
+     * Tasks that a submission of taskId makes unlockable: its dependents
+     * that are now satisfied and not submitted themselves. The submitted set
+     * must already contain taskId.
+     */
+    public List<Long> unlockedBy(Long taskId, Set<Long> submitted) {
+        List<Long> unlocked = new ArrayList<>();
+        for (long dependent : dependents.getOrDefault(taskId, NONE)) {
+            if (!submitted.contains(dependent) && isUnlockable(dependent, submitted)) {
+                unlocked.add(dependent);
+            }
+        }
+        return unlocked;
+    }
+
+    /**
+     * Unlock frontier: every task of the domain whose prerequisites are met
+     * and that is not submitted yet.
+     */
+    public List<Long> frontier(Set<Long> submitted) {
+        List<Long> open = new ArrayList<>();
+        for (Long taskId : prerequisites.keySet()) {
+            if (!submitted.contains(taskId) && isUnlockable(taskId, submitted)) {
+                open.add(taskId);
+            }
+        }
+        Collections.sort(open);
+        return open;
+    }
+
+    /**
+     * Tasks of the domain without prerequisites, open to every student
+     */
+    public List<Long> getRoots() {
+        List<Long> roots = new ArrayList<>();
+        prerequisites.forEach((taskId, required) -> {
+            if (required.length == 0) {
+                roots.add(taskId);
+            }
+        });
+        Collections.sort(roots);
+        return roots;
+    }
+
+    public boolean hasPrerequisites(Long taskId) {
+        return prerequisites.getOrDefault(taskId, NONE).length > 0;
+    }
+
+    /**
+     * Effective prerequisites of a task, declared or from the previous week
+     */
+    public List<Long> getPrerequisites(Long taskId) {
+        List<Long> ids = new ArrayList<>();
+        for (long id : prerequisites.getOrDefault(taskId, NONE)) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Compiles one graph per domain. With strict set, edges to missing tasks,
+     * to the task itself or across domains, and cycles, are rejected with a
+     * RuntimeException; otherwise they are logged and the offending edges
+     * skipped (tasks on a cycle stay blocked until it is fixed).
+     */
+    public static Map<String, TaskGraph> compile(Collection<Task> tasks, Collection<TaskPrerequisite> edges,
+            boolean strict) {
+        Map<Long, Task> byId = new HashMap<>();
+        Map<String, Map<Integer, List<Long>>> activeByDomainWeek = new HashMap<>();
+        for (Task task : tasks) {
+            byId.put(task.getId(), task);
+            if (task.isActive()) {
+                activeByDomainWeek.computeIfAbsent(task.getDomain(), d -> new HashMap<>())
+                        .computeIfAbsent(task.getWeekNo(), w -> new ArrayList<>())
+                        .add(task.getId());
+            }
+        }
+
+        Map<Long, Set<Long>> declared = new HashMap<>();
+        for (TaskPrerequisite edge : edges) {
+            Task task = byId.get(edge.getTaskId());
+            Task prerequisite = byId.get(edge.getPrerequisiteTaskId());
+            String problem = null;
+            if (task == null || prerequisite == null) {
+                problem = "Prerequisite task not found";
+            } else if (task.getId().equals(prerequisite.getId())) {
+                problem = "A task cannot be its own prerequisite";
+            } else if (!task.getDomain().equals(prerequisite.getDomain())) {
+                problem = "Prerequisite task " + prerequisite.getId() + " is not in domain " + task.getDomain();
+            }
+            if (problem != null) {
+                if (strict) {
+                    throw new RuntimeException(problem);
+                }
+                log.warn("Skipping prerequisite edge {} -> {}: {}", edge.getPrerequisiteTaskId(), edge.getTaskId(),
+                        problem);
+                continue;
+            }
+            if (prerequisite.isActive()) {
+                declared.computeIfAbsent(task.getId(), id -> new TreeSet<>()).add(prerequisite.getId());
+            }
+        }
+
+        Map<String, Map<Long, long[]>> prerequisitesByDomain = new HashMap<>();
+        Map<String, Set<Long>> anyOfByDomain = new HashMap<>();
+        for (Task task : tasks) {
+            Collection<Long> required;
+            if (task.isCustomPrerequisites()) {
+                required = declared.getOrDefault(task.getId(), Collections.emptySet());
+            } else {
+                required = activeByDomainWeek.getOrDefault(task.getDomain(), Collections.emptyMap())
+                        .getOrDefault(task.getWeekNo() - 1, Collections.emptyList());
+                anyOfByDomain.computeIfAbsent(task.getDomain(), d -> new HashSet<>()).add(task.getId());
+            }
+            prerequisitesByDomain.computeIfAbsent(task.getDomain(), d -> new HashMap<>())
+                    .put(task.getId(), required.stream().mapToLong(Long::longValue).toArray());
+        }
+
+        Map<String, TaskGraph> graphs = new HashMap<>();
+        prerequisitesByDomain.forEach((domain, prerequisites) -> {
+            Map<Long, long[]> dependents = invert(prerequisites);
+            List<Long> cyclic = findCycle(prerequisites, dependents);
+            if (!cyclic.isEmpty()) {
+                if (strict) {
+                    throw new RuntimeException("Prerequisites of domain " + domain + " form a cycle through tasks "
+                            + cyclic);
+                }
+                log.error("Prerequisites of domain {} form a cycle through tasks {}; they stay locked", domain,
+                        cyclic);
+            }
+            graphs.put(domain, new TaskGraph(prerequisites, anyOfByDomain.getOrDefault(domain, Collections.emptySet()),
+                    dependents));
+        });
+        return graphs;
+    }
+
+    private static Map<Long, long[]> invert(Map<Long, long[]> prerequisites) {
+        Map<Long, List<Long>> lists = new HashMap<>();
+        prerequisites.forEach((taskId, required) -> {
+            for (long prerequisite : required) {
+                lists.computeIfAbsent(prerequisite, id -> new ArrayList<>()).add(taskId);
+            }
+        });
+        Map<Long, long[]> dependents = new HashMap<>();
+        lists.forEach((id, list) -> dependents.put(id, list.stream().mapToLong(Long::longValue).sorted().toArray()));
+        return dependents;
+    }
+
+    /**
+     * Kahn's algorithm: the tasks left over once every task without pending
+     * prerequisites has been peeled off lie on (or behind) a cycle
+     */
+    private static List<Long> findCycle(Map<Long, long[]> prerequisites, Map<Long, long[]> dependents) {
+        Map<Long, Integer> pending = new HashMap<>();
+        Deque<Long> ready = new ArrayDeque<>();
+        prerequisites.forEach((taskId, required) -> {
+            pending.put(taskId, required.length);
+            if (required.length == 0) {
+                ready.add(taskId);
+            }
+        });
+        while (!ready.isEmpty()) {
+            Long taskId = ready.poll();
+            pending.remove(taskId);
+            for (long dependent : dependents.getOrDefault(taskId, NONE)) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        List<Long> cyclic = new ArrayList<>(pending.keySet());
+        Collections.sort(cyclic);
+        return cyclic;
+    }
+}
@@ -0,0 +1,153 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.ScheduleInitResult;
+import com.skilledup.task.model.Task;
+import com.skilledup.task.repository.TaskScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes TaskSchedule rows in bulk. Existing schedules are loaded with a single
+ * query and the missing rows go out as one JDBC batch, which the MySQL driver
+ * rewrites into a multi-row INSERT (rewriteBatchedStatements=true). Archived
+ * (finished) enrollments are never materialized again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskScheduleMaterializer {
+
+    static final String INSERT_SQL = "INSERT INTO task_schedule "
+            + "(student_id, task_id, unlock_date, deadline, next_reminder_at, is_unlocked, is_submitted, is_delayed) "
+            + "VALUES (?, ?, ?, ?, ?, ?, false, false)";
+
+    private static final String ARCHIVED_SQL = "SELECT EXISTS (SELECT 1 FROM task_schedule_archive "
+            + "WHERE student_id = ? AND domain = ?)";
+
+    private final TaskScheduleRepository taskScheduleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentProgressService studentProgressService;
+
+    @Transactional
+    public ScheduleInitResult materialize(Long studentId, String domain, List<Task> domainTasks) {
+        long start = System.nanoTime();
+
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(ARCHIVED_SQL, Boolean.class, studentId, domain))) {
+            log.info("Student {} finished domain {} and was archived; not materializing schedules", studentId,
+                    domain);
+            return ScheduleInitResult.builder()
+                    .studentId(studentId)
+                    .domain(domain)
+                    .existingCount(domainTasks.size())
+                    .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                    .build();
+        }
+
+        Set<Long> existingTaskIds = new HashSet<>(taskScheduleRepository.findTaskIdsByStudentId(studentId));
+
+        LocalDate now = LocalDate.now();
+        LocalDate week1UnlockDate = week1UnlockDate(now);
+
+        List<SchedulePlan> plans = domainTasks.stream()
+                .filter(task -> !existingTaskIds.contains(task.getId()))
+                .map(task -> plan(task, week1UnlockDate, now))
+                .collect(Collectors.toList());
+
+        if (!plans.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, plans, plans.size(), (ps, plan) -> {
+                ps.setLong(1, studentId);
+                ps.setLong(2, plan.getTaskId());
+                ps.setDate(3, Date.valueOf(plan.getUnlockDate()));
+                ps.setTimestamp(4, Timestamp.valueOf(plan.getDeadline()));
+                // First reminder at the deadline; locked rows get theirs on unlock
+                ps.setTimestamp(5, plan.isUnlocked() ? Timestamp.valueOf(plan.getDeadline()) : null);
+                ps.setBoolean(6, plan.isUnlocked());
+            });
+            studentProgressService.adjust(studentId, domain, plans.size(), 0, 0);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Materialized {} task schedules for student {} in domain {} ({} already present) in {} ms",
+                plans.size(), studentId, domain, domainTasks.size() - plans.size(), elapsedMillis);
+
+        return ScheduleInitResult.builder()
+                .studentId(studentId)
+                .domain(domain)
+                .createdCount(plans.size())
+                .existingCount(domainTasks.size() - plans.size())
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    /**
+     * If today is Monday, Week 1 starts today. Otherwise, next Monday.
+     */
+    public LocalDate week1UnlockDate(LocalDate now) {
+        if (now.getDayOfWeek() == DayOfWeek.MONDAY) {
+            return now;
+        }
+        return now.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Unlock date, deadline and initial lock state for a task. These depend only
+     * on the task and the current date, so one plan serves every student.
+     */
+    public SchedulePlan plan(Task task, LocalDate week1UnlockDate, LocalDate now) {
+        LocalDate unlockDate;
+        LocalDateTime deadline;
+
+        if (task.isManual()) {
+            // Manual Mode: Use configured dates strictly
+            if (task.getStartDate() != null) {
+                unlockDate = LocalDate.ofInstant(task.getStartDate(), ZoneId.of("UTC"));
+            } else {
+                unlockDate = now; // Fallback
+            }
+
+            if (task.getDeadline() != null) {
+                deadline = LocalDateTime.ofInstant(task.getDeadline(), ZoneId.of("UTC"));
+            } else {
+                deadline = unlockDate.plusDays(6).atTime(23, 59, 59);
+            }
+        } else {
+            // Auto Mode: Weekly Schedule relative to "Next Monday"
+            long weekOffset = task.getWeekNo() - 1;
+            unlockDate = week1UnlockDate.plusWeeks(weekOffset);
+            deadline = unlockDate.plusDays(6).atTime(23, 59, 59);
+        }
+
+        // Tasks are locked initially and the scheduler unlocks them when the date
+        // arrives. Week 1 (and manual tasks already started) open immediately.
+        boolean shouldUnlock = !unlockDate.isAfter(now) && task.getWeekNo() == 1;
+        if (task.isManual() && !unlockDate.isAfter(now)) {
+            shouldUnlock = true;
+        }
+
+        return new SchedulePlan(task.getId(), unlockDate, deadline, shouldUnlock);
+    }
+
+    @Value
+    public static class SchedulePlan {
+        Long taskId;
+        LocalDate unlockDate;
+        LocalDateTime deadline;
+        boolean unlocked;
+    }
+}
@@ -1,114 +1,182 @@
 package com.skilledup.task.service;
 
-import com.skilledup.task.client.NotificationClient;
-import com.skilledup.task.dto.EmailRequest;
-import com.skilledup.task.model.TaskSchedule;
+import com.skilledup.task.dto.UnlockCandidateView;
+import com.skilledup.task.dto.UnlockRunResult;
+import com.skilledup.task.model.NotificationOutbox;
+import com.skilledup.task.model.SubmissionIntake;
 import com.skilledup.task.repository.TaskScheduleRepository;
+import com.skilledup.task.scheduler.SchedulerMetrics;
+import com.skilledup.task.scheduler.ShardCoordinator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TaskSchedulerService {
 
+    private static final int UNLOCK_CHUNK_SIZE = 1000;
+
     private final TaskScheduleRepository taskScheduleRepository;
-    private final NotificationClient notificationClient;
-    private final com.skilledup.task.client.StudentClient studentClient;
-    // We now have StudentClient to lookup email.
+    private final NotificationOutboxService notificationOutboxService;
+    private final StudentProgressService studentProgressService;
+    private final UnlockFrontierService unlockFrontierService;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardCoordinator shardCoordinator;
+    private final SchedulerMetrics schedulerMetrics;
+
+    @Value("${task.deadline.chunk-size:1000}")
+    private int deadlineChunkSize;
 
     /**
-     * Runs daily at Midnight to unlock tasks scheduled for today (Mondays).
+     * Unlocks schedules handed over by the unlock timing wheel once their unlock
+     * date has arrived. The due IDs are grouped by student shard and each shard
+     * this instance can claim is processed under its lock: one query per chunk
+     * re-checks the rows, prerequisites are evaluated in memory against the
+     * students' unlock frontier (one more read, only for gated tasks),
+     * unlockable rows are flipped with a bulk UPDATE and their emails queued in
+     * the same transaction. IDs of shards held by another instance are returned
+     * as deferred for the next tick. Schedules whose prerequisites are not yet
+     * submitted stay locked and are opened on submission.
      */
-    @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
-    public void unlockScheduledTasks() {
+    public UnlockRunResult unlockDueSchedules(List<Long> scheduleIds) {
+        long start = System.currentTimeMillis();
         LocalDate today = LocalDate.now();
-        log.info("Running scheduled unlock for date: {}", today);
+        int shardCount = shardCoordinator.getShardCount();
 
-        List<TaskSchedule> schedulesToUnlock = taskScheduleRepository.findByUnlockDateAndIsUnlockedFalse(today);
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (int from = 0; from < scheduleIds.size(); from += UNLOCK_CHUNK_SIZE) {
+            List<Long> chunk = scheduleIds.subList(from, Math.min(from + UNLOCK_CHUNK_SIZE, scheduleIds.size()));
+            for (UnlockCandidateView view : taskScheduleRepository.findUnlockCandidates(chunk, today, shardCount)) {
+                idsByShard.computeIfAbsent(view.getShard(), shard -> new ArrayList<>()).add(view.getId());
+            }
+        }
 
-        for (TaskSchedule schedule : schedulesToUnlock) {
-            boolean canUnlock = checkPrerequisites(schedule);
+        int[] counts = new int[2]; // candidates, unlocked
+        List<Long> deferred = new ArrayList<>();
+        idsByShard.forEach((shard, ids) -> {
+            boolean claimed = shardCoordinator.runIfClaimed("unlock", shard, () -> {
+                Instant deadline = shardCoordinator.deadline();
+                // Re-read under the lock: the previous holder may have just
+                // unlocked some of these
+                for (int from = 0; from < ids.size(); from += UNLOCK_CHUNK_SIZE) {
+                    if (from > 0 && Instant.now().isAfter(deadline)) {
+                        // Handed back to the wheel like a shard held elsewhere
+                        deferred.addAll(ids.subList(from, ids.size()));
+                        break;
+                    }
+                    List<Long> chunk = ids.subList(from, Math.min(from + UNLOCK_CHUNK_SIZE, ids.size()));
+                    transactionTemplate.executeWithoutResult(status -> unlockChunk(chunk, today, shardCount, counts));
+                }
+            });
+            if (!claimed) {
+                deferred.addAll(ids);
+            }
+        });
+
+        UnlockRunResult result = UnlockRunResult.builder()
+                .due(scheduleIds.size())
+                .candidates(counts[0])
+                .unlocked(counts[1])
+                .blocked(counts[0] - counts[1])
+                .deferred(deferred.size())
+                .deferredIds(deferred)
+                .elapsedMillis(System.currentTimeMillis() - start)
+                .build();
+        log.info("Unlock run: {} due, {} unlocked, {} blocked by prerequisites, {} deferred to other instances in {} ms",
+                result.getDue(), result.getUnlocked(), result.getBlocked(), result.getDeferred(),
+                result.getElapsedMillis());
+        return result;
+    }
 
-            if (canUnlock) {
-                schedule.setUnlocked(true);
-                taskScheduleRepository.save(schedule);
-                log.info("Unlocked task {} for student {}", schedule.getTask().getTitle(), schedule.getStudentId());
+    private void unlockChunk(List<Long> ids, LocalDate today, int shardCount, int[] counts) {
+        List<UnlockCandidateView> views = taskScheduleRepository.findUnlockCandidates(ids, today, shardCount);
+        List<Long> unlockable = unlockFrontierService.filterUnlockable(views);
 
-                // Send Email Alert
-                sendTaskUnlockedEmail(schedule);
-            }
+        counts[0] += views.size();
+        if (!unlockable.isEmpty()) {
+            counts[1] += taskScheduleRepository.unlockByIds(unlockable);
+            notificationOutboxService.enqueueForSchedules(NotificationOutbox.NotificationType.TASK_UNLOCKED,
+                    unlockable);
         }
     }
 
     /**
-     * Runs every hour to check for missed deadlines.
+     * Runs every hour to check for missed deadlines. Each student shard this
+     * instance can claim is swept in chunks, each with its own short
+     * transaction: one ID read, one bulk UPDATE, one counter upsert and one
+     * INSERT ... SELECT into the outbox. Row locks are held for a single chunk
+     * only, and the emails themselves go out from the outbox worker after
+     * commit.
      */
-    @Scheduled(cron = "0 0 * * * *")
-    @Transactional
+    @Scheduled(cron = "${task.deadline.cron:0 0 * * * *}")
     public void checkDeadlines() {
+        long start = System.currentTimeMillis();
         LocalDateTime now = LocalDateTime.now();
 
-        List<TaskSchedule> lateTasks = taskScheduleRepository
-                .findByDeadlineBeforeAndIsSubmittedFalseAndIsDelayedFalseAndIsUnlockedTrue(now);
-
-        for (TaskSchedule schedule : lateTasks) {
-            schedule.setDelayed(true);
-            taskScheduleRepository.save(schedule);
-            log.info("Marked task {} as DELAYED for student {}", schedule.getTask().getTitle(),
-                    schedule.getStudentId());
-
-            // Send Email Alert
-            sendTaskDelayedEmail(schedule);
+        int[] counts = new int[2]; // scanned, marked
+        int[] shards = new int[1];
+        schedulerMetrics.run(SchedulerMetrics.DEADLINE, () -> {
+            shards[0] = shardCoordinator.forEachClaimedShard("deadline", shard -> sweepShard(now, shard, counts));
+            return counts[0];
+        });
+        schedulerMetrics.rows(SchedulerMetrics.DEADLINE, "marked_delayed", counts[1]);
+        schedulerMetrics.notifications(NotificationOutbox.NotificationType.TASK_DELAYED.name(), "queued", counts[1]);
+
+        if (counts[1] > 0) {
+            log.info("Deadline sweep: marked {} schedules as DELAYED across {} shards in {} ms", counts[1],
+                    shards[0], System.currentTimeMillis() - start);
         }
     }
 
-    private boolean checkPrerequisites(TaskSchedule schedule) {
-        if (schedule.getTask().getWeekNo() == 1)
-            return true; // Week 1 has no prerequisite
-
-        Integer prevWeek = schedule.getTask().getWeekNo() - 1;
-        String domain = schedule.getTask().getDomain();
-        Long studentId = schedule.getStudentId();
-
-        return taskScheduleRepository.isPreviousTaskCompleted(studentId, domain, prevWeek);
-    }
-
-    private void sendTaskUnlockedEmail(TaskSchedule schedule) {
-        try {
-            com.skilledup.task.dto.StudentResponse student = studentClient.getStudentById(schedule.getStudentId());
-            if (student != null && student.getEmail() != null) {
-                notificationClient.sendEmail(new EmailRequest(student.getEmail(), "New Task Unlocked",
-                        "Task " + schedule.getTask().getTitle() + " is now available."));
-                log.info("Sent Task Unlocked Email to {}", student.getEmail());
-            } else {
-                log.warn("Could not find student email for ID {}", schedule.getStudentId());
+    private void sweepShard(LocalDateTime now, int shard, int[] counts) {
+        Instant deadline = shardCoordinator.deadline();
+        long lastId = 0L;
+        List<Long> chunk;
+        do {
+            chunk = taskScheduleRepository.findLateIdsAfterId(now, lastId, shardCoordinator.getShardCount(), shard,
+                    SubmissionIntake.IntakeStatus.QUEUED, PageRequest.of(0, deadlineChunkSize));
+            if (chunk.isEmpty()) {
+                break;
             }
-        } catch (Exception e) {
-            log.error("Failed to send unlocked email", e);
-        }
+            List<Long> ids = chunk;
+            counts[0] += chunk.size();
+            counts[1] += transactionTemplate.execute(status -> markDelayed(ids));
+            lastId = chunk.get(chunk.size() - 1);
+            if (chunk.size() == deadlineChunkSize && Instant.now().isAfter(deadline)) {
+                // Late rows left here are marked on the next sweep
+                log.warn("Deadline sweep of shard {} stopped at schedule {} to stay inside its lock", shard, lastId);
+                break;
+            }
+        } while (chunk.size() == deadlineChunkSize);
     }
 
-    private void sendTaskDelayedEmail(TaskSchedule schedule) {
-        try {
-            com.skilledup.task.dto.StudentResponse student = studentClient.getStudentById(schedule.getStudentId());
-            if (student != null && student.getEmail() != null) {
-                notificationClient.sendEmail(new EmailRequest(student.getEmail(), "Task Deadline Missed",
-                        "Your task " + schedule.getTask().getTitle() + " is now marked as Delayed."));
-                log.info("Sent Task Delayed Email to {}", student.getEmail());
-            } else {
-                log.warn("Could not find student email for ID {}", schedule.getStudentId());
-            }
-        } catch (Exception e) {
-            log.error("Failed to send delayed email", e);
+    private int markDelayed(List<Long> ids) {
+        int updated = taskScheduleRepository.markDelayedByIds(ids, SubmissionIntake.IntakeStatus.QUEUED);
+        if (updated == 0) {
+            return 0;
         }
+        // Some rows were submitted between the read and the UPDATE; keep only
+        // the ones this transaction actually flipped
+        List<Long> delayed = updated == ids.size() ? ids : taskScheduleRepository.findDelayedIdsIn(ids);
+
+        studentProgressService.addDelayed(delayed);
+
+        // Email Alerts, delivered by the outbox worker after commit
+        notificationOutboxService.enqueueForSchedules(NotificationOutbox.NotificationType.TASK_DELAYED, delayed);
+        return updated;
     }
 }
@@ -3,8 +3,10 @@ package com.skilledup.task.service;
 import com.skilledup.task.dto.SubmissionRequest;
 import com.skilledup.task.model.Submission;
 import com.skilledup.task.model.Task;
+import com.skilledup.task.model.TaskPrerequisite;
 import com.skilledup.task.model.TaskSchedule;
 import com.skilledup.task.repository.SubmissionRepository;
+import com.skilledup.task.repository.TaskPrerequisiteRepository;
 import com.skilledup.task.repository.TaskRepository;
 import com.skilledup.task.repository.TaskScheduleRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,7 +14,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -22,9 +29,16 @@ public class TaskService {
     private final TaskRepository taskRepository;
     private final SubmissionRepository submissionRepository;
     private final TaskScheduleRepository taskScheduleRepository;
+    private final TaskPrerequisiteRepository taskPrerequisiteRepository;
 
     private final S3Service s3Service;
-    private final com.skilledup.task.client.StudentClient studentClient;
+    private final TaskScheduleMaterializer taskScheduleMaterializer;
+    private final TaskFanoutService taskFanoutService;
+    private final StudentProgressService studentProgressService;
+    private final PerformanceService performanceService;
+    private final TaskCatalog taskCatalog;
+    private final SimilarityIndexService similarityIndexService;
+    private final UnlockFrontierService unlockFrontierService;
 
     @org.springframework.beans.factory.annotation.Value("${cloud.aws.s3.bucket}")
     private String bucketName;
@@ -46,102 +60,19 @@ public class TaskService {
                 .active(true)
                 .build();
         Task savedTask = taskRepository.save(task);
+        applyPrerequisites(savedTask, request.getPrerequisiteTaskIds());
+        taskCatalog.refreshAfterCommit();
+        unlockFrontierService.recomputeAfterCommit(savedTask.getDomain());
 
-        // Assign to active students
-        assignTaskToActiveStudents(savedTask);
+        // Schedules for the active cohort are created by a background job once
+        // this transaction commits, so the admin request returns immediately.
+        // Existing students get the new task relative to the current week
+        // ("new content release"), same as initializeTaskSchedules.
+        taskFanoutService.startFanout(savedTask);
 
         return savedTask;
     }
 
-    private void assignTaskToActiveStudents(Task task) {
-        try {
-            List<Long> studentIds = studentClient.getActiveStudentsByDomain(task.getDomain());
-            if (studentIds.isEmpty()) {
-                log.info("No active students found for domain: {}", task.getDomain());
-                return;
-            }
-
-            java.time.LocalDate now = java.time.LocalDate.now();
-            java.time.LocalDate week1UnlockDate;
-            if (now.getDayOfWeek() == java.time.DayOfWeek.MONDAY) {
-                week1UnlockDate = now;
-            } else {
-                week1UnlockDate = now.with(java.time.temporal.TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
-            }
-            // Logic validation: existing students might have different start dates.
-            // But for simplicity/MVP, we'll assume the task week relates to the "Program
-            // Week".
-            // Ideally we need to know each student's start date to calculate THEIR unlock
-            // date.
-            // However, the current initializeTaskSchedule logic uses "Next Monday" as Week
-            // 1 for EVERYONE engaging.
-            // Wait, initializeTaskSchedules calculates unlockDate based on NOW.
-
-            // For existing students, we should probably fetch their enrollment or just use
-            // the current logic which assigns it "relative to program start"?
-            // Actually `initializeTaskSchedules` sets unlock dates based on Week 1 = Next
-            // Monday.
-
-            // If we are adding a NEW task (e.g. Week 1 Task 2), and the student is in Week
-            // 3, this task should be unlocked immediately (or have passed).
-            // But we don't have the student's start date here.
-
-            // Simplification: We will assign the task with unlock date = task.weekNo
-            // relative to "Now" is wrong if they started weeks ago.
-            // BUT, `StudentClient` only returns IDs.
-
-            // CRITICAL: We need to know when the student started to calculate valid unlock
-            // dates.
-            // Or we just set it to "Now" if WeekNo matching?
-            // "initializeTaskSchedules" assumes a fresh batch or re-calc.
-
-            // Let's refine the requirement: "Display task to student".
-            // If we blindly create a schedule with unlockDate = Now (if week matches) or
-            // future.
-
-            // Re-use logic: The `initializeTaskSchedules` logic calculates absolute dates
-            // from "Next Monday".
-            // This implies a "Batch" system where everyone starts next Monday?
-            // If so, then for current students, "Next Monday" might be in the past? No.
-
-            // Let's look at `initializeTaskSchedules` again.
-            // `week1UnlockDate = now` if Monday, else `next(Monday)`.
-            // So it sets the schedule relative to the CURRENT calendar week.
-            // If I am in Week 5 (enrolled 5 weeks ago), and a new Week 1 task is added.
-            // If we use the same logic, it will be scheduled for "Next Monday" (Week 1 of
-            // 'current time').
-            // This means an old student sees a new Week 1 task as "Future".
-
-            // To do this correctly, we'd need the student's Enrolled Date.
-            // But we can't get that easily efficiently for all.
-
-            // Workaround: Call `initializeTaskSchedules` for each student found?
-            // `initializeTaskSchedules` (in TaskService) fetches ALL tasks for the domain
-            // and adds missing schedules.
-            // perfect!
-            // I just need to iterate IDs and call `initializeTaskSchedules(studentId,
-            // task.getDomain())`
-            // But wait, `initializeTaskSchedules` re-calculates dates based on "Now".
-            // If I call it today for an old student, it will schedule the new task for Next
-            // Monday.
-            // This is acceptable behavior for "New Content Release".
-
-            studentIds.forEach(studentId -> {
-                initializeTaskSchedules(studentId, task.getDomain());
-            });
-
-        } catch (Exception e) {
-            log.error("Failed to assign new task to students", e);
-        }
-    }
-
-    public List<TaskSchedule> getMyTasks(Long studentId) {
-        List<TaskSchedule> schedules = taskScheduleRepository.findByStudentId(studentId);
-        return schedules.stream()
-                .peek(schedule -> schedule.setTask(signTaskUrls(schedule.getTask())))
-                .collect(java.util.stream.Collectors.toList());
-    }
-
     public List<Task> getAllTasks() {
         return taskRepository.findAll();
     }
@@ -172,6 +103,7 @@ public class TaskService {
                 .isManual(task.isManual())
                 .autoReview(task.isAutoReview())
                 .active(task.isActive())
+                .customPrerequisites(task.isCustomPrerequisites())
                 .createdAt(task.getCreatedAt())
                 .build();
     }
@@ -193,8 +125,8 @@ public class TaskService {
 
     @Transactional
     public Submission submitTask(SubmissionRequest request) {
-        // Find task
-        Task task = taskRepository.findById(request.getTaskId())
+        // Find task (catalog snapshot; queried only on a miss)
+        Task task = taskCatalog.findTask(request.getTaskId())
                 .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Find task schedule
@@ -230,13 +162,21 @@ public class TaskService {
                 .build();
 
         submission = submissionRepository.save(submission);
+        performanceService.recordScoreChange(request.getStudentId(), task.getDomain(), null, initialScore);
+        similarityIndexService.checkAfterCommit(List.of(submission.getId()));
 
         // Update schedule
         schedule.setSubmitted(true);
+        schedule.rescheduleReminder();
         taskScheduleRepository.save(schedule);
+        studentProgressService.adjust(request.getStudentId(), task.getDomain(), 0, 1, 0);
 
-        // Sequential unlock: Unlock next task
-        unlockNextTask(request.getStudentId(), task);
+        // Unlock the tasks this submission completes the prerequisites of
+        List<Long> unlocked = unlockFrontierService.onSubmitted(request.getStudentId(), task);
+        if (!unlocked.isEmpty()) {
+            taskScheduleRepository.unlockForStudent(request.getStudentId(), unlocked);
+            log.info("Auto-unlocked tasks {} for student {}", unlocked, request.getStudentId());
+        }
 
         log.info("Student {} submitted task {}. Auto-Review: {}", request.getStudentId(), task.getTitle(),
                 task.isAutoReview());
@@ -244,24 +184,6 @@ public class TaskService {
         return submission;
     }
 
-    private void unlockNextTask(Long studentId, Task currentTask) {
-        // Find next week's task in same domain
-        Integer nextWeek = currentTask.getWeekNo() + 1;
-
-        taskRepository.findByDomainAndWeekNoAndActiveTrue(currentTask.getDomain(), nextWeek)
-                .ifPresent(nextTask -> {
-                    taskScheduleRepository.findByStudentIdAndTaskId(studentId, nextTask.getId())
-                            .ifPresent(nextSchedule -> {
-                                if (!nextSchedule.isUnlocked()) {
-                                    nextSchedule.setUnlocked(true);
-                                    taskScheduleRepository.save(nextSchedule);
-                                    log.info("Auto-unlocked next task {} for student {}",
-                                            nextTask.getTitle(), studentId);
-                                }
-                            });
-                });
-    }
-
     public List<Submission> getMySubmissions(Long studentId) {
         List<Submission> submissions = submissionRepository.findByStudentId(studentId);
         return submissions.stream()
@@ -317,82 +239,20 @@ public class TaskService {
     }
 
     @Transactional
-    public void initializeTaskSchedules(Long studentId, String domain) {
-        List<Task> domainTasks = taskRepository.findByDomainAndActiveTrue(domain);
-
-        java.time.LocalDate now = java.time.LocalDate.now();
-        java.time.LocalDate week1UnlockDate;
-
-        // If today is Monday, Week 1 starts today. Otherwise, next Monday.
-        if (now.getDayOfWeek() == java.time.DayOfWeek.MONDAY) {
-            week1UnlockDate = now;
-        } else {
-            week1UnlockDate = now.with(java.time.temporal.TemporalAdjusters.next(java.time.DayOfWeek.MONDAY));
-        }
-
-        java.time.LocalDate finalWeek1UnlockDate = week1UnlockDate;
-
-        List<TaskSchedule> schedules = domainTasks.stream()
-                .filter(task -> !taskScheduleRepository.findByStudentIdAndTaskId(studentId, task.getId()).isPresent())
-                .map(task -> {
-                    java.time.LocalDate unlockDate;
-                    java.time.LocalDateTime deadline;
-
-                    if (task.isManual()) {
-                        // Manual Mode: Use configured dates strictly
-                        if (task.getStartDate() != null) {
-                            unlockDate = java.time.LocalDate.ofInstant(task.getStartDate(), java.time.ZoneId.of("UTC"));
-                        } else {
-                            unlockDate = java.time.LocalDate.now(); // Fallback
-                        }
-
-                        if (task.getDeadline() != null) {
-                            deadline = java.time.LocalDateTime.ofInstant(task.getDeadline(),
-                                    java.time.ZoneId.of("UTC"));
-                        } else {
-                            deadline = unlockDate.plusDays(6).atTime(23, 59, 59);
-                        }
-                    } else {
-                        // Auto Mode: Weekly Schedule relative to "Next Monday"
-                        long weekOffset = task.getWeekNo() - 1;
-                        unlockDate = finalWeek1UnlockDate.plusWeeks(weekOffset);
-                        deadline = unlockDate.plusDays(6).atTime(23, 59, 59);
-                    }
-
-                    // Tasks are locked initially. Scheduler unlocks them when date arrives.
-                    // Exception: If current date matches unlock date (e.g. today is Monday), we can
-                    // unlock immediately?
-                    // Better to let Scheduler handle it or do it here if date matches.
-                    boolean shouldUnlock = !unlockDate.isAfter(now) && task.getWeekNo() == 1;
-                    if (task.isManual() && !unlockDate.isAfter(now)) {
-                        shouldUnlock = true;
-                    }
-
-                    return TaskSchedule.builder()
-                            .studentId(studentId)
-                            .task(task)
-                            .unlockDate(unlockDate)
-                            .deadline(deadline)
-                            .isUnlocked(shouldUnlock)
-                            .isSubmitted(false)
-                            .build();
-                })
-                .collect(java.util.stream.Collectors.toList());
-
-        if (!schedules.isEmpty()) {
-            taskScheduleRepository.saveAll(schedules);
-            log.info("Initialized {} new task schedules for student {}", schedules.size(), studentId);
-        } else {
-            log.info("No new tasks to initialize for student {}", studentId);
-        }
+    public com.skilledup.task.dto.ScheduleInitResult initializeTaskSchedules(Long studentId, String domain) {
+        List<Task> domainTasks = taskCatalog.getActiveTasks(domain);
+        return taskScheduleMaterializer.materialize(studentId, domain, domainTasks);
     }
 
     @Transactional
     public Submission reviewSubmission(Long submissionId, String status, Integer score) {
+        submissionRepository.lockByIdIn(List.of(submissionId));
         Submission submission = submissionRepository.findById(submissionId)
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
 
         Submission.SubmissionStatus newStatus = Submission.SubmissionStatus.valueOf(status);
+        performanceService.recordScoreChange(submission.getStudentId(), submission.getTask().getDomain(),
+                submission.getScore(), score);
         submission.setStatus(newStatus);
         submission.setScore(score);
 
@@ -403,6 +263,14 @@ public class TaskService {
     public Task updateTask(Long taskId, com.skilledup.task.dto.CreateTaskRequest request) {
         Task task = taskRepository.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
+        String oldDomain = task.getDomain();
+
+        // Schedules follow the task into its new domain
+        if (request.getDomain() != null && !request.getDomain().equals(task.getDomain())) {
+            studentProgressService.onTaskMoved(taskId, task.getDomain(), request.getDomain());
+            performanceService.onTaskMoved(taskId, task.getDomain(), request.getDomain());
+            unlockFrontierService.onTaskMoved(taskId, task.getDomain(), request.getDomain());
+        }
 
         task.setTitle(request.getTitle());
         task.setDescription(request.getDescription());
@@ -445,10 +313,73 @@ public class TaskService {
         }
 
         Task updatedTask = taskRepository.save(task);
+        applyPrerequisites(updatedTask, request.getPrerequisiteTaskIds());
+        if (!oldDomain.equals(updatedTask.getDomain())) {
+            compileDomain(oldDomain);
+        }
+        taskCatalog.refreshAfterCommit();
+        unlockFrontierService.recomputeAfterCommit(oldDomain, updatedTask.getDomain());
         log.info("Updated task {} with ID {}", updatedTask.getTitle(), taskId);
         return updatedTask;
     }
 
+    /**
+     * Puts a task back on the default rule: it opens once any task of the
+     * previous week is submitted.
+     */
+    @Transactional
+    public Task resetPrerequisites(Long taskId) {
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        taskPrerequisiteRepository.deleteByTaskId(taskId);
+        task.setCustomPrerequisites(false);
+        Task updatedTask = taskRepository.save(task);
+        applyPrerequisites(updatedTask, null);
+        taskCatalog.refreshAfterCommit();
+        unlockFrontierService.recomputeAfterCommit(updatedTask.getDomain());
+        return updatedTask;
+    }
+
+    public List<Long> getUnlockFrontier(Long studentId, String domain) {
+        return unlockFrontierService.getFrontier(studentId, domain);
+    }
+
+    /**
+     * Replaces the task's declared prerequisites when the request has a list,
+     * then compiles the task's domain as it will be after this edit: edges
+     * outside the domain and cycles (including ones closed by a week or domain
+     * change) roll the edit back.
+     */
+    private void applyPrerequisites(Task task, List<Long> prerequisiteTaskIds) {
+        if (prerequisiteTaskIds != null) {
+            taskPrerequisiteRepository.deleteByTaskId(task.getId());
+            for (Long prerequisiteTaskId : new LinkedHashSet<>(prerequisiteTaskIds)) {
+                taskPrerequisiteRepository.save(new TaskPrerequisite(task.getId(), prerequisiteTaskId));
+            }
+            task.setCustomPrerequisites(true);
+        }
+        compileDomain(task.getDomain());
+    }
+
+    /**
+     * Strict compile of one domain: its tasks, their edges and the tasks
+     * those point at, so an edge into another domain is still reported.
+     * Both reads flush first, so they see the current edit.
+     */
+    private void compileDomain(String domain) {
+        List<TaskPrerequisite> edges = taskPrerequisiteRepository.findByTaskDomain(domain);
+        Map<Long, Task> tasks = new HashMap<>();
+        taskRepository.findByDomain(domain).forEach(t -> tasks.put(t.getId(), t));
+        Set<Long> outside = new HashSet<>();
+        for (TaskPrerequisite edge : edges) {
+            if (!tasks.containsKey(edge.getPrerequisiteTaskId())) {
+                outside.add(edge.getPrerequisiteTaskId());
+            }
+        }
+        taskRepository.findAllById(outside).forEach(t -> tasks.put(t.getId(), t));
+        TaskGraph.compile(tasks.values(), edges, true);
+    }
+
     private boolean isSignedUrl(String url) {
         if (url == null)
             return false;
@@ -465,10 +396,15 @@ public class TaskService {
                 .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Delete associated task schedules first
+        studentProgressService.onTaskDeleted(taskId, task.getDomain());
+        unlockFrontierService.onTaskDeleted(taskId, task.getDomain());
         taskScheduleRepository.deleteByTaskId(taskId);
+        taskPrerequisiteRepository.deleteTouching(taskId);
 
         // Delete the task
         taskRepository.delete(task);
+        taskCatalog.refreshAfterCommit();
+        unlockFrontierService.recomputeAfterCommit(task.getDomain());
         log.info("Deleted task {} with ID {}", task.getTitle(), taskId);
     }
 
@@ -512,6 +448,7 @@ public class TaskService {
 
     @Transactional
     public void deleteSubmission(Long submissionId) {
+        submissionRepository.lockByIdIn(List.of(submissionId));
         Submission submission = submissionRepository.findById(submissionId)
                 .orElseThrow(() -> new RuntimeException("Submission not found"));
 
@@ -522,7 +459,11 @@ public class TaskService {
 
         if (schedule.isSubmitted()) {
             schedule.setSubmitted(false);
+            schedule.rescheduleReminder();
             taskScheduleRepository.save(schedule);
+            studentProgressService.adjust(schedule.getStudentId(), schedule.getTask().getDomain(), 0, -1, 0);
+            unlockFrontierService.onUnsubmitted(schedule.getStudentId(), schedule.getTask().getDomain(),
+                    schedule.getTask().getId());
         }
 
         // Delete from S3
@@ -534,6 +475,9 @@ public class TaskService {
             }
         }
 
+        performanceService.recordScoreChange(submission.getStudentId(), submission.getTask().getDomain(),
+                submission.getScore(), null);
+        similarityIndexService.onSubmissionDeleted(submissionId);
         submissionRepository.delete(submission);
         log.info("Deleted submission {} for student {}", submissionId, submission.getStudentId());
     }
@@ -550,7 +494,11 @@ public class TaskService {
         schedule.setUnlockDate(lastMonday);
         schedule.setDeadline(lastSunday);
         schedule.setUnlocked(true);
+        if (!schedule.isDelayed()) {
+            studentProgressService.adjust(studentId, schedule.getTask().getDomain(), 0, 0, 1);
+        }
         schedule.setDelayed(true); // Force delayed
+        schedule.rescheduleReminder();
 
         taskScheduleRepository.save(schedule);
         log.info("Simulated delay for student {} task {}", studentId, taskId);
@@ -561,17 +509,13 @@ public class TaskService {
      * Used for LOR eligibility checking
      */
     public java.util.Map<String, Object> getTaskCompletionStats(Long studentId, String domain) {
-        List<TaskSchedule> schedules = taskScheduleRepository.findByStudentId(studentId);
-
-        // Filter by domain
-        List<TaskSchedule> domainSchedules = schedules.stream()
-                .filter(s -> s.getTask().getDomain().equals(domain))
-                .collect(java.util.stream.Collectors.toList());
+        // Single primary-key read of the maintained counters
+        com.skilledup.task.model.StudentDomainProgress progress = studentProgressService
+                .getProgress(studentId, domain)
+                .orElse(null);
 
-        int totalTasks = domainSchedules.size();
-        int completedTasks = (int) domainSchedules.stream()
-                .filter(TaskSchedule::isSubmitted)
-                .count();
+        int totalTasks = progress != null ? progress.getTotalTasks() : 0;
+        int completedTasks = progress != null ? progress.getSubmittedTasks() : 0;
 
         int completionPercent = totalTasks > 0 ? (completedTasks * 100) / totalTasks : 0;
         boolean meetsMinimumRequirement = completionPercent >= 95;
@@ -579,6 +523,7 @@ public class TaskService {
         java.util.Map<String, Object> stats = new java.util.HashMap<>();
         stats.put("totalTasks", totalTasks);
         stats.put("completedTasks", completedTasks);
+        stats.put("delayedTasks", progress != null ? progress.getDelayedTasks() : 0);
         stats.put("completionPercent", completionPercent);
         stats.put("meetsMinimumRequirement", meetsMinimumRequirement);
 
@@ -0,0 +1,391 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.UnlockCandidateView;
+import com.skilledup.task.model.StudentFrontier;
+import com.skilledup.task.model.Task;
+import com.skilledup.task.repository.StudentFrontierRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps student_frontier_tasks (per student and domain, the tasks submitted
+ * and the tasks whose prerequisites are met) in step with task_schedule and
+ * answers unlock questions from it. A submission marks its task SUBMITTED and
+ * adds the dependents it satisfies as OPEN, a set operation against the
+ * domain's compiled TaskGraph; whether a due schedule may unlock is then a
+ * lookup of its OPEN row instead of a query per prerequisite.
+ * <p>
+ * Every write method joins the caller's transaction, which must already have
+ * updated the student's progress counters: that row lock serializes
+ * concurrent submissions of one student and domain, so the locking reads here
+ * see all of them. OPEN rows follow the graph of the instance that wrote
+ * them; after a prerequisite edit the domain is recomputed once the edit
+ * commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnlockFrontierService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String MARK_SUBMITTED_SQL = "INSERT INTO student_frontier_tasks "
+            + "(student_id, domain, task_id, state, updated_at) VALUES (?, ?, ?, 'SUBMITTED', NOW()) "
+            + "ON DUPLICATE KEY UPDATE state = 'SUBMITTED', updated_at = NOW()";
+
+    // Leaves a SUBMITTED row as it is
+    private static final String ADD_OPEN_SQL = "INSERT INTO student_frontier_tasks "
+            + "(student_id, domain, task_id, state, updated_at) VALUES (?, ?, ?, 'OPEN', NOW()) "
+            + "ON DUPLICATE KEY UPDATE task_id = task_id";
+
+    private static final String DELETE_SQL = "DELETE FROM student_frontier_tasks "
+            + "WHERE student_id = ? AND domain = ? AND task_id = ?";
+
+    private static final String SELECT_SQL = "SELECT task_id, state FROM student_frontier_tasks "
+            + "WHERE student_id = ? AND domain = ? FOR UPDATE";
+
+    private static final String SELECT_STUDENTS_SQL = "SELECT student_id, domain, task_id, state "
+            + "FROM student_frontier_tasks WHERE student_id IN (:studentIds) FOR UPDATE";
+
+    private static final String SELECT_OPEN_SQL = "SELECT student_id, task_id FROM student_frontier_tasks "
+            + "WHERE state = 'OPEN' AND (student_id, domain, task_id) IN (:keys)";
+
+    private static final String DELETE_TASK_SQL = "DELETE FROM student_frontier_tasks WHERE task_id = ?";
+
+    // Adds a task to the students who submitted it, after it moved domain
+    private static final String ADD_TASK_SQL = "INSERT INTO student_frontier_tasks "
+            + "(student_id, domain, task_id, state, updated_at) "
+            + "SELECT student_id, ?, task_id, 'SUBMITTED', NOW() "
+            + "FROM task_schedule WHERE task_id = ? AND is_submitted = true";
+
+    private static final String DELETE_OPEN_SQL = "DELETE FROM student_frontier_tasks "
+            + "WHERE domain = ? AND state = 'OPEN'";
+
+    private static final String SELECT_SUBMITTED_SQL = "SELECT student_id, task_id FROM student_frontier_tasks "
+            + "WHERE domain = ? AND state = 'SUBMITTED' ORDER BY student_id";
+
+    private static final String REBUILD_SQL = "INSERT INTO student_frontier_tasks "
+            + "(student_id, domain, task_id, state, updated_at) "
+            + "SELECT ts.student_id, t.domain, ts.task_id, 'SUBMITTED', NOW() "
+            + "FROM task_schedule ts JOIN tasks t ON t.id = ts.task_id WHERE ts.is_submitted = true";
+
+    private final StudentFrontierRepository studentFrontierRepository;
+    private final TaskCatalog taskCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Tasks of the domain the student may open now and has not submitted:
+     * the OPEN rows plus the domain's tasks without prerequisites.
+     */
+    public List<Long> getFrontier(Long studentId, String domain) {
+        Set<Long> submitted = new HashSet<>();
+        Set<Long> frontier = new TreeSet<>();
+        jdbcTemplate.query("SELECT task_id, state FROM student_frontier_tasks WHERE student_id = ? AND domain = ?",
+                rs -> {
+                    (isSubmitted(rs.getString("state")) ? submitted : frontier).add(rs.getLong("task_id"));
+                }, studentId, domain);
+        for (Long taskId : taskCatalog.getGraph(domain).getRoots()) {
+            if (!submitted.contains(taskId)) {
+                frontier.add(taskId);
+            }
+        }
+        return new ArrayList<>(frontier);
+    }
+
+    /**
+     * Records a submission and returns the IDs of the tasks it unlocks for
+     * the student. Call after the schedule was marked submitted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Long> onSubmitted(Long studentId, Task task) {
+        jdbcTemplate.update(MARK_SUBMITTED_SQL, studentId, task.getDomain(), task.getId());
+        Set<Long> submitted = new HashSet<>();
+        Set<Long> open = new HashSet<>();
+        read(studentId, task.getDomain(), submitted, open);
+
+        List<Long> opened = taskCatalog.getGraph(task.getDomain()).unlockedBy(task.getId(), submitted);
+        List<Object[]> rows = new ArrayList<>();
+        for (Long taskId : opened) {
+            if (!open.contains(taskId)) {
+                rows.add(new Object[] { studentId, task.getDomain(), taskId });
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_OPEN_SQL, rows);
+        }
+        return opened;
+    }
+
+    /**
+     * Batch form of {@link #onSubmitted(Long, Task)}: one JDBC batch of upserts
+     * and one read for all students. Returns the task IDs to unlock per
+     * student.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Set<Long>> onSubmitted(Map<Long, List<Task>> tasksByStudent) {
+        if (tasksByStudent.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Object[]> rows = new ArrayList<>();
+        tasksByStudent.forEach((studentId, tasks) -> tasks.forEach(task -> rows.add(
+                new Object[] { studentId, task.getDomain(), task.getId() })));
+        jdbcTemplate.batchUpdate(MARK_SUBMITTED_SQL, rows);
+
+        Map<Long, Map<String, Set<Long>>> submitted = new HashMap<>();
+        Set<String> open = new HashSet<>();
+        namedParameterJdbcTemplate.query(SELECT_STUDENTS_SQL,
+                new MapSqlParameterSource("studentIds", tasksByStudent.keySet()), rs -> {
+                    long studentId = rs.getLong("student_id");
+                    String domain = rs.getString("domain");
+                    long taskId = rs.getLong("task_id");
+                    if (isSubmitted(rs.getString("state"))) {
+                        submitted.computeIfAbsent(studentId, id -> new HashMap<>())
+                                .computeIfAbsent(domain, d -> new HashSet<>()).add(taskId);
+                    } else {
+                        open.add(studentId + ":" + taskId);
+                    }
+                });
+
+        Map<Long, Set<Long>> unlocks = new LinkedHashMap<>();
+        List<Object[]> openRows = new ArrayList<>();
+        tasksByStudent.forEach((studentId, tasks) -> {
+            for (Task task : tasks) {
+                Set<Long> done = submitted.getOrDefault(studentId, Collections.emptyMap())
+                        .getOrDefault(task.getDomain(), Collections.emptySet());
+                for (Long taskId : taskCatalog.getGraph(task.getDomain()).unlockedBy(task.getId(), done)) {
+                    if (unlocks.computeIfAbsent(studentId, id -> new HashSet<>()).add(taskId)
+                            && open.add(studentId + ":" + taskId)) {
+                        openRows.add(new Object[] { studentId, task.getDomain(), taskId });
+                    }
+                }
+            }
+        });
+        if (!openRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_OPEN_SQL, openRows);
+        }
+        unlocks.values().removeIf(Set::isEmpty);
+        return unlocks;
+    }
+
+    /**
+     * Takes a task back out of the student's submitted set after its
+     * submission was deleted, and closes what it had opened.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUnsubmitted(Long studentId, String domain, Long taskId) {
+        jdbcTemplate.update(DELETE_SQL, studentId, domain, taskId);
+        Set<Long> submitted = new HashSet<>();
+        Set<Long> open = new HashSet<>();
+        read(studentId, domain, submitted, open);
+
+        Set<Long> expected = gatedFrontier(taskCatalog.getGraph(domain), submitted);
+        for (Long stale : open) {
+            if (!expected.contains(stale)) {
+                jdbcTemplate.update(DELETE_SQL, studentId, domain, stale);
+            }
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Long missing : expected) {
+            if (!open.contains(missing)) {
+                rows.add(new Object[] { studentId, domain, missing });
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_OPEN_SQL, rows);
+        }
+    }
+
+    /**
+     * IDs of the given due schedules whose prerequisites are met. Schedules
+     * of tasks without prerequisites need no lookup; for the rest the OPEN
+     * rows are read with one query.
+     */
+    public List<Long> filterUnlockable(List<UnlockCandidateView> candidates) {
+        List<Long> unlockable = new ArrayList<>();
+        List<UnlockCandidateView> gated = new ArrayList<>();
+        List<Object[]> keys = new ArrayList<>();
+        for (UnlockCandidateView candidate : candidates) {
+            Task task = taskCatalog.getTask(candidate.getTaskId()).orElse(null);
+            if (task == null || !taskCatalog.getGraph(task.getDomain()).hasPrerequisites(task.getId())) {
+                unlockable.add(candidate.getId());
+            } else {
+                gated.add(candidate);
+                keys.add(new Object[] { candidate.getStudentId(), task.getDomain(), task.getId() });
+            }
+        }
+        if (gated.isEmpty()) {
+            return unlockable;
+        }
+
+        Set<String> open = new HashSet<>();
+        namedParameterJdbcTemplate.query(SELECT_OPEN_SQL, new MapSqlParameterSource("keys", keys),
+                rs -> {
+                    open.add(rs.getLong("student_id") + ":" + rs.getLong("task_id"));
+                });
+        for (UnlockCandidateView candidate : gated) {
+            if (open.contains(candidate.getStudentId() + ":" + candidate.getTaskId())) {
+                unlockable.add(candidate.getId());
+            }
+        }
+        return unlockable;
+    }
+
+    /**
+     * Moves a task's submissions from one domain to another after the task
+     * was re-assigned. Both domains must be recomputed after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTaskMoved(Long taskId, String oldDomain, String newDomain) {
+        jdbcTemplate.update(DELETE_TASK_SQL, taskId);
+        jdbcTemplate.update(ADD_TASK_SQL, newDomain, taskId);
+    }
+
+    /**
+     * Removes a task from the students' frontiers. The domain must be
+     * recomputed after commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTaskDeleted(Long taskId, String domain) {
+        jdbcTemplate.update(DELETE_TASK_SQL, taskId);
+    }
+
+    /**
+     * Recomputes the OPEN rows of the domains once the current transaction
+     * (a task or prerequisite edit) commits. Register after
+     * TaskCatalog.refreshAfterCommit, so the catalog already has the new
+     * graph when this runs.
+     */
+    public void recomputeAfterCommit(String... domains) {
+        Set<String> distinct = new LinkedHashSet<>(Arrays.asList(domains));
+        distinct.remove(null);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            distinct.forEach(domain -> transactionTemplate.executeWithoutResult(status -> recompute(domain)));
+            return;
+        }
+        TransactionTemplate separate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                distinct.forEach(domain -> separate.executeWithoutResult(status -> recompute(domain)));
+            }
+        });
+    }
+
+    /**
+     * Seeds the table on first start after it was introduced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (studentFrontierRepository.count() == 0) {
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    /**
+     * Rebuilds the whole table from task_schedule.
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM student_frontier_tasks");
+        int rows = jdbcTemplate.update(REBUILD_SQL);
+        for (String domain : jdbcTemplate.queryForList("SELECT DISTINCT domain FROM student_frontier_tasks",
+                String.class)) {
+            rows += recompute(domain);
+        }
+        log.info("Rebuilt student_frontier_tasks: {} rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Replaces the domain's OPEN rows with the ones its current graph gives
+     * for each student's submitted tasks. Returns the number of OPEN rows.
+     */
+    private int recompute(String domain) {
+        TaskGraph graph = taskCatalog.getGraph(domain);
+        jdbcTemplate.update(DELETE_OPEN_SQL, domain);
+
+        List<Object[]> batch = new ArrayList<>();
+        int[] rows = new int[1];
+        long[] current = { -1L };
+        Set<Long> submitted = new HashSet<>();
+        Runnable flushStudent = () -> {
+            for (Long taskId : gatedFrontier(graph, submitted)) {
+                batch.add(new Object[] { current[0], domain, taskId });
+            }
+            submitted.clear();
+            if (batch.size() >= BATCH_SIZE) {
+                rows[0] += batch.size();
+                jdbcTemplate.batchUpdate(ADD_OPEN_SQL, batch);
+                batch.clear();
+            }
+        };
+        jdbcTemplate.query(SELECT_SUBMITTED_SQL, rs -> {
+            long studentId = rs.getLong("student_id");
+            if (studentId != current[0] && current[0] >= 0) {
+                flushStudent.run();
+            }
+            current[0] = studentId;
+            submitted.add(rs.getLong("task_id"));
+        }, domain);
+        if (current[0] >= 0) {
+            flushStudent.run();
+        }
+        if (!batch.isEmpty()) {
+            rows[0] += batch.size();
+            jdbcTemplate.batchUpdate(ADD_OPEN_SQL, batch);
+        }
+        log.debug("Recomputed the unlock frontier of domain {}: {} open rows", domain, rows[0]);
+        return rows[0];
+    }
+
+    private void read(Long studentId, String domain, Set<Long> submitted, Set<Long> open) {
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            (isSubmitted(rs.getString("state")) ? submitted : open).add(rs.getLong("task_id"));
+        }, studentId, domain);
+    }
+
+    /**
+     * Frontier tasks that have prerequisites, i.e. the ones stored as OPEN
+     */
+    private static Set<Long> gatedFrontier(TaskGraph graph, Set<Long> submitted) {
+        Set<Long> gated = new HashSet<>();
+        for (Long taskId : graph.frontier(submitted)) {
+            if (graph.hasPrerequisites(taskId)) {
+                gated.add(taskId);
+            }
+        }
+        return gated;
+    }
+
+    private static boolean isSubmitted(String state) {
+        return StudentFrontier.FrontierState.SUBMITTED.name().equals(state);
+    }
+}
@@ -0,0 +1,159 @@
+package com.skilledup.task.service;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.skilledup.task.dto.UploadGrantRequest;
+import com.skilledup.task.dto.UploadGrantResponse;
+import com.skilledup.task.model.UploadGrant;
+import com.skilledup.task.repository.UploadGrantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Issues presigned S3 uploads for task files and submissions so the bytes go
+ * from the browser to S3 without passing through this service. A grant pins
+ * the object key, content type and size limit; the completion callback checks
+ * what S3 stored and returns the file URL to use in the task or submission.
+ */
+@Service
+@Slf4j
+public class UploadGrantService {
+
+    private final UploadGrantRepository uploadGrantRepository;
+    private final S3Service s3Service;
+    private final DataSize taskFileMaxSize;
+    private final DataSize submissionMaxSize;
+    private final List<String> allowedContentTypes;
+    private final Duration ttl;
+
+    public UploadGrantService(UploadGrantRepository uploadGrantRepository, S3Service s3Service,
+            @Value("${task.uploads.task-file-max-size:100MB}") DataSize taskFileMaxSize,
+            @Value("${task.uploads.submission-max-size:50MB}") DataSize submissionMaxSize,
+            @Value("${task.uploads.allowed-content-types:application/pdf,application/zip,image/png,image/jpeg,video/mp4,text/plain}") List<String> allowedContentTypes,
+            @Value("${task.uploads.grant-ttl:PT15M}") Duration ttl) {
+        this.uploadGrantRepository = uploadGrantRepository;
+        this.s3Service = s3Service;
+        this.taskFileMaxSize = taskFileMaxSize;
+        this.submissionMaxSize = submissionMaxSize;
+        this.allowedContentTypes = allowedContentTypes.stream()
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        this.ttl = ttl;
+    }
+
+    @Transactional
+    public UploadGrantResponse issue(UploadGrantRequest request) {
+        String contentType = request.getContentType().trim().toLowerCase(Locale.ROOT);
+        if (!allowedContentTypes.contains(contentType)) {
+            throw new RuntimeException("Content type not allowed: " + request.getContentType());
+        }
+        long maxBytes = maxBytes(request.getPurpose());
+        if (request.getSize() > maxBytes) {
+            throw new RuntimeException("File is " + request.getSize() + " bytes, limit is " + maxBytes);
+        }
+        if (request.getFileName().length() > UploadGrantRequest.MAX_FILE_NAME_LENGTH) {
+            throw new RuntimeException("File name must be at most " + UploadGrantRequest.MAX_FILE_NAME_LENGTH
+                    + " characters");
+        }
+        if (request.getPurpose() == UploadGrant.Purpose.SUBMISSION && request.getStudentId() == null) {
+            throw new RuntimeException("Student ID is required for submission uploads");
+        }
+
+        boolean put = "PUT".equalsIgnoreCase(request.getMethod());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        Date expiration = Timestamp.valueOf(expiresAt);
+        String objectKey = UUID.randomUUID() + "_" + request.getFileName().replace(" ", "_");
+
+        UploadGrant grant = uploadGrantRepository.save(UploadGrant.builder()
+                .purpose(request.getPurpose())
+                .objectKey(objectKey)
+                .contentType(contentType)
+                // A PUT cannot be bounded by S3, so hold it to the declared size
+                .maxBytes(put ? request.getSize() : maxBytes)
+                .studentId(request.getStudentId())
+                .expiresAt(expiresAt)
+                .createdAt(now)
+                .build());
+
+        UploadGrantResponse.UploadGrantResponseBuilder response = UploadGrantResponse.builder()
+                .grantId(grant.getId())
+                .objectKey(objectKey)
+                .maxBytes(grant.getMaxBytes())
+                .expiresAt(expiresAt);
+        if (put) {
+            return response.method("PUT")
+                    .url(s3Service.presignPut(objectKey, contentType, expiration))
+                    .headers(Map.of("Content-Type", contentType))
+                    .build();
+        }
+        return response.method("POST")
+                .url(s3Service.getPostUrl())
+                .fields(s3Service.presignPost(objectKey, contentType, maxBytes, expiration))
+                .build();
+    }
+
+    /**
+     * Called by the client once S3 accepted the upload. Checks the stored
+     * object against the grant; an oversized or mistyped object, or one
+     * completed after the grant expired, is deleted and the grant marked
+     * REJECTED.
+     */
+    @Transactional
+    public UploadGrant complete(Long grantId) {
+        UploadGrant grant = uploadGrantRepository.findById(grantId)
+                .orElseThrow(() -> new RuntimeException("Upload grant not found"));
+        if (grant.getStatus() == UploadGrant.GrantStatus.COMPLETED) {
+            return grant;
+        }
+        if (grant.getStatus() == UploadGrant.GrantStatus.REJECTED) {
+            throw new RuntimeException("Upload grant was rejected");
+        }
+
+        if (LocalDateTime.now().isAfter(grant.getExpiresAt())) {
+            s3Service.deleteObject(grant.getObjectKey());
+            grant.setStatus(UploadGrant.GrantStatus.REJECTED);
+            log.warn("Rejected upload {}: grant {} expired at {}", grant.getObjectKey(), grantId,
+                    grant.getExpiresAt());
+            return uploadGrantRepository.save(grant);
+        }
+
+        ObjectMetadata metadata = s3Service.findObjectMetadata(grant.getObjectKey());
+        if (metadata == null) {
+            throw new RuntimeException("Upload not found in storage for grant " + grantId);
+        }
+
+        String storedType = metadata.getContentType() != null
+                ? metadata.getContentType().toLowerCase(Locale.ROOT)
+                : null;
+        if (metadata.getContentLength() > grant.getMaxBytes() || !grant.getContentType().equals(storedType)) {
+            s3Service.deleteObject(grant.getObjectKey());
+            grant.setStatus(UploadGrant.GrantStatus.REJECTED);
+            grant.setStoredBytes(metadata.getContentLength());
+            log.warn("Rejected upload {}: {} bytes of {} (grant allows {} bytes of {})", grant.getObjectKey(),
+                    metadata.getContentLength(), storedType, grant.getMaxBytes(), grant.getContentType());
+            return uploadGrantRepository.save(grant);
+        }
+
+        grant.setStatus(UploadGrant.GrantStatus.COMPLETED);
+        grant.setCompletedAt(LocalDateTime.now());
+        grant.setStoredBytes(metadata.getContentLength());
+        grant.setFileUrl(s3Service.getObjectUrl(grant.getObjectKey()));
+        return uploadGrantRepository.save(grant);
+    }
+
+    private long maxBytes(UploadGrant.Purpose purpose) {
+        return purpose == UploadGrant.Purpose.TASK_FILE ? taskFileMaxSize.toBytes() : submissionMaxSize.toBytes();
+    }
+}
@@ -0,0 +1,92 @@
+package com.skilledup.task.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    // 4 slots of 10 ms: the first level spans 40 ms, the second 160 ms, the
+    // third 640 ms
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 4;
+
+    @Test
+    void alreadyDueEntriesAreNotStored() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, 1000);
+
+        assertFalse(wheel.schedule(1, 995));
+        assertFalse(wheel.schedule(2, 1009)); // Within the current tick
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.schedule(3, 1010));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void entryWithinFirstLevelFiresOnItsTick() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, 0);
+        wheel.schedule(7, 30);
+
+        assertEquals(List.of(), wheel.advance(20));
+        assertEquals(List.of(7L), wheel.advance(30));
+        assertFalse(wheel.contains(7));
+        assertEquals(List.of(), wheel.advance(40));
+    }
+
+    @Test
+    void overflowEntriesCascadeDownAndFireOnTime() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, 0);
+        // Second level, third level and a fourth level created on demand
+        long[] expirations = { 50, 170, 630, 2000 };
+        for (int i = 0; i < expirations.length; i++) {
+            assertTrue(wheel.schedule(i, expirations[i]));
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long now = 0; now <= 2100; now += TICK_MS) {
+            for (Long id : wheel.advance(now)) {
+                fired.add(new long[] { id, now });
+            }
+        }
+
+        assertEquals(expirations.length, fired.size());
+        for (int i = 0; i < expirations.length; i++) {
+            assertEquals(i, fired.get(i)[0]);
+            assertEquals(expirations[i], fired.get(i)[1], "entry " + i + " fired at the wrong tick");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void clockJumpFiresEverythingDueAtOnce() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, 0);
+        wheel.schedule(1, 20);
+        wheel.schedule(2, 300);
+        wheel.schedule(3, 5000);
+
+        List<Long> due = wheel.advance(1000);
+        due.sort(null);
+
+        assertEquals(List.of(1L, 2L), due);
+        assertTrue(wheel.contains(3));
+        assertEquals(List.of(3L), wheel.advance(5000));
+    }
+
+    @Test
+    void cancelAndRescheduleReplaceTheEntry() {
+        TimingWheel wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, 0);
+        wheel.schedule(1, 100);
+        wheel.schedule(2, 100);
+        wheel.cancel(1);
+        wheel.schedule(2, 300);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(200));
+        assertEquals(List.of(2L), wheel.advance(300));
+    }
+}
@@ -0,0 +1,163 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.SimilarityMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LshIndexTest {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 8;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void identicalBandMakesACandidate() {
+        LshIndex index = new LshIndex(BANDS, ROWS);
+        int[] base = randomSignature();
+        // One changed component in every band but the last: 15 of 128 differ
+        int[] variant = base.clone();
+        for (int band = 0; band < BANDS - 1; band++) {
+            variant[band * ROWS]++;
+        }
+        index.add(1, 100, variant);
+
+        List<SimilarityMatch> matches = index.query(base, 0.8, -1, 10);
+
+        assertEquals(1, matches.size());
+        assertEquals(1, matches.get(0).getSubmissionId());
+        assertEquals(100, matches.get(0).getStudentId());
+        assertEquals((128.0 - 15) / 128, matches.get(0).getSimilarity(), 1e-9);
+    }
+
+    @Test
+    void signatureWithNoIdenticalBandIsNeverACandidate() {
+        LshIndex index = new LshIndex(BANDS, ROWS);
+        int[] base = randomSignature();
+        // 0.875 similar, but every band differs in one component
+        int[] variant = base.clone();
+        for (int band = 0; band < BANDS; band++) {
+            variant[band * ROWS]++;
+        }
+        index.add(1, 100, variant);
+
+        assertTrue(index.query(base, 0.0, -1, 10).isEmpty());
+    }
+
+    @Test
+    void candidateRateFollowsBandingCurve() {
+        // P(candidate) = 1 - (1 - s^rows)^bands
+        for (double s : new double[] { 0.5, 0.7, 0.8, 0.9 }) {
+            double expected = 1 - Math.pow(1 - Math.pow(s, ROWS), BANDS);
+            int trials = 2000;
+            int found = 0;
+            for (int t = 0; t < trials; t++) {
+                LshIndex index = new LshIndex(BANDS, ROWS);
+                int[] base = randomSignature();
+                index.add(1, 1, perturb(base, s));
+                if (!index.query(base, 0.0, -1, 1).isEmpty()) {
+                    found++;
+                }
+            }
+            assertEquals(expected, (double) found / trials, 0.03, "candidate rate at s=" + s);
+        }
+    }
+
+    @Test
+    void thresholdStudentAndLimitFilterMatches() {
+        LshIndex index = new LshIndex(BANDS, ROWS);
+        int[] base = randomSignature();
+        index.add(1, 100, base.clone());
+        index.add(2, 200, changeComponents(base, 10));
+        index.add(3, 300, changeComponents(base, 40)); // ~0.69, below threshold
+        index.add(4, 400, changeComponents(base, 5));
+
+        List<Long> ids = index.query(base, 0.8, 100, 10).stream()
+                .map(SimilarityMatch::getSubmissionId)
+                .collect(Collectors.toList());
+        assertEquals(List.of(4L, 2L), ids); // Most similar first, own submission skipped
+
+        assertEquals(List.of(1L), index.query(base, 0.8, -1, 1).stream()
+                .map(SimilarityMatch::getSubmissionId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void removeAndReplace() {
+        LshIndex index = new LshIndex(BANDS, ROWS);
+        int[] base = randomSignature();
+        index.add(1, 100, base);
+        index.add(2, 200, base);
+
+        index.remove(1);
+        assertFalse(index.contains(1));
+        assertEquals(1, index.size());
+        assertEquals(List.of(2L), index.query(base, 0.8, -1, 10).stream()
+                .map(SimilarityMatch::getSubmissionId)
+                .collect(Collectors.toList()));
+
+        // Re-adding a submission replaces its signature
+        index.add(2, 200, randomSignature());
+        assertEquals(1, index.size());
+        assertTrue(index.query(base, 0.8, -1, 10).isEmpty());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        LshIndex index = new LshIndex(BANDS, ROWS);
+        int[][] signatures = new int[5000][];
+        for (int i = 0; i < signatures.length; i++) {
+            signatures[i] = randomSignature();
+            index.add(i, i, signatures[i]);
+        }
+
+        assertEquals(5000, index.size());
+        for (int i = 0; i < signatures.length; i += 97) {
+            List<SimilarityMatch> matches = index.query(signatures[i], 0.8, -1, 10);
+            assertEquals(1, matches.size());
+            assertEquals(i, matches.get(0).getSubmissionId());
+        }
+    }
+
+    @Test
+    void rejectsMismatchedSignatureLength() {
+        assertThrows(IllegalArgumentException.class, () -> new LshIndex(0, 8));
+        assertThrows(IllegalArgumentException.class, () -> new LshIndex(BANDS, ROWS).add(1, 1, new int[10]));
+    }
+
+    private int[] randomSignature() {
+        int[] signature = new int[BANDS * ROWS];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = random.nextInt();
+        }
+        return signature;
+    }
+
+    // Each component kept with probability s
+    private int[] perturb(int[] signature, double s) {
+        int[] copy = signature.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (random.nextDouble() >= s) {
+                copy[i]++;
+            }
+        }
+        return copy;
+    }
+
+    // Changes the given number of components, spread over the bands
+    private static int[] changeComponents(int[] signature, int count) {
+        int[] copy = signature.clone();
+        for (int i = 0; i < count; i++) {
+            copy[(i * 13) % copy.length]++;
+        }
+        return copy;
+    }
+}
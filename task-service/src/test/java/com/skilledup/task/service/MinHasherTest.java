@@ -0,0 +1,65 @@
+package com.skilledup.task.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHasherTest {
+
+    private final MinHasher hasher = new MinHasher(128, 5, 0x5EEDL);
+
+    @Test
+    void textShorterThanOneShingleHasNoSignature() {
+        assertNull(hasher.sign("only four words here"));
+        assertNull(hasher.sign(" ,.; "));
+        assertNotNull(hasher.sign("now there are five words"));
+    }
+
+    @Test
+    void caseAndPunctuationDoNotMatter() {
+        assertArrayEquals(hasher.sign("The quick brown fox jumps over the lazy dog"),
+                hasher.sign("the QUICK, brown fox -- jumps over; the lazy dog!"));
+    }
+
+    @Test
+    void signaturesAreStableForTheSameSeed() {
+        String text = words(0, 50);
+        assertArrayEquals(hasher.sign(text), new MinHasher(128, 5, 0x5EEDL).sign(text));
+        assertEquals(128, hasher.getNumHashes());
+    }
+
+    @Test
+    void similarityEstimatesJaccardOfShingleSets() {
+        // 200 distinct words; b shares the first 100. Each text has 196
+        // shingles of 5 words, 96 of them shared: J = 96 / 296
+        int[] a = hasher.sign(words(0, 200));
+        int[] b = hasher.sign(words(0, 100) + " " + words(1000, 1100));
+        double jaccard = 96.0 / 296.0;
+
+        assertEquals(1.0, MinHasher.similarity(a, a));
+        // Standard error at 128 hashes is about 0.04
+        assertEquals(jaccard, MinHasher.similarity(a, b), 0.15);
+    }
+
+    @Test
+    void unrelatedTextsAreDissimilar() {
+        int[] a = hasher.sign(words(0, 300));
+        int[] b = hasher.sign(words(5000, 5300));
+
+        assertTrue(MinHasher.similarity(a, b) < 0.05, String.valueOf(MinHasher.similarity(a, b)));
+    }
+
+    private static String words(int from, int to) {
+        StringJoiner text = new StringJoiner(" ");
+        for (int i = from; i < to; i++) {
+            text.add("w" + i);
+        }
+        return text.toString();
+    }
+}
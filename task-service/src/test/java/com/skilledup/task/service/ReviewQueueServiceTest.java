@@ -0,0 +1,207 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.dto.ReviewQueueItem;
+import com.skilledup.task.dto.ReviewQueuePage;
+import com.skilledup.task.model.Submission;
+import com.skilledup.task.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs the keyset query against an in-memory H2 database
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=",
+        "cloud.aws.s3.bucket=review-bucket"
+})
+@Import(ReviewQueueService.class)
+class ReviewQueueServiceTest {
+
+    private static final Instant T0 = Instant.parse("2024-03-01T10:00:00Z");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReviewQueueService reviewQueueService;
+
+    @MockBean
+    private S3Service s3Service;
+
+    private Task web1;
+    private Task web2;
+    private Task ai1;
+
+    @BeforeEach
+    void setUp() {
+        web1 = entityManager.persist(task("Web", 1));
+        web2 = entityManager.persist(task("Web", 2));
+        ai1 = entityManager.persist(task("AI", 1));
+        when(s3Service.generateSignedUrl(anyString())).thenAnswer(invocation -> invocation.getArgument(0) + "?signed");
+    }
+
+    @Test
+    void pagesFollowSubmittedAtThenIdWithoutGapsOrRepeats() {
+        // Three submissions share a timestamp, so the id breaks the tie across page boundaries
+        Long late = submit(web1, T0.plusSeconds(60), null).getId();
+        Long tieA = submit(web2, T0, null).getId();
+        Long tieB = submit(ai1, T0, null).getId();
+        Long tieC = submit(web1, T0, null).getId();
+        Long early = submit(web1, T0.minusSeconds(60), null).getId();
+        Submission reviewed = submit(web1, T0.minusSeconds(120), null);
+        reviewed.setStatus(Submission.SubmissionStatus.APPROVED);
+        entityManager.flush();
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            ReviewQueuePage page = reviewQueueService.getPage(null, null, null, cursor, 2);
+            page.getItems().forEach(item -> seen.add(item.getId()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(early, tieA, tieB, tieC, late), seen);
+        assertEquals(List.of(2, 2, 1), pageSizes);
+    }
+
+    @Test
+    void lastFullPageHasNoCursor() {
+        submit(web1, T0, null);
+        submit(web1, T0.plusSeconds(1), null);
+
+        ReviewQueuePage page = reviewQueueService.getPage(null, null, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void filtersByDomainWeekAndSubmittedBefore() {
+        Long webWeek1 = submit(web1, T0, null).getId();
+        Long webWeek2 = submit(web2, T0.plusSeconds(1), null).getId();
+        Long aiWeek1 = submit(ai1, T0.plusSeconds(2), null).getId();
+        Long webWeek1Late = submit(web1, T0.plusSeconds(3), null).getId();
+
+        assertEquals(List.of(webWeek1, webWeek2, webWeek1Late), ids(reviewQueueService.getPage("Web", null, null,
+                null, 10)));
+        assertEquals(List.of(webWeek1, aiWeek1, webWeek1Late), ids(reviewQueueService.getPage(null, 1, null,
+                null, 10)));
+        assertEquals(List.of(webWeek1), ids(reviewQueueService.getPage("Web", 1, T0.plusSeconds(3), null, 10)));
+        // A blank domain is no filter
+        assertEquals(4, reviewQueueService.getPage(" ", null, null, null, 10).getItems().size());
+    }
+
+    @Test
+    void filtersApplyAcrossPages() {
+        Long first = submit(web1, T0, null).getId();
+        submit(ai1, T0.plusSeconds(1), null);
+        Long second = submit(web1, T0.plusSeconds(2), null).getId();
+
+        ReviewQueuePage page = reviewQueueService.getPage("Web", null, null, null, 1);
+        assertEquals(List.of(first), ids(page));
+
+        page = reviewQueueService.getPage("Web", null, null, page.getNextCursor(), 1);
+        assertEquals(List.of(second), ids(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void onlyTheReturnedPageIsSigned() {
+        String bucketFile = "https://review-bucket.s3.amazonaws.com/submissions/";
+        submit(web1, T0, bucketFile + "a.pdf");
+        submit(web1, T0.plusSeconds(1), "https://example.com/b.pdf");
+        submit(web1, T0.plusSeconds(2), bucketFile + "c.pdf"); // Look-ahead row of the first page
+
+        ReviewQueuePage page = reviewQueueService.getPage(null, null, null, null, 2);
+
+        assertEquals(List.of(bucketFile + "a.pdf?signed", "https://example.com/b.pdf"), page.getItems().stream()
+                .map(ReviewQueueItem::getSubmissionFileUrl)
+                .collect(Collectors.toList()));
+        verify(s3Service).generateSignedUrl(bucketFile + "a.pdf");
+        verify(s3Service, never()).generateSignedUrl(bucketFile + "c.pdf");
+        verify(s3Service, never()).generateSignedUrl("https://example.com/b.pdf");
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        for (int i = 0; i < 3; i++) {
+            submit(web1, T0.plusSeconds(i), null);
+        }
+
+        assertEquals(1, reviewQueueService.getPage(null, null, null, null, 0).getItems().size());
+        assertEquals(3, reviewQueueService.getPage(null, null, null, null, 1000).getItems().size());
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        Instant submittedAt = Instant.parse("2024-03-04T05:06:07.123456Z");
+
+        String cursor = ReviewQueueService.encodeCursor(submittedAt, 42L);
+        String[] parts = ReviewQueueService.decodeCursor(cursor);
+
+        assertEquals(submittedAt, Instant.parse(parts[0]));
+        assertEquals(42L, Long.parseLong(parts[1]));
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = ReviewQueueService.encodeCursor(Instant.parse("2024-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), cursor);
+        assertArrayEquals(new String[] { "2024-12-31T23:59:59Z", String.valueOf(Long.MAX_VALUE) },
+                ReviewQueueService.decodeCursor(cursor));
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        String threeParts = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01T00:00:00Z|1|2".getBytes(StandardCharsets.UTF_8));
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01T00:00:00Z".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[] { "not base64!", threeParts, noSeparator }) {
+            RuntimeException e = assertThrows(RuntimeException.class,
+                    () -> ReviewQueueService.decodeCursor(cursor));
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+    }
+
+    private Submission submit(Task task, Instant submittedAt, String fileUrl) {
+        Submission submission = new Submission();
+        submission.setStudentId(7L);
+        submission.setTask(task);
+        submission.setSubmittedAt(submittedAt);
+        submission.setSubmissionFileUrl(fileUrl);
+        return entityManager.persist(submission);
+    }
+
+    private static Task task(String domain, int weekNo) {
+        return Task.builder().domain(domain).weekNo(weekNo).title(domain + " week " + weekNo).active(true).build();
+    }
+
+    private static List<Long> ids(ReviewQueuePage page) {
+        return page.getItems().stream().map(ReviewQueueItem::getId).collect(Collectors.toList());
+    }
+}
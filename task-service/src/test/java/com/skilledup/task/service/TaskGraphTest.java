@@ -0,0 +1,146 @@
+package com.skilledup.task.service;
+
+import com.skilledup.task.model.Task;
+import com.skilledup.task.model.TaskPrerequisite;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskGraphTest {
+
+    private static final String WEB = "Web";
+    private static final String AI = "AI";
+
+    @Test
+    void defaultRuleOpensAfterAnyActiveTaskOfThePreviousWeek() {
+        List<Task> tasks = List.of(
+                task(1, WEB, 1), task(2, WEB, 1), inactive(task(3, WEB, 1)),
+                task(4, WEB, 2),
+                task(5, WEB, 4)); // Week 3 is empty
+        TaskGraph graph = TaskGraph.compile(tasks, List.of(), true).get(WEB);
+
+        assertFalse(graph.hasPrerequisites(1L));
+        assertEquals(List.of(1L, 2L), graph.getPrerequisites(4L)); // Inactive task 3 dropped
+        assertFalse(graph.isUnlockable(4L, Set.of()));
+        assertFalse(graph.isUnlockable(4L, Set.of(3L)));
+        assertTrue(graph.isUnlockable(4L, Set.of(2L)));
+        assertFalse(graph.hasPrerequisites(5L));
+    }
+
+    @Test
+    void customPrerequisitesNeedAllDeclaredTasks() {
+        List<Task> tasks = List.of(
+                task(1, WEB, 1), task(2, WEB, 1), inactive(task(3, WEB, 1)),
+                custom(task(4, WEB, 2)), custom(task(5, WEB, 2)));
+        List<TaskPrerequisite> edges = List.of(edge(4, 1), edge(4, 2), edge(4, 3));
+        TaskGraph graph = TaskGraph.compile(tasks, edges, true).get(WEB);
+
+        assertEquals(List.of(1L, 2L), graph.getPrerequisites(4L)); // Edge to inactive task 3 dropped
+        assertFalse(graph.isUnlockable(4L, Set.of(1L)));
+        assertTrue(graph.isUnlockable(4L, Set.of(1L, 2L)));
+        // Custom without declared edges: open from the start
+        assertFalse(graph.hasPrerequisites(5L));
+        assertTrue(graph.isUnlockable(5L, Set.of()));
+    }
+
+    @Test
+    void unlockedByReturnsNewlySatisfiedDependents() {
+        List<Task> tasks = List.of(
+                task(1, WEB, 1), task(2, WEB, 1),
+                task(3, WEB, 2), custom(task(4, WEB, 2)), custom(task(5, WEB, 2)));
+        List<TaskPrerequisite> edges = List.of(edge(4, 1), edge(4, 2), edge(5, 1));
+        TaskGraph graph = TaskGraph.compile(tasks, edges, true).get(WEB);
+
+        assertEquals(List.of(3L, 5L), graph.unlockedBy(1L, Set.of(1L)));
+        // Only dependents of the submitted task: 5 does not depend on 2
+        assertEquals(List.of(3L, 4L), graph.unlockedBy(2L, Set.of(1L, 2L)));
+        // Already submitted dependents are not reported
+        assertEquals(List.of(4L), graph.unlockedBy(2L, Set.of(1L, 2L, 3L)));
+        assertEquals(List.of(), graph.unlockedBy(3L, Set.of(3L)));
+    }
+
+    @Test
+    void frontierListsOpenUnsubmittedTasks() {
+        List<Task> tasks = List.of(task(1, WEB, 1), task(2, WEB, 1), task(3, WEB, 2), task(4, WEB, 3));
+        TaskGraph graph = TaskGraph.compile(tasks, List.of(), true).get(WEB);
+
+        assertEquals(List.of(1L, 2L), graph.getRoots());
+        assertEquals(List.of(1L, 2L), graph.frontier(Set.of()));
+        assertEquals(List.of(2L, 3L), graph.frontier(Set.of(1L)));
+        assertEquals(List.of(2L, 4L), graph.frontier(Set.of(1L, 3L)));
+    }
+
+    @Test
+    void graphsAreCompiledPerDomain() {
+        List<Task> tasks = List.of(task(1, WEB, 1), task(2, AI, 1), task(3, AI, 2));
+        Map<String, TaskGraph> graphs = TaskGraph.compile(tasks, List.of(), true);
+
+        assertEquals(Set.of(WEB, AI), graphs.keySet());
+        assertEquals(List.of(2L), graphs.get(AI).getPrerequisites(3L));
+        // Tasks outside a graph have no prerequisites
+        assertTrue(graphs.get(WEB).isUnlockable(3L, Set.of()));
+        assertTrue(TaskGraph.EMPTY.isUnlockable(1L, Set.of()));
+    }
+
+    @Test
+    void strictCompileRejectsInvalidEdges() {
+        List<Task> tasks = List.of(custom(task(1, WEB, 1)), custom(task(2, AI, 1)));
+
+        assertEquals("Prerequisite task 2 is not in domain Web", assertThrows(RuntimeException.class,
+                () -> TaskGraph.compile(tasks, List.of(edge(1, 2)), true)).getMessage());
+        assertEquals("A task cannot be its own prerequisite", assertThrows(RuntimeException.class,
+                () -> TaskGraph.compile(tasks, List.of(edge(1, 1)), true)).getMessage());
+        assertEquals("Prerequisite task not found", assertThrows(RuntimeException.class,
+                () -> TaskGraph.compile(tasks, List.of(edge(1, 99)), true)).getMessage());
+    }
+
+    @Test
+    void strictCompileRejectsCycles() {
+        List<Task> tasks = List.of(task(1, WEB, 1), custom(task(2, WEB, 2)), custom(task(3, WEB, 3)),
+                custom(task(4, WEB, 4)));
+        List<TaskPrerequisite> edges = List.of(edge(2, 1), edge(2, 4), edge(3, 2), edge(4, 3));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> TaskGraph.compile(tasks, edges, true));
+        assertEquals("Prerequisites of domain Web form a cycle through tasks [2, 3, 4]", e.getMessage());
+    }
+
+    @Test
+    void lenientCompileSkipsBadEdgesAndKeepsCyclesLocked() {
+        List<Task> tasks = List.of(task(1, WEB, 1), custom(task(2, WEB, 2)), custom(task(3, WEB, 2)),
+                custom(task(5, WEB, 3)), custom(task(6, AI, 1)));
+        List<TaskPrerequisite> edges = List.of(edge(2, 3), edge(3, 2), edge(5, 1), edge(5, 6), edge(5, 99));
+        Map<String, TaskGraph> graphs = TaskGraph.compile(tasks, edges, false);
+
+        TaskGraph web = graphs.get(WEB);
+        assertEquals(List.of(1L), web.getPrerequisites(5L));
+        assertTrue(web.isUnlockable(5L, Set.of(1L)));
+        assertFalse(web.isUnlockable(2L, Set.of(1L)));
+        assertFalse(web.isUnlockable(3L, Set.of(1L)));
+        assertEquals(List.of(1L), web.frontier(Set.of()));
+    }
+
+    private static Task task(long id, String domain, int weekNo) {
+        return Task.builder().id(id).domain(domain).weekNo(weekNo).title("Task " + id).active(true).build();
+    }
+
+    private static Task inactive(Task task) {
+        task.setActive(false);
+        return task;
+    }
+
+    private static Task custom(Task task) {
+        task.setCustomPrerequisites(true);
+        return task;
+    }
+
+    private static TaskPrerequisite edge(long taskId, long prerequisiteTaskId) {
+        return TaskPrerequisite.builder().taskId(taskId).prerequisiteTaskId(prerequisiteTaskId).build();
+    }
+}